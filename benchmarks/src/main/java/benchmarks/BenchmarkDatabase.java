@@ -0,0 +1,156 @@
+package benchmarks;
+
+import utils.DBConnection;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+/**
+ * In-memory H2 database (MySQL mode) standing in for MySQL in the benchmarks
+ * Puts DBConnection in embedded mode, which creates the schema, and seeds a
+ * fixed, reproducible data set once per benchmark JVM
+ */
+public final class BenchmarkDatabase {
+
+    // Data set size (overridable with -Dairline.bench.* system properties)
+    public static final int FLIGHTS = Integer.getInteger("airline.bench.flights", 2000);
+    public static final int USERS = Integer.getInteger("airline.bench.users", 1000);
+    public static final int BOOKINGS_PER_FLIGHT = Integer.getInteger("airline.bench.bookingsPerFlight", 50);
+
+    public static final String[] CITIES = {"Mumbai", "Delhi", "Bangalore", "Chennai", "Kolkata",
+            "Hyderabad", "Ahmedabad", "Pune", "Goa", "Kochi"};
+
+    // First departure of the seeded schedule; flights leave every 20 minutes after it
+    public static final LocalDateTime FIRST_DEPARTURE = LocalDateTime.now().plusDays(1).withHour(0)
+            .withMinute(0).withSecond(0).withNano(0);
+
+    // Customer and flight the booking benchmark books on; the flight is large enough never to sell out
+    public static final String BENCH_EMAIL = "bench@example.com";
+    public static final String BENCH_FLIGHT_NUMBER = "BENCH1";
+    public static final int BENCH_FLIGHT_SEATS = 1_000_000;
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static boolean started = false;
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Create and seed the database unless this JVM already did
+     * Must run before anything touches DBConnection
+     */
+    public static synchronized void start() throws SQLException, IOException {
+        if (started) {
+            return;
+        }
+        // The benchmark data replaces the sample data, so ids are predictable
+        System.setProperty("airline.db.mode", "embedded");
+        System.setProperty("airline.db.sampleData", "false");
+
+        try (Connection conn = DBConnection.getConnection()) {
+            if (conn == null) {
+                throw new SQLException("Benchmark database unavailable");
+            }
+            conn.setAutoCommit(false);
+            seed(conn);
+            conn.commit();
+        }
+        started = true;
+    }
+
+    /**
+     * Id of the flight the booking benchmark books on
+     */
+    public static int benchFlightId() {
+        return FLIGHTS + 1;
+    }
+
+    /**
+     * Seat number of the nth booking on a seeded flight, matching SeatMap's Economy numbering
+     */
+    private static String seatNumber(int n) {
+        return "E" + (n + 1);
+    }
+
+    private static void seed(Connection conn) throws SQLException {
+        Random random = new Random(42);
+
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO users (name, email, password, role) VALUES (?, ?, ?, 'customer')")) {
+            for (int i = 1; i <= USERS; i++) {
+                pstmt.setString(1, "Customer " + i);
+                pstmt.setString(2, i == 1 ? BENCH_EMAIL : "customer" + i + "@example.com");
+                pstmt.setString(3, "password123");
+                pstmt.addBatch();
+                if (i % BATCH_SIZE == 0) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+        }
+
+        // Each city pair gets flights spread over the schedule
+        int totalSeats = 180;
+        try (PreparedStatement flights = conn.prepareStatement(
+                "INSERT INTO flights (flight_number, airline, source, destination, departure_time, arrival_time, " +
+                "price, total_seats, available_seats) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement bookings = conn.prepareStatement(
+                "INSERT INTO bookings (user_id, flight_id, passenger_name, seat_number, total_amount, status) " +
+                "VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < FLIGHTS; i++) {
+                int source = i % CITIES.length;
+                int destination = (source + 1 + (i / CITIES.length) % (CITIES.length - 1)) % CITIES.length;
+                LocalDateTime departure = FIRST_DEPARTURE.plusMinutes(20L * i);
+                double price = 2000 + random.nextInt(6000);
+                int confirmed = 0;
+
+                for (int n = 0; n < BOOKINGS_PER_FLIGHT; n++) {
+                    boolean cancelled = random.nextInt(10) == 0;
+                    if (!cancelled) {
+                        confirmed++;
+                    }
+                    bookings.setInt(1, 1 + random.nextInt(USERS));
+                    bookings.setInt(2, i + 1);
+                    bookings.setString(3, "Passenger " + n);
+                    bookings.setString(4, seatNumber(n));
+                    bookings.setDouble(5, price);
+                    bookings.setString(6, cancelled ? "CANCELLED" : "CONFIRMED");
+                    bookings.addBatch();
+                }
+
+                flights.setString(1, "BM" + i);
+                flights.setString(2, "Bench Air");
+                flights.setString(3, CITIES[source]);
+                flights.setString(4, CITIES[destination]);
+                flights.setTimestamp(5, Timestamp.valueOf(departure));
+                flights.setTimestamp(6, Timestamp.valueOf(departure.plusHours(2)));
+                flights.setDouble(7, price);
+                flights.setInt(8, totalSeats);
+                flights.setInt(9, totalSeats - confirmed);
+                flights.addBatch();
+
+                // Flights first, so the bookings' foreign keys resolve
+                if ((i + 1) % 100 == 0 || i == FLIGHTS - 1) {
+                    flights.executeBatch();
+                    bookings.executeBatch();
+                }
+            }
+
+            flights.setString(1, BENCH_FLIGHT_NUMBER);
+            flights.setString(2, "Bench Air");
+            flights.setString(3, CITIES[0]);
+            flights.setString(4, CITIES[1]);
+            flights.setTimestamp(5, Timestamp.valueOf(FIRST_DEPARTURE));
+            flights.setTimestamp(6, Timestamp.valueOf(FIRST_DEPARTURE.plusHours(2)));
+            flights.setDouble(7, 5000);
+            flights.setInt(8, BENCH_FLIGHT_SEATS);
+            flights.setInt(9, BENCH_FLIGHT_SEATS);
+            flights.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package benchmarks;
+
+import model.Booking;
+import model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.BookingManager;
+import utils.DBConnection;
+import utils.SeatInventory;
+import utils.SeatMap;
+import utils.UserDirectory;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The booking sequence: seat reservation in the inventory, seat assignment and the
+ * booking INSERT transaction, for one passenger and for a group booked as one batch.
+ * Bookings made in an iteration are cancelled after it, outside the measurement,
+ * so the flight never sells out
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingBenchmark {
+
+    // Passengers per group booking; compare its time with GROUP_SIZE single bookings
+    private static final int GROUP_SIZE = 40;
+
+    private int flightId;
+    private User customer;
+
+    @Setup
+    public void setUp() throws SQLException, IOException {
+        BenchmarkDatabase.start();
+        flightId = BenchmarkDatabase.benchFlightId();
+        customer = new User();
+        customer.setEmail(BenchmarkDatabase.BENCH_EMAIL);
+        customer.setUserId(UserDirectory.getUserId(BenchmarkDatabase.BENCH_EMAIL));
+    }
+
+    @Benchmark
+    public BookingManager.Result bookSeat() {
+        Booking booking = new Booking(0, flightId, "Bench Passenger", null, 5000);
+        return BookingManager.bookSeat(BenchmarkDatabase.BENCH_EMAIL, booking,
+                SeatMap.Cabin.ECONOMY, SeatMap.Preference.ANY);
+    }
+
+    @Benchmark
+    public BookingManager.Result bookGroup() {
+        List<Booking> group = new ArrayList<>(GROUP_SIZE);
+        for (int i = 0; i < GROUP_SIZE; i++) {
+            group.add(new Booking(0, flightId, "Bench Passenger " + i, null, 5000));
+        }
+        return BookingManager.bookGroup(customer, group, SeatMap.Cabin.ECONOMY);
+    }
+
+    /**
+     * Give every seat on the bench flight back, zero its report totals and drop the in-memory state built from it
+     */
+    @TearDown(Level.Iteration)
+    public void resetFlight() {
+        DBConnection.executeUpdate("UPDATE bookings SET status = 'CANCELLED' WHERE flight_id = ?", flightId);
+        DBConnection.executeUpdate("UPDATE flights SET available_seats = total_seats WHERE flight_id = ?", flightId);
+        DBConnection.executeUpdate(
+                "UPDATE flight_sales SET confirmed_bookings = 0, revenue = 0 WHERE flight_id = ?", flightId);
+        SeatInventory.getInstance().evict(flightId);
+        SeatMap.evict(flightId);
+    }
+}
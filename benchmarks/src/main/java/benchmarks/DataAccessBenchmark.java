@@ -0,0 +1,58 @@
+package benchmarks;
+
+import model.Flight;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.DBConnection;
+import utils.RouteIndex;
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DBConnection.executeQuery/executeUpdate: pool borrow, cached statement and one round trip
+ * SampleTime mode reports the p50/p99 latencies next to throughput
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataAccessBenchmark {
+
+    private static final String SELECT_FLIGHT_QUERY = "SELECT * FROM flights WHERE flight_id = ?";
+    private static final String UPDATE_PRICE_QUERY = "UPDATE flights SET price = ? WHERE flight_id = ?";
+
+    @Setup
+    public void setUp() throws SQLException, IOException {
+        BenchmarkDatabase.start();
+    }
+
+    @Benchmark
+    public Flight executeQuery() throws SQLException {
+        try (ResultSet rs = DBConnection.executeQuery(SELECT_FLIGHT_QUERY, randomFlightId())) {
+            return rs != null && rs.next() ? RouteIndex.readFlight(rs) : null;
+        }
+    }
+
+    @Benchmark
+    public int executeUpdate() {
+        return DBConnection.executeUpdate(UPDATE_PRICE_QUERY,
+                2000 + ThreadLocalRandom.current().nextInt(6000), randomFlightId());
+    }
+
+    private static int randomFlightId() {
+        return 1 + ThreadLocalRandom.current().nextInt(BenchmarkDatabase.FLIGHTS);
+    }
+}
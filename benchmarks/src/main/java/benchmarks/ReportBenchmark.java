@@ -0,0 +1,45 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.ReportAggregates;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admin reports read from the report totals tables: the per-flight revenue
+ * report, and the top routes, which still groups flights by route
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReportBenchmark {
+
+    @Setup
+    public void setUp() throws SQLException, IOException {
+        BenchmarkDatabase.start();
+    }
+
+    @Benchmark
+    public List<ReportAggregates.FlightTotals> revenueByFlight() throws SQLException {
+        return ReportAggregates.getRevenueByFlight();
+    }
+
+    @Benchmark
+    public List<ReportAggregates.RouteTotals> topRoutes() throws SQLException {
+        return ReportAggregates.getTopRoutes(10);
+    }
+}
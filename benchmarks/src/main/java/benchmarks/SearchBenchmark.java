@@ -0,0 +1,72 @@
+package benchmarks;
+
+import model.Flight;
+import model.Itinerary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.ConnectionSearch;
+import utils.RouteIndex;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flight search as BookingForm runs it: route/date lookups in the warm route index,
+ * a cold search that reloads the index from the database, and connection search
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    private final ConnectionSearch connectionSearch = new ConnectionSearch();
+
+    @Setup
+    public void setUp() throws SQLException, IOException {
+        BenchmarkDatabase.start();
+        RouteIndex.getInstance().getActiveFlights(); // Load the index
+    }
+
+    @Benchmark
+    public List<Flight> searchFlights() {
+        String[] route = randomRoute();
+        LocalDate date = BenchmarkDatabase.FIRST_DEPARTURE.toLocalDate()
+                .plusDays(ThreadLocalRandom.current().nextInt(7));
+        return RouteIndex.getInstance().search(route[0], route[1], date);
+    }
+
+    @Benchmark
+    public List<Flight> searchFlightsCold() {
+        RouteIndex.getInstance().invalidate();
+        String[] route = randomRoute();
+        return RouteIndex.getInstance().search(route[0], route[1]);
+    }
+
+    @Benchmark
+    public List<Itinerary> searchConnections() {
+        String[] route = randomRoute();
+        return connectionSearch.search(route[0], route[1], BenchmarkDatabase.FIRST_DEPARTURE,
+                3, ConnectionSearch.SortOrder.DURATION, 5);
+    }
+
+    private static String[] randomRoute() {
+        String[] cities = BenchmarkDatabase.CITIES;
+        int source = ThreadLocalRandom.current().nextInt(cities.length);
+        int destination = (source + 1 + ThreadLocalRandom.current().nextInt(cities.length - 1)) % cities.length;
+        return new String[]{cities[source], cities[destination]};
+    }
+}
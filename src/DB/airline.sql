@@ -6,7 +6,13 @@
 CREATE DATABASE IF NOT EXISTS airline;
 USE airline;
 
+-- Drop the seat triggers of older setups; seats are counted by the booking transaction
+DROP TRIGGER IF EXISTS before_booking_insert;
+DROP TRIGGER IF EXISTS after_booking_cancel;
+
 -- Drop tables if they exist (for fresh setup)
+DROP TABLE IF EXISTS flight_sales;
+DROP TABLE IF EXISTS customer_sales;
 DROP TABLE IF EXISTS bookings;
 DROP TABLE IF EXISTS flights;
 DROP TABLE IF EXISTS users;
@@ -68,6 +74,8 @@ CREATE TABLE bookings (
     total_amount DECIMAL(10, 2) NOT NULL,
     booking_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     status ENUM('CONFIRMED', 'CANCELLED', 'PENDING') NOT NULL DEFAULT 'CONFIRMED',
+    -- Seat of a confirmed booking, NULL once cancelled, so a seat is sold once per flight
+    active_seat VARCHAR(10) GENERATED ALWAYS AS (CASE WHEN status = 'CONFIRMED' THEN seat_number END),
 
     -- Foreign keys
     FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE,
@@ -79,7 +87,27 @@ CREATE TABLE bookings (
     -- Indexes
     INDEX idx_user_booking (user_id),
     INDEX idx_flight_booking (flight_id),
-    INDEX idx_booking_date (booking_date)
+    -- Keyset pagination of the admin bookings table seeks on (booking_date, booking_id)
+    INDEX idx_booking_date (booking_date, booking_id),
+    -- Whichever application instance assigned it, a seat can only be booked once
+    CONSTRAINT uk_active_seat UNIQUE (flight_id, active_seat)
+);
+
+-- Running report totals, kept in step with bookings by the booking and cancellation
+-- transactions, so reports don't aggregate the whole booking history
+CREATE TABLE flight_sales (
+    flight_id INT PRIMARY KEY,
+    confirmed_bookings INT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    FOREIGN KEY (flight_id) REFERENCES flights(flight_id) ON DELETE CASCADE
+);
+
+-- Confirmed bookings and spending per customer, net of cancellations
+CREATE TABLE customer_sales (
+    user_id INT PRIMARY KEY,
+    total_bookings INT NOT NULL DEFAULT 0,
+    total_spent DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE
 );
 
 -- Insert default admin user
@@ -122,10 +150,19 @@ INSERT INTO bookings (user_id, flight_id, passenger_name, seat_number, total_amo
 (3, 2, 'Jane Smith', 'B08', 6300.00, 'CONFIRMED'),
 (2, 3, 'John Doe', 'E22', 3800.00, 'CONFIRMED');
 
+-- Report totals for the sample bookings
+INSERT INTO flight_sales (flight_id, confirmed_bookings, revenue)
+SELECT flight_id, COUNT(*), SUM(total_amount) FROM bookings WHERE status = 'CONFIRMED' GROUP BY flight_id;
+INSERT INTO customer_sales (user_id, total_bookings, total_spent)
+SELECT user_id, COUNT(*), SUM(total_amount) FROM bookings WHERE status = 'CONFIRMED' GROUP BY user_id;
+
 -- Create indexes for better performance
 CREATE INDEX idx_users_email ON users(email);
-CREATE INDEX idx_flights_route ON flights(source, destination);
+-- Route searches filter on source and destination and range-scan departure_time
+CREATE INDEX idx_flights_route_departure ON flights(source, destination, departure_time);
 CREATE INDEX idx_flights_departure ON flights(departure_time);
+-- The flight change feed polls for rows updated past a watermark
+CREATE INDEX idx_flights_updated ON flights(updated_at);
 CREATE INDEX idx_bookings_user_flight ON bookings(user_id, flight_id);
 
 -- Create views for reporting
@@ -169,6 +206,8 @@ BEGIN
     ORDER BY departure_time;
 END //
 
+-- Books a seat the same way as BookingManager: the conditional decrement takes the
+-- seat, and uk_active_seat refuses a seat number that is already booked
 CREATE PROCEDURE BookFlight(
     IN p_user_id INT,
     IN p_flight_id INT,
@@ -177,7 +216,6 @@ CREATE PROCEDURE BookFlight(
     IN p_total_amount DECIMAL(10,2)
 )
 BEGIN
-    DECLARE v_available_seats INT;
     DECLARE EXIT HANDLER FOR SQLEXCEPTION
     BEGIN
         ROLLBACK;
@@ -186,57 +224,32 @@ BEGIN
 
     START TRANSACTION;
 
-    -- Check available seats
-    SELECT available_seats INTO v_available_seats
-    FROM flights WHERE flight_id = p_flight_id FOR UPDATE;
+    -- Take the seat, unless the flight is sold out or no longer active
+    UPDATE flights
+    SET available_seats = available_seats - 1
+    WHERE flight_id = p_flight_id AND status = 'ACTIVE' AND available_seats >= 1;
 
-    IF v_available_seats <= 0 THEN
+    IF ROW_COUNT() = 0 THEN
         SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'No seats available';
     END IF;
 
-    -- Insert booking
-    INSERT INTO bookings (user_id, flight_id, passenger_name, seat_number, total_amount)
-    VALUES (p_user_id, p_flight_id, p_passenger_name, p_seat_number, p_total_amount);
+    INSERT INTO bookings (user_id, flight_id, passenger_name, seat_number, total_amount, status)
+    VALUES (p_user_id, p_flight_id, p_passenger_name, p_seat_number, p_total_amount, 'CONFIRMED');
 
-    -- Update available seats
-    UPDATE flights 
-    SET available_seats = available_seats - 1 
-    WHERE flight_id = p_flight_id;
+    INSERT INTO flight_sales (flight_id, confirmed_bookings, revenue) VALUES (p_flight_id, 1, p_total_amount)
+    ON DUPLICATE KEY UPDATE confirmed_bookings = confirmed_bookings + 1, revenue = revenue + p_total_amount;
+    INSERT INTO customer_sales (user_id, total_bookings, total_spent) VALUES (p_user_id, 1, p_total_amount)
+    ON DUPLICATE KEY UPDATE total_bookings = total_bookings + 1, total_spent = total_spent + p_total_amount;
 
     COMMIT;
 END //
 
 DELIMITER ;
 
--- Create triggers
-DELIMITER //
-
-CREATE TRIGGER before_booking_insert
-BEFORE INSERT ON bookings
-FOR EACH ROW
-BEGIN
-    DECLARE v_available_seats INT;
-
-    SELECT available_seats INTO v_available_seats
-    FROM flights WHERE flight_id = NEW.flight_id;
-
-    IF v_available_seats <= 0 THEN
-        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'No seats available for this flight';
-    END IF;
-END //
-
-CREATE TRIGGER after_booking_cancel
-AFTER UPDATE ON bookings
-FOR EACH ROW
-BEGIN
-    IF OLD.status = 'CONFIRMED' AND NEW.status = 'CANCELLED' THEN
-        UPDATE flights 
-        SET available_seats = available_seats + 1 
-        WHERE flight_id = NEW.flight_id;
-    END IF;
-END //
-
-DELIMITER ;
+-- The application takes seats with a conditional decrement of available_seats in
+-- the booking transaction and gives them back in the cancellation transaction.
+-- There are deliberately no triggers adjusting available_seats on booking insert or
+-- cancellation, as they would count every change twice.
 
 -- Sample queries for testing
 
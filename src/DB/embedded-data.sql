@@ -0,0 +1,46 @@
+-- Sample data for the embedded database, as loaded by airline.sql
+
+-- Insert default admin user
+INSERT INTO users (name, email, password, role, phone, address) VALUES
+('Admin User', 'admin@airline.com', 'admin123', 'admin', '9999999999', 'Admin Office, Airline HQ'),
+('John Doe', 'john@example.com', 'password123', 'customer', '9876543210', 'Mumbai, Maharashtra'),
+('Jane Smith', 'jane@example.com', 'password123', 'customer', '9765432109', 'Delhi, India');
+
+-- Insert sample airports
+INSERT INTO airports (airport_code, city, state, country, airport_name) VALUES
+('BOM', 'Mumbai', 'Maharashtra', 'India', 'Chhatrapati Shivaji Maharaj International Airport'),
+('DEL', 'Delhi', 'Delhi', 'India', 'Indira Gandhi International Airport'),
+('BLR', 'Bangalore', 'Karnataka', 'India', 'Kempegowda International Airport'),
+('MAA', 'Chennai', 'Tamil Nadu', 'India', 'Chennai International Airport'),
+('CCU', 'Kolkata', 'West Bengal', 'India', 'Netaji Subhash Chandra Bose International Airport'),
+('HYD', 'Hyderabad', 'Telangana', 'India', 'Rajiv Gandhi International Airport'),
+('AMD', 'Ahmedabad', 'Gujarat', 'India', 'Sardar Vallabhbhai Patel International Airport'),
+('PNQ', 'Pune', 'Maharashtra', 'India', 'Pune Airport'),
+('GOI', 'Goa', 'Goa', 'India', 'Goa Airport'),
+('COK', 'Kochi', 'Kerala', 'India', 'Cochin International Airport');
+
+-- Insert sample flights
+INSERT INTO flights (flight_number, airline, source, destination, departure_time, arrival_time, price, total_seats, available_seats) VALUES
+('AI101', 'Air India', 'Mumbai', 'Delhi', '2025-08-15 06:00:00', '2025-08-15 08:30:00', 5500.00, 180, 175),
+('6E202', 'IndiGo', 'Delhi', 'Bangalore', '2025-08-15 09:00:00', '2025-08-15 11:45:00', 4200.00, 186, 180),
+('SG303', 'SpiceJet', 'Mumbai', 'Chennai', '2025-08-15 12:00:00', '2025-08-15 14:20:00', 3800.00, 189, 185),
+('UK404', 'Vistara', 'Bangalore', 'Hyderabad', '2025-08-15 15:30:00', '2025-08-15 16:45:00', 2500.00, 158, 150),
+('AI505', 'Air India', 'Delhi', 'Kolkata', '2025-08-15 18:00:00', '2025-08-15 20:15:00', 4800.00, 180, 176),
+('6E606', 'IndiGo', 'Chennai', 'Mumbai', '2025-08-15 21:00:00', '2025-08-15 23:10:00', 4100.00, 186, 182),
+('SG707', 'SpiceJet', 'Hyderabad', 'Ahmedabad', '2025-08-16 07:30:00', '2025-08-16 09:00:00', 3200.00, 189, 189),
+('UK808', 'Vistara', 'Kolkata', 'Pune', '2025-08-16 10:45:00', '2025-08-16 13:00:00', 4500.00, 158, 155),
+('AI909', 'Air India', 'Pune', 'Goa', '2025-08-16 14:15:00', '2025-08-16 15:30:00', 2800.00, 180, 178),
+('6E010', 'IndiGo', 'Goa', 'Kochi', '2025-08-16 16:45:00', '2025-08-16 18:30:00', 3500.00, 186, 183),
+('SG111', 'SpiceJet', 'Kochi', 'Delhi', '2025-08-16 19:00:00', '2025-08-16 22:30:00', 6200.00, 189, 187),
+('UK212', 'Vistara', 'Ahmedabad', 'Bangalore', '2025-08-17 06:30:00', '2025-08-17 08:15:00', 3700.00, 158, 156);
+
+-- Insert sample bookings
+INSERT INTO bookings (user_id, flight_id, passenger_name, seat_number, total_amount, status) VALUES
+(2, 1, 'John Doe', 'E15', 5500.00, 'CONFIRMED'),
+(3, 2, 'Jane Smith', 'B08', 6300.00, 'CONFIRMED'),
+(2, 3, 'John Doe', 'E22', 3800.00, 'CONFIRMED');
+
+INSERT INTO flight_sales (flight_id, confirmed_bookings, revenue)
+SELECT flight_id, COUNT(*), SUM(total_amount) FROM bookings WHERE status = 'CONFIRMED' GROUP BY flight_id;
+INSERT INTO customer_sales (user_id, total_bookings, total_spent)
+SELECT user_id, COUNT(*), SUM(total_amount) FROM bookings WHERE status = 'CONFIRMED' GROUP BY user_id;
@@ -0,0 +1,82 @@
+-- Embedded database schema: airline.sql without the MySQL-only parts
+-- (database, views, procedures), for H2 in MySQL mode. Keep in step with airline.sql
+
+CREATE TABLE users (
+    user_id INT PRIMARY KEY AUTO_INCREMENT,
+    name VARCHAR(100) NOT NULL,
+    email VARCHAR(100) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    role ENUM('customer', 'admin') NOT NULL DEFAULT 'customer',
+    phone VARCHAR(20),
+    address TEXT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+CREATE TABLE airports (
+    airport_code VARCHAR(10) PRIMARY KEY,
+    city VARCHAR(50) NOT NULL,
+    state VARCHAR(50),
+    country VARCHAR(50) NOT NULL DEFAULT 'India',
+    airport_name VARCHAR(100) NOT NULL
+);
+
+CREATE TABLE flights (
+    flight_id INT PRIMARY KEY AUTO_INCREMENT,
+    flight_number VARCHAR(20) NOT NULL UNIQUE,
+    airline VARCHAR(50) NOT NULL,
+    source VARCHAR(50) NOT NULL,
+    destination VARCHAR(50) NOT NULL,
+    departure_time DATETIME NOT NULL,
+    arrival_time DATETIME NOT NULL,
+    price DECIMAL(10, 2) NOT NULL,
+    total_seats INT NOT NULL DEFAULT 150,
+    available_seats INT NOT NULL DEFAULT 150,
+    status ENUM('ACTIVE', 'CANCELLED', 'DELAYED', 'COMPLETED') NOT NULL DEFAULT 'ACTIVE',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    CHECK (price > 0),
+    CHECK (total_seats > 0),
+    CHECK (available_seats >= 0),
+    CHECK (available_seats <= total_seats),
+    CHECK (departure_time < arrival_time)
+);
+
+CREATE TABLE bookings (
+    booking_id INT PRIMARY KEY AUTO_INCREMENT,
+    user_id INT NOT NULL,
+    flight_id INT NOT NULL,
+    passenger_name VARCHAR(100) NOT NULL,
+    seat_number VARCHAR(10) NOT NULL,
+    total_amount DECIMAL(10, 2) NOT NULL,
+    booking_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    status ENUM('CONFIRMED', 'CANCELLED', 'PENDING') NOT NULL DEFAULT 'CONFIRMED',
+    active_seat VARCHAR(10) GENERATED ALWAYS AS (CASE WHEN status = 'CONFIRMED' THEN seat_number END),
+    FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE,
+    FOREIGN KEY (flight_id) REFERENCES flights(flight_id) ON DELETE CASCADE,
+    CHECK (total_amount > 0),
+    CONSTRAINT uk_active_seat UNIQUE (flight_id, active_seat)
+);
+
+CREATE TABLE flight_sales (
+    flight_id INT PRIMARY KEY,
+    confirmed_bookings INT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    FOREIGN KEY (flight_id) REFERENCES flights(flight_id) ON DELETE CASCADE
+);
+
+CREATE TABLE customer_sales (
+    user_id INT PRIMARY KEY,
+    total_bookings INT NOT NULL DEFAULT 0,
+    total_spent DECIMAL(14, 2) NOT NULL DEFAULT 0,
+    FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_users_email ON users(email);
+CREATE INDEX idx_user_booking ON bookings(user_id);
+CREATE INDEX idx_flight_booking ON bookings(flight_id);
+CREATE INDEX idx_booking_date ON bookings(booking_date, booking_id);
+CREATE INDEX idx_bookings_user_flight ON bookings(user_id, flight_id);
+CREATE INDEX idx_flights_route_departure ON flights(source, destination, departure_time);
+CREATE INDEX idx_flights_departure ON flights(departure_time);
+CREATE INDEX idx_flights_updated ON flights(updated_at);
@@ -1,13 +1,25 @@
 package gui;
 
-import utils.DBConnection;
+import model.Flight;
+import service.FlightService;
+import service.ReportService;
+import utils.DBExecutor;
+import utils.FlightValidator;
+import utils.ReportAggregates;
+import utils.ScheduleImporter;
+import utils.Session;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.sql.ResultSet;
+import java.io.File;
+import java.nio.file.Path;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 /**
  * AdminDashboard GUI class for Airline Reservation System
@@ -18,16 +30,22 @@ public class AdminDashboard extends JFrame implements ActionListener {
     // GUI Components
     private JTabbedPane tabbedPane;
     private JTable flightTable, bookingTable;
-    private DefaultTableModel flightTableModel, bookingTableModel;
+    private DefaultTableModel flightTableModel;
+    private BookingTableModel bookingTableModel;
 
     // Flight management components
     private JTextField flightNumberField, airlineField, sourceField, destinationField;
     private JTextField departureTimeField, arrivalTimeField, priceField, totalSeatsField;
-    private JButton addFlightButton, updateFlightButton, deleteFlightButton, refreshButton;
+    private JButton addFlightButton, updateFlightButton, deleteFlightButton, refreshButton, importScheduleButton;
+
+    // Departure and arrival times as shown in the flight table and typed into the form
 
     // Current admin user
     private String currentAdmin;
 
+    // Flight loads run in the background; a refresh cancels the previous load
+    private final DBExecutor.LatestTask flightLoadTask = new DBExecutor.LatestTask();
+
     // Constructor
     public AdminDashboard(String adminName) {
         this.currentAdmin = adminName;
@@ -57,6 +75,7 @@ public class AdminDashboard extends JFrame implements ActionListener {
         updateFlightButton = new JButton("Update Flight");
         deleteFlightButton = new JButton("Delete Flight");
         refreshButton = new JButton("Refresh");
+        importScheduleButton = new JButton("Import Schedule...");
 
         // Flight table
         String[] flightColumns = {"Flight ID", "Flight No", "Airline", "Source", "Destination",
@@ -70,15 +89,8 @@ public class AdminDashboard extends JFrame implements ActionListener {
         flightTable = new JTable(flightTableModel);
         flightTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
 
-        // Booking table
-        String[] bookingColumns = {"Booking ID", "User Email", "Flight No", "Passenger",
-                "Seat", "Amount", "Date", "Status"};
-        bookingTableModel = new DefaultTableModel(bookingColumns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        // Booking table, paged in from the database as it scrolls
+        bookingTableModel = new BookingTableModel(this);
         bookingTable = new JTable(bookingTableModel);
 
         // Add action listeners
@@ -86,6 +98,7 @@ public class AdminDashboard extends JFrame implements ActionListener {
         updateFlightButton.addActionListener(this);
         deleteFlightButton.addActionListener(this);
         refreshButton.addActionListener(this);
+        importScheduleButton.addActionListener(this);
 
         // Table selection listener
         flightTable.getSelectionModel().addListSelectionListener(e -> {
@@ -196,6 +209,7 @@ public class AdminDashboard extends JFrame implements ActionListener {
         buttonPanel.add(updateFlightButton);
         buttonPanel.add(deleteFlightButton);
         buttonPanel.add(refreshButton);
+        buttonPanel.add(importScheduleButton);
 
         // Flight table panel
         JPanel tablePanel = new JPanel(new BorderLayout());
@@ -235,7 +249,7 @@ public class AdminDashboard extends JFrame implements ActionListener {
      * Create reports tab
      */
     private JPanel createReportsTab() {
-        JPanel mainPanel = new JPanel(new GridLayout(2, 2, 10, 10));
+        JPanel mainPanel = new JPanel(new GridLayout(3, 2, 10, 10));
         mainPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
 
         // Revenue report
@@ -254,10 +268,18 @@ public class AdminDashboard extends JFrame implements ActionListener {
         JButton customerButton = new JButton("Customer Report");
         customerButton.addActionListener(e -> generateCustomerReport());
 
+        // CSV exports, streamed to disk instead of shown in a dialog
+        JButton exportBookingsButton = new JButton("Export Bookings (CSV)");
+        exportBookingsButton.addActionListener(e -> exportBookings());
+        JButton exportReportsButton = new JButton("Export Reports (CSV)");
+        exportReportsButton.addActionListener(e -> exportReports());
+
         mainPanel.add(revenueButton);
         mainPanel.add(occupancyButton);
         mainPanel.add(routesButton);
         mainPanel.add(customerButton);
+        mainPanel.add(exportBookingsButton);
+        mainPanel.add(exportReportsButton);
 
         return mainPanel;
     }
@@ -313,6 +335,8 @@ public class AdminDashboard extends JFrame implements ActionListener {
             handleUpdateFlight();
         } else if (e.getSource() == deleteFlightButton) {
             handleDeleteFlight();
+        } else if (e.getSource() == importScheduleButton) {
+            handleImportSchedule();
         } else if (e.getSource() == refreshButton) {
             loadData();
         }
@@ -322,32 +346,42 @@ public class AdminDashboard extends JFrame implements ActionListener {
      * Handle add flight functionality
      */
     private void handleAddFlight() {
-        if (!validateFlightInput()) {
+        Flight flight = readFlightForm(0);
+        if (flight == null) {
             return;
         }
-
-        String query = "INSERT INTO flights (flight_number, airline, source, destination, departure_time, arrival_time, price, total_seats, available_seats, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 'ACTIVE')";
-
-        try {
-            int totalSeats = Integer.parseInt(totalSeatsField.getText());
-            int result = DBConnection.executeUpdate(query,
-                    flightNumberField.getText(), airlineField.getText(),
-                    sourceField.getText(), destinationField.getText(),
-                    departureTimeField.getText(), arrivalTimeField.getText(),
-                    Double.parseDouble(priceField.getText()), totalSeats, totalSeats);
-
-            if (result > 0) {
+        runFlightUpdate(() -> FlightService.getInstance().addFlight(flight), added -> {
+            if (added) {
                 JOptionPane.showMessageDialog(this, "Flight added successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
                 clearFlightForm();
                 loadFlights();
             } else {
                 JOptionPane.showMessageDialog(this, "Failed to add flight.", "Error", JOptionPane.ERROR_MESSAGE);
             }
-        } catch (NumberFormatException ex) {
-            JOptionPane.showMessageDialog(this, "Please enter valid numbers for price and seats.", "Input Error", JOptionPane.ERROR_MESSAGE);
-        } catch (Exception ex) {
+        });
+    }
+
+    /**
+     * Run a flight change in the background with the flight buttons disabled
+     * @param work Flight change; runs off the EDT
+     * @param onDone Called on the EDT with whether the change was made
+     */
+    private void runFlightUpdate(Callable<Boolean> work, Consumer<Boolean> onDone) {
+        setFlightButtonsEnabled(false);
+        DBExecutor.submit(this, work, result -> {
+            setFlightButtonsEnabled(true);
+            onDone.accept(result);
+        }, ex -> {
+            setFlightButtonsEnabled(true);
             JOptionPane.showMessageDialog(this, "Error: " + ex.getMessage(), "Database Error", JOptionPane.ERROR_MESSAGE);
-        }
+        });
+    }
+
+    private void setFlightButtonsEnabled(boolean enabled) {
+        addFlightButton.setEnabled(enabled);
+        updateFlightButton.setEnabled(enabled);
+        deleteFlightButton.setEnabled(enabled);
+        importScheduleButton.setEnabled(enabled);
     }
 
     /**
@@ -360,31 +394,17 @@ public class AdminDashboard extends JFrame implements ActionListener {
             return;
         }
 
-        if (!validateFlightInput()) {
+        Flight flight = readFlightForm((int) flightTableModel.getValueAt(selectedRow, 0));
+        if (flight == null) {
             return;
         }
-
-        int flightId = (int) flightTableModel.getValueAt(selectedRow, 0);
-        String query = "UPDATE flights SET flight_number=?, airline=?, source=?, destination=?, departure_time=?, arrival_time=?, price=?, total_seats=? WHERE flight_id=?";
-
-        try {
-            int result = DBConnection.executeUpdate(query,
-                    flightNumberField.getText(), airlineField.getText(),
-                    sourceField.getText(), destinationField.getText(),
-                    departureTimeField.getText(), arrivalTimeField.getText(),
-                    Double.parseDouble(priceField.getText()),
-                    Integer.parseInt(totalSeatsField.getText()), flightId);
-
-            if (result > 0) {
+        runFlightUpdate(() -> FlightService.getInstance().updateFlight(flight), updated -> {
+            if (updated) {
                 JOptionPane.showMessageDialog(this, "Flight updated successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
                 clearFlightForm();
                 loadFlights();
             }
-        } catch (NumberFormatException ex) {
-            JOptionPane.showMessageDialog(this, "Please enter valid numbers.", "Input Error", JOptionPane.ERROR_MESSAGE);
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error: " + ex.getMessage(), "Database Error", JOptionPane.ERROR_MESSAGE);
-        }
+        });
     }
 
     /**
@@ -400,47 +420,91 @@ public class AdminDashboard extends JFrame implements ActionListener {
         int confirm = JOptionPane.showConfirmDialog(this, "Are you sure you want to delete this flight?", "Confirm Delete", JOptionPane.YES_NO_OPTION);
         if (confirm == JOptionPane.YES_OPTION) {
             int flightId = (int) flightTableModel.getValueAt(selectedRow, 0);
-            String query = "DELETE FROM flights WHERE flight_id = ?";
-
-            try {
-                int result = DBConnection.executeUpdate(query, flightId);
-                if (result > 0) {
+            runFlightUpdate(() -> FlightService.getInstance().deleteFlight(flightId), deleted -> {
+                if (deleted) {
                     JOptionPane.showMessageDialog(this, "Flight deleted successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
                     clearFlightForm();
                     loadFlights();
                 }
-            } catch (Exception ex) {
-                JOptionPane.showMessageDialog(this, "Error: " + ex.getMessage(), "Database Error", JOptionPane.ERROR_MESSAGE);
-            }
+            });
         }
     }
 
     /**
-     * Validate flight input
+     * Build a flight from the form, applying the same rules as the schedule importer
+     * @param flightId Id of the flight being updated, or 0 for a new flight
+     * @return the flight, or null after telling the admin what is wrong
      */
-    private boolean validateFlightInput() {
-        if (flightNumberField.getText().trim().isEmpty() ||
-                airlineField.getText().trim().isEmpty() ||
-                sourceField.getText().trim().isEmpty() ||
-                destinationField.getText().trim().isEmpty() ||
-                departureTimeField.getText().trim().isEmpty() ||
-                arrivalTimeField.getText().trim().isEmpty() ||
-                priceField.getText().trim().isEmpty() ||
-                totalSeatsField.getText().trim().isEmpty()) {
-
-            JOptionPane.showMessageDialog(this, "Please fill in all fields.", "Input Error", JOptionPane.WARNING_MESSAGE);
-            return false;
+    private Flight readFlightForm(int flightId) {
+        try {
+            Flight flight = FlightValidator.parse(flightNumberField.getText(), airlineField.getText(),
+                    sourceField.getText(), destinationField.getText(), departureTimeField.getText(),
+                    arrivalTimeField.getText(), priceField.getText(), totalSeatsField.getText());
+            flight.setFlightId(flightId);
+            return flight;
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage(), "Input Error", JOptionPane.WARNING_MESSAGE);
+            return null;
         }
+    }
 
-        try {
-            Double.parseDouble(priceField.getText());
-            Integer.parseInt(totalSeatsField.getText());
-        } catch (NumberFormatException e) {
-            JOptionPane.showMessageDialog(this, "Price and Total Seats must be valid numbers.", "Input Error", JOptionPane.ERROR_MESSAGE);
-            return false;
+    /**
+     * Import a seasonal timetable file, adding new flights and updating existing
+     * ones by flight number, and offer to save a report of any rejected rows
+     */
+    private void handleImportSchedule() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Import Schedule (CSV or fixed-width)");
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
         }
 
-        return true;
+        Path file = chooser.getSelectedFile().toPath();
+        setFlightButtonsEnabled(false);
+        DBExecutor.submit(this, () -> FlightService.getInstance().importSchedule(file), result -> {
+            setFlightButtonsEnabled(true);
+            loadFlights();
+            List<ScheduleImporter.RowError> errors = result.getErrors();
+            String summary = "Imported " + result.getRowsImported() + " of " + result.getRowsRead()
+                    + " flights from " + file.getFileName() + ".";
+            if (errors.isEmpty()) {
+                JOptionPane.showMessageDialog(this, summary, "Import Complete", JOptionPane.INFORMATION_MESSAGE);
+                return;
+            }
+
+            StringBuilder text = new StringBuilder(summary).append("\n").append(errors.size())
+                    .append(" rows were rejected:\n\n");
+            int shown = Math.min(errors.size(), 100);
+            for (ScheduleImporter.RowError error : errors.subList(0, shown)) {
+                text.append(String.format("Line %d (%s): %s%n", error.getLine(), error.getFlightNumber(), error.getMessage()));
+            }
+            if (shown < errors.size()) {
+                text.append("...\n");
+            }
+            showReportDialog("Import Complete", text.toString());
+            saveImportErrors(result);
+        }, e -> {
+            setFlightButtonsEnabled(true);
+            showErrorDialog("Error importing schedule: " + e.getMessage());
+        });
+    }
+
+    /**
+     * Let the admin save the rejected rows of an import as a CSV report
+     */
+    private void saveImportErrors(ScheduleImporter.ImportResult result) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Save Import Error Report");
+        chooser.setSelectedFile(new File("import-errors.csv"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        Path file = chooser.getSelectedFile().toPath();
+        DBExecutor.submit(this, () -> result.writeErrorReport(file),
+                count -> JOptionPane.showMessageDialog(this, "Saved " + count + " rejected rows to " + file,
+                        "Export Complete", JOptionPane.INFORMATION_MESSAGE),
+                e -> showErrorDialog("Error saving import report: " + e.getMessage()));
     }
 
     /**
@@ -483,160 +547,170 @@ public class AdminDashboard extends JFrame implements ActionListener {
     }
 
     /**
-     * Load flights data
+     * Load flights data in the background, replacing any load in progress
      */
     private void loadFlights() {
-        String query = "SELECT * FROM flights ORDER BY flight_id";
+        flightLoadTask.submit(this, AdminDashboard::fetchFlights, rows -> setRows(flightTableModel, rows),
+                e -> System.err.println("Error loading flights: " + e.getMessage()));
+    }
 
-        try {
-            ResultSet rs = DBConnection.executeQuery(query);
-            flightTableModel.setRowCount(0);
-
-            if (rs != null) {
-                while (rs.next()) {
-                    Object[] row = {
-                            rs.getInt("flight_id"),
-                            rs.getString("flight_number"),
-                            rs.getString("airline"),
-                            rs.getString("source"),
-                            rs.getString("destination"),
-                            rs.getString("departure_time"),
-                            rs.getString("arrival_time"),
-                            rs.getDouble("price"),
-                            rs.getInt("total_seats"),
-                            rs.getInt("available_seats"),
-                            rs.getString("status")
-                    };
-                    flightTableModel.addRow(row);
-                }
-                DBConnection.closeResultSet(rs);
-            }
-        } catch (SQLException e) {
-            System.err.println("Error loading flights: " + e.getMessage());
+    /**
+     * Read all flights as table rows; runs off the EDT
+     */
+    private static List<Object[]> fetchFlights() throws SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        for (Flight flight : FlightService.getInstance().getAllFlights()) {
+            Object[] row = {
+                    flight.getFlightId(),
+                    flight.getFlightNumber(),
+                    flight.getAirline(),
+                    flight.getSource(),
+                    flight.getDestination(),
+                    flight.getDepartureTime().format(FlightValidator.DATE_TIME_FORMAT),
+                    flight.getArrivalTime().format(FlightValidator.DATE_TIME_FORMAT),
+                    flight.getPrice(),
+                    flight.getTotalSeats(),
+                    flight.getAvailableSeats(),
+                    flight.getStatus()
+            };
+            rows.add(row);
         }
+        return rows;
     }
 
     /**
-     * Load bookings data
+     * Reload the bookings table; pages are fetched as the table scrolls
      */
     private void loadBookings() {
-        String query = "SELECT b.booking_id, u.email, f.flight_number, b.passenger_name, b.seat_number, b.total_amount, b.booking_date, b.status " +
-                "FROM bookings b JOIN users u ON b.user_id = u.user_id JOIN flights f ON b.flight_id = f.flight_id ORDER BY b.booking_date DESC";
+        bookingTableModel.reload();
+    }
 
-        try {
-            ResultSet rs = DBConnection.executeQuery(query);
-            bookingTableModel.setRowCount(0);
-
-            if (rs != null) {
-                while (rs.next()) {
-                    Object[] row = {
-                            rs.getInt("booking_id"),
-                            rs.getString("email"),
-                            rs.getString("flight_number"),
-                            rs.getString("passenger_name"),
-                            rs.getString("seat_number"),
-                            "₹" + rs.getDouble("total_amount"),
-                            rs.getString("booking_date"),
-                            rs.getString("status")
-                    };
-                    bookingTableModel.addRow(row);
-                }
-                DBConnection.closeResultSet(rs);
-            }
-        } catch (SQLException e) {
-            System.err.println("Error loading bookings: " + e.getMessage());
+    /**
+     * Replace a table's rows; called on the EDT
+     * Swaps the data in one table event instead of one per row, so large loads repaint once
+     */
+    private static void setRows(DefaultTableModel model, List<Object[]> rows) {
+        Object[] columns = new Object[model.getColumnCount()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = model.getColumnName(i);
         }
+        model.setDataVector(rows.toArray(new Object[0][]), columns);
     }
 
-    // Real report generation methods with SQL queries and dialog display
+    // Report generation from the report totals tables, with dialog display.
+    // Queries run in the background and the finished report is shown on the EDT
+
+    private static final int TOP_N = 10;
+
+    /**
+     * Build a report in the background and show it in a dialog
+     */
+    private void runReport(String title, String errorPrefix, Callable<String> report) {
+        DBExecutor.submit(this, report, text -> showReportDialog(title, text),
+                e -> showErrorDialog(errorPrefix + e.getMessage()));
+    }
 
     private void generateRevenueReport() {
-        String query = "SELECT f.flight_number, SUM(b.total_amount) AS total_revenue " +
-                "FROM bookings b JOIN flights f ON b.flight_id = f.flight_id " +
-                "WHERE b.status = 'CONFIRMED' " +
-                "GROUP BY f.flight_number " +
-                "ORDER BY total_revenue DESC";
-        try {
-            ResultSet rs = DBConnection.executeQuery(query);
-            StringBuilder report = new StringBuilder("=== Revenue Report ===\n\n");
-            while (rs.next()) {
-                report.append("Flight: ").append(rs.getString("flight_number"))
-                        .append(" - Revenue: ₹").append(String.format("%.2f", rs.getDouble("total_revenue")))
-                        .append("\n");
-            }
-            DBConnection.closeResultSet(rs);
-            showReportDialog("Revenue Report", report.toString());
-        } catch (SQLException e) {
-            showErrorDialog("Error generating revenue report: " + e.getMessage());
+        runReport("Revenue Report", "Error generating revenue report: ", AdminDashboard::buildRevenueReport);
+    }
+
+    private static String buildRevenueReport() throws SQLException {
+        StringBuilder report = new StringBuilder("=== Revenue Report ===\n\n");
+        for (ReportAggregates.FlightTotals flight : ReportService.getInstance().getRevenueByFlight()) {
+            report.append("Flight: ").append(flight.getFlightNumber())
+                    .append(" - Revenue: ₹").append(String.format("%.2f", flight.getRevenue()))
+                    .append("\n");
         }
+        return report.toString();
     }
 
     private void generateOccupancyReport() {
-        String query = "SELECT flight_number, " +
-                "ROUND((total_seats - available_seats) * 100 / total_seats, 2) AS occupancy_percent " +
-                "FROM flights " +
-                "WHERE total_seats > 0 " +
-                "ORDER BY occupancy_percent DESC";
-        try {
-            ResultSet rs = DBConnection.executeQuery(query);
-            StringBuilder report = new StringBuilder("=== Flight Occupancy Report ===\n\n");
-            while (rs.next()) {
-                report.append("Flight: ").append(rs.getString("flight_number"))
-                        .append(" - Occupancy: ").append(rs.getDouble("occupancy_percent")).append("%\n");
-            }
-            DBConnection.closeResultSet(rs);
-            showReportDialog("Occupancy Report", report.toString());
-        } catch (SQLException e) {
-            showErrorDialog("Error generating occupancy report: " + e.getMessage());
+        runReport("Occupancy Report", "Error generating occupancy report: ", AdminDashboard::buildOccupancyReport);
+    }
+
+    private static String buildOccupancyReport() throws SQLException {
+        StringBuilder report = new StringBuilder("=== Flight Occupancy Report ===\n\n");
+        for (ReportAggregates.FlightTotals flight : ReportService.getInstance().getOccupancyByFlight()) {
+            report.append("Flight: ").append(flight.getFlightNumber())
+                    .append(" - Occupancy: ").append(flight.getOccupancyPercent()).append("%\n");
         }
+        return report.toString();
     }
 
     private void generateRoutesReport() {
-        String query = "SELECT source, destination, COUNT(*) AS bookings_count " +
-                "FROM bookings b JOIN flights f ON b.flight_id = f.flight_id " +
-                "WHERE b.status = 'CONFIRMED' " +
-                "GROUP BY source, destination " +
-                "ORDER BY bookings_count DESC " +
-                "LIMIT 10";
-        try {
-            ResultSet rs = DBConnection.executeQuery(query);
-            StringBuilder report = new StringBuilder("=== Popular Routes Report (Top 10) ===\n\n");
-            while (rs.next()) {
-                report.append(rs.getString("source")).append(" → ").append(rs.getString("destination"))
-                        .append(" - Bookings: ").append(rs.getInt("bookings_count"))
-                        .append("\n");
-            }
-            DBConnection.closeResultSet(rs);
-            showReportDialog("Popular Routes Report", report.toString());
-        } catch (SQLException e) {
-            showErrorDialog("Error generating routes report: " + e.getMessage());
+        runReport("Popular Routes Report", "Error generating routes report: ", AdminDashboard::buildRoutesReport);
+    }
+
+    private static String buildRoutesReport() throws SQLException {
+        StringBuilder report = new StringBuilder("=== Popular Routes Report (Top 10) ===\n\n");
+        for (ReportAggregates.RouteTotals route : ReportService.getInstance().getTopRoutes(TOP_N)) {
+            report.append(route.getSource()).append(" → ").append(route.getDestination())
+                    .append(" - Bookings: ").append(route.getConfirmedBookings())
+                    .append("\n");
         }
+        return report.toString();
     }
 
     private void generateCustomerReport() {
-        String query = "SELECT u.email, COUNT(b.booking_id) AS total_bookings, " +
-                "IFNULL(SUM(b.total_amount),0) AS total_spent " +
-                "FROM users u LEFT JOIN bookings b ON u.user_id = b.user_id " +
-                "GROUP BY u.email " +
-                "ORDER BY total_spent DESC " +
-                "LIMIT 10";
-        try {
-            ResultSet rs = DBConnection.executeQuery(query);
-            StringBuilder report = new StringBuilder("=== Top Customers Report (by Spending) ===\n\n");
-            while (rs.next()) {
-                String email = rs.getString("email");
-                int bookings = rs.getInt("total_bookings");
-                double spent = rs.getDouble("total_spent");
-                report.append(email)
-                        .append(" - Bookings: ").append(bookings)
-                        .append(", Total Spent: ₹").append(String.format("%.2f", spent))
-                        .append("\n");
-            }
-            DBConnection.closeResultSet(rs);
-            showReportDialog("Customer Report", report.toString());
-        } catch (SQLException e) {
-            showErrorDialog("Error generating customer report: " + e.getMessage());
+        runReport("Customer Report", "Error generating customer report: ", AdminDashboard::buildCustomerReport);
+    }
+
+    private static String buildCustomerReport() throws SQLException {
+        StringBuilder report = new StringBuilder("=== Top Customers Report (by Spending) ===\n\n");
+        for (ReportAggregates.CustomerTotals customer : ReportService.getInstance().getTopCustomers(TOP_N)) {
+            report.append(customer.getEmail())
+                    .append(" - Bookings: ").append(customer.getTotalBookings())
+                    .append(", Total Spent: ₹").append(String.format("%.2f", customer.getTotalSpent()))
+                    .append("\n");
         }
+        return report.toString();
+    }
+
+    // CSV export. Bookings are streamed from the database, so exports of any size run
+    // in bounded memory; reports are written in full rather than the top 10 shown on screen
+
+    /**
+     * Export all bookings to a file the admin picks
+     */
+    private void exportBookings() {
+        JCheckBox gzipBox = new JCheckBox("Compress (gzip)");
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Export Bookings");
+        chooser.setSelectedFile(new File("bookings.csv"));
+        chooser.setAccessory(gzipBox);
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        boolean gzip = gzipBox.isSelected();
+        Path file = ReportService.exportPath(chooser.getSelectedFile().toPath(), gzip);
+        DBExecutor.submit(this, () -> ReportService.getInstance().exportBookings(file, gzip),
+                count -> JOptionPane.showMessageDialog(this, "Exported " + count + " bookings to " + file,
+                        "Export Complete", JOptionPane.INFORMATION_MESSAGE),
+                e -> showErrorDialog("Error exporting bookings: " + e.getMessage()));
+    }
+
+    /**
+     * Export every report to its own file in a directory the admin picks
+     */
+    private void exportReports() {
+        JCheckBox gzipBox = new JCheckBox("Compress (gzip)");
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Export Reports");
+        chooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+        chooser.setAccessory(gzipBox);
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        boolean gzip = gzipBox.isSelected();
+        Path dir = chooser.getSelectedFile().toPath();
+        DBExecutor.submit(this, () -> {
+            ReportService.getInstance().exportReports(dir, gzip);
+            return null;
+        }, ignored -> JOptionPane.showMessageDialog(this, "Reports exported to " + dir,
+                "Export Complete", JOptionPane.INFORMATION_MESSAGE),
+                e -> showErrorDialog("Error exporting reports: " + e.getMessage()));
     }
 
     /**
@@ -659,6 +733,7 @@ public class AdminDashboard extends JFrame implements ActionListener {
     }
 
     private void logout() {
+        Session.end();
         this.dispose();
         new Login().setVisible(true);
     }
@@ -1,9 +1,18 @@
 package gui;
 
 
-import utils.DBConnection;
+import service.BookingService;
+import service.FlightService;
+import utils.BookingManager;
+import utils.DBExecutor;
+import utils.FlightChangeFeed;
+import utils.SeatHoldManager;
+import utils.SeatInventory;
+import utils.SeatMap;
 import model.Flight;
 import model.Booking;
+import model.Itinerary;
+import model.User;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
@@ -11,12 +20,18 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.sql.ResultSet;
-import java.sql.SQLException;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Vector;
 
 /**
  * BookingForm GUI class for Airline Reservation System
@@ -28,27 +43,131 @@ public class BookingForm extends JFrame implements ActionListener {
     private JTextField sourceField;
     private JTextField destinationField;
     private JDateChooser dateChooser;
+    private JComboBox<DepartureWindow> departureWindowCombo;
     private JButton searchButton;
     private JButton bookButton;
     private JButton resetButton;
+    private JButton groupBookButton;
     private JTable flightTable;
-    private DefaultTableModel tableModel;
+    private FlightTableModel tableModel;
     private JTextArea bookingDetailsArea;
     private JTextField passengerNameField;
     private JComboBox<String> seatClassCombo;
+    private JComboBox<SeatMap.Preference> seatPreferenceCombo;
     private JLabel totalAmountLabel;
+    private JLabel statusLabel;
+
+    /**
+     * Departure time-of-day windows offered in the search panel
+     */
+    private enum DepartureWindow {
+        ANY("Any Time", 0, 24),
+        NIGHT("Night (00-06)", 0, 6),
+        MORNING("Morning (06-12)", 6, 12),
+        AFTERNOON("Afternoon (12-18)", 12, 18),
+        EVENING("Evening (18-24)", 18, 24);
+
+        private final String label;
+        private final int startHour;
+        private final int endHour;
+
+        DepartureWindow(String label, int startHour, int endHour) {
+            this.label = label;
+            this.startHour = startHour;
+            this.endHour = endHour;
+        }
+
+        LocalDateTime start(LocalDate date) { return date.atStartOfDay().plusHours(startHour); }
+        LocalDateTime end(LocalDate date) { return date.atStartOfDay().plusHours(endHour); }
+
+        @Override
+        public String toString() { return label; }
+    }
 
     // Current user and selected flight
-    private String currentUser;
+    private final User currentUser;
     private Flight selectedFlight;
+    private SeatHoldManager.SeatHold seatHold;
+
+    // Flight loads and searches run in the background; a newer one cancels the older
+    private final DBExecutor.LatestTask flightTask = new DBExecutor.LatestTask();
+    private final DBExecutor.LatestTask selectionTask = new DBExecutor.LatestTask();
+
+    // Table row of each listed flight, for applying seat and flight changes row by row
+    private final Map<Integer, Integer> rowByFlightId = new HashMap<>();
+    private List<Integer> rowFlightIds = new ArrayList<>();
+
+    // Seat changes from this process and flight changes from the database, applied on the EDT
+    private final SeatInventory.SeatListener seatListener =
+        flightId -> SwingUtilities.invokeLater(() -> updateSeats(flightId));
+    private final FlightChangeFeed.Listener flightListener = this::flightChanged;
+
+    /**
+     * Flight table rows together with the flight each row shows
+     */
+    private static final class FlightRows {
+        final List<Integer> flightIds;
+        final List<Object[]> rows;
+
+        FlightRows(List<Integer> flightIds, List<Object[]> rows) {
+            this.flightIds = flightIds;
+            this.rows = rows;
+        }
+    }
+
+    /**
+     * Result of a background flight search
+     */
+    private static final class SearchResult {
+        final FlightRows rows;
+        final List<Itinerary> itineraries;
+
+        SearchResult(FlightRows rows, List<Itinerary> itineraries) {
+            this.rows = rows;
+            this.itineraries = itineraries;
+        }
+    }
+
+    /**
+     * Read-only flight table model that can replace one row with a single row event
+     */
+    private static final class FlightTableModel extends DefaultTableModel {
+        FlightTableModel(String[] columns) {
+            super(columns, 0);
+        }
+
+        @Override
+        public boolean isCellEditable(int row, int column) {
+            return false; // Make table read-only
+        }
+
+        /**
+         * Replace a row's values if any changed, firing one rows-updated event
+         */
+        @SuppressWarnings("unchecked")
+        void updateRow(int row, Object[] values) {
+            Vector<Object> current = (Vector<Object>) dataVector.get(row);
+            if (Arrays.equals(current.toArray(), values)) {
+                return;
+            }
+            for (int i = 0; i < values.length; i++) {
+                current.set(i, values[i]);
+            }
+            fireTableRowsUpdated(row, row);
+        }
+    }
 
     // Constructor
-    public BookingForm(String username) {
-        this.currentUser = username;
+    public BookingForm(User customer) {
+        this.currentUser = customer;
         initializeComponents();
         setupLayout();
         setFrameProperties();
         loadFlights();
+
+        // Keep listed flights current row by row instead of reloading the table
+        SeatInventory.getInstance().addListener(seatListener);
+        FlightChangeFeed.getInstance().addListener(flightListener);
     }
 
     /**
@@ -60,21 +179,18 @@ public class BookingForm extends JFrame implements ActionListener {
         destinationField = new JTextField(15);
         dateChooser = new JDateChooser();
         dateChooser.setPreferredSize(new Dimension(150, 25));
+        departureWindowCombo = new JComboBox<>(DepartureWindow.values());
 
         // Buttons
         searchButton = new JButton("Search Flights");
         bookButton = new JButton("Book Flight");
         resetButton = new JButton("Reset");
+        groupBookButton = new JButton("Group Booking...");
 
         // Flight table
         String[] columns = {"Flight No", "Airline", "Source", "Destination", 
                            "Departure", "Arrival", "Price", "Available Seats"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Make table read-only
-            }
-        };
+        tableModel = new FlightTableModel(columns);
         flightTable = new JTable(tableModel);
         flightTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
 
@@ -82,8 +198,10 @@ public class BookingForm extends JFrame implements ActionListener {
         passengerNameField = new JTextField(20);
         String[] seatClasses = {"Economy", "Business", "First Class"};
         seatClassCombo = new JComboBox<>(seatClasses);
+        seatPreferenceCombo = new JComboBox<>(SeatMap.Preference.values());
         totalAmountLabel = new JLabel("₹0.00");
         totalAmountLabel.setFont(new Font("Arial", Font.BOLD, 14));
+        statusLabel = new JLabel(" ");
 
         // Booking details area
         bookingDetailsArea = new JTextArea(8, 30);
@@ -94,6 +212,7 @@ public class BookingForm extends JFrame implements ActionListener {
         searchButton.addActionListener(this);
         bookButton.addActionListener(this);
         resetButton.addActionListener(this);
+        groupBookButton.addActionListener(this);
 
         // Table selection listener
         flightTable.addMouseListener(new MouseAdapter() {
@@ -105,6 +224,18 @@ public class BookingForm extends JFrame implements ActionListener {
 
         // Seat class change listener
         seatClassCombo.addActionListener(e -> updateTotalAmount());
+
+        // Give back any held seat when the form is closed
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                SeatInventory.getInstance().removeListener(seatListener);
+                FlightChangeFeed.getInstance().removeListener(flightListener);
+                flightTask.cancel();
+                selectionTask.cancel();
+                releaseSeatHold();
+            }
+        });
     }
 
     /**
@@ -141,7 +272,12 @@ public class BookingForm extends JFrame implements ActionListener {
         searchPanel.add(dateChooser, gbc);
 
         gbc.gridx = 2; gbc.gridy = 1;
-        gbc.gridwidth = 2;
+        searchPanel.add(new JLabel("Departure:"), gbc);
+        gbc.gridx = 3;
+        searchPanel.add(departureWindowCombo, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 2;
+        gbc.gridwidth = 4;
         JPanel searchButtonPanel = new JPanel();
         searchButtonPanel.add(searchButton);
         searchButtonPanel.add(resetButton);
@@ -153,6 +289,7 @@ public class BookingForm extends JFrame implements ActionListener {
         JScrollPane tableScrollPane = new JScrollPane(flightTable);
         tableScrollPane.setPreferredSize(new Dimension(800, 200));
         tablePanel.add(tableScrollPane, BorderLayout.CENTER);
+        tablePanel.add(statusLabel, BorderLayout.SOUTH);
 
         // Booking Panel
         JPanel bookingPanel = new JPanel(new BorderLayout());
@@ -173,14 +310,22 @@ public class BookingForm extends JFrame implements ActionListener {
         bookingFormPanel.add(seatClassCombo, gbc);
 
         gbc.gridx = 0; gbc.gridy = 2;
+        bookingFormPanel.add(new JLabel("Seat Preference:"), gbc);
+        gbc.gridx = 1;
+        bookingFormPanel.add(seatPreferenceCombo, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 3;
         bookingFormPanel.add(new JLabel("Total Amount:"), gbc);
         gbc.gridx = 1;
         bookingFormPanel.add(totalAmountLabel, gbc);
 
-        gbc.gridx = 0; gbc.gridy = 3;
+        gbc.gridx = 0; gbc.gridy = 4;
         gbc.gridwidth = 2;
         bookingFormPanel.add(bookButton, gbc);
 
+        gbc.gridy = 5;
+        bookingFormPanel.add(groupBookButton, gbc);
+
         JScrollPane detailsScrollPane = new JScrollPane(bookingDetailsArea);
 
         bookingPanel.add(bookingFormPanel, BorderLayout.WEST);
@@ -215,6 +360,8 @@ public class BookingForm extends JFrame implements ActionListener {
             handleFlightSearch();
         } else if (e.getSource() == bookButton) {
             handleFlightBooking();
+        } else if (e.getSource() == groupBookButton) {
+            handleGroupBooking();
         } else if (e.getSource() == resetButton) {
             handleReset();
         }
@@ -234,83 +381,195 @@ public class BookingForm extends JFrame implements ActionListener {
             return;
         }
 
-        searchFlights(source, destination);
+        LocalDate date = null;
+        if (!dateChooser.getText().trim().isEmpty()) {
+            java.util.Date chosen = dateChooser.getDate();
+            if (chosen == null) {
+                JOptionPane.showMessageDialog(this, 
+                    "Please enter the date in DD-MM-YYYY format.", 
+                    "Input Error", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            date = chosen.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        }
+
+        DepartureWindow window = (DepartureWindow) departureWindowCombo.getSelectedItem();
+        if (date == null && window != DepartureWindow.ANY) {
+            JOptionPane.showMessageDialog(this, 
+                "Please enter a date to search a departure window.", 
+                "Input Error", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        // Without a date, show every upcoming flight on the route
+        LocalDateTime from = date == null ? LocalDateTime.now() : window.start(date);
+        LocalDateTime to = date == null ? null : window.end(date);
+        searchFlights(source, destination, from, to);
     }
 
     /**
-     * Search flights in database
+     * Search flights on a route departing in a window, served as a range scan
+     * of the in-memory route index. Runs in the background; a newer search or
+     * reload cancels this one
+     * @param to End of the window (exclusive), or null for no upper bound
      */
-    private void searchFlights(String source, String destination) {
-        String query = "SELECT * FROM flights WHERE source = ? AND destination = ? AND status = 'ACTIVE' AND available_seats > 0";
-
-        try {
-            ResultSet rs = DBConnection.executeQuery(query, source, destination);
-            tableModel.setRowCount(0); // Clear existing data
-
-            if (rs != null) {
-                boolean hasResults = false;
-                while (rs.next()) {
-                    hasResults = true;
-                    Object[] row = {
-                        rs.getString("flight_number"),
-                        rs.getString("airline"),
-                        rs.getString("source"),
-                        rs.getString("destination"),
-                        rs.getString("departure_time"),
-                        rs.getString("arrival_time"),
-                        "₹" + rs.getDouble("price"),
-                        rs.getInt("available_seats")
-                    };
-                    tableModel.addRow(row);
-                }
+    private void searchFlights(String source, String destination, LocalDateTime from, LocalDateTime to) {
+        statusLabel.setText("Searching flights...");
+        flightTask.submit(this, () -> {
+            List<Flight> flights = FlightService.getInstance().search(source, destination, from, to);
+            List<Itinerary> itineraries = new ArrayList<>();
+            if (flights.isEmpty()) {
+                // No direct flight, so offer connections whose first leg leaves in the same window
+                itineraries = FlightService.getInstance().searchConnections(source, destination, from, to);
+            }
+            return new SearchResult(flightRows(flights), itineraries);
+        }, this::showSearchResult, this::showLoadError);
+    }
 
-                if (!hasResults) {
-                    JOptionPane.showMessageDialog(this, 
-                        "No flights found for the selected route.", 
-                        "Search Result", JOptionPane.INFORMATION_MESSAGE);
-                }
+    /**
+     * Show a finished search; called on the EDT
+     */
+    private void showSearchResult(SearchResult result) {
+        showFlights(result.rows);
+
+        if (result.rows.rows.isEmpty()) {
+            List<Itinerary> itineraries = result.itineraries;
+            if (itineraries.isEmpty()) {
+                JOptionPane.showMessageDialog(this, 
+                    "No flights found for the selected route.", 
+                    "Search Result", JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                displayConnections(itineraries);
+                JOptionPane.showMessageDialog(this, 
+                    "No direct flights found. Connecting options are shown below.", 
+                    "Search Result", JOptionPane.INFORMATION_MESSAGE);
+            }
+        }
+    }
 
-                DBConnection.closeResultSet(rs);
+    /**
+     * Display connecting itineraries in the details area
+     */
+    private void displayConnections(List<Itinerary> itineraries) {
+        StringBuilder details = new StringBuilder();
+        details.append("\n========== CONNECTING FLIGHTS ==========\n");
+        int option = 1;
+        for (Itinerary itinerary : itineraries) {
+            details.append(option++).append(". ").append(itinerary.getRoute())
+                   .append("  (").append(itinerary.getFormattedDuration())
+                   .append(", ₹").append(String.format("%.2f", itinerary.getTotalPrice())).append(")\n");
+            for (Flight leg : itinerary.getLegs()) {
+                details.append("     ").append(leg.getFlightNumber()).append("  ")
+                       .append(leg.getSource()).append(" → ").append(leg.getDestination()).append("  ")
+                       .append(leg.getFormattedDepartureTime()).append(" - ")
+                       .append(leg.getFormattedArrivalTime()).append("\n");
             }
-        } catch (SQLException e) {
-            System.err.println("Error searching flights: " + e.getMessage());
-            JOptionPane.showMessageDialog(this, 
-                "Error occurred while searching flights.", 
-                "Database Error", JOptionPane.ERROR_MESSAGE);
         }
+        details.append("========================================\n");
+        details.append("Book each leg separately by searching its route.\n");
+
+        bookingDetailsArea.setText(details.toString());
     }
 
     /**
-     * Load all flights on startup
+     * Load all flights in the background, replacing any search in progress
      */
     private void loadFlights() {
-        String query = "SELECT * FROM flights WHERE status = 'ACTIVE' ORDER BY departure_time";
+        statusLabel.setText("Loading flights...");
+        flightTask.submit(this, () -> flightRows(FlightService.getInstance().getActiveFlights()),
+            this::showFlights, this::showLoadError);
+    }
 
-        try {
-            ResultSet rs = DBConnection.executeQuery(query);
-            tableModel.setRowCount(0);
-
-            if (rs != null) {
-                while (rs.next()) {
-                    Object[] row = {
-                        rs.getString("flight_number"),
-                        rs.getString("airline"),
-                        rs.getString("source"),
-                        rs.getString("destination"),
-                        rs.getString("departure_time"),
-                        rs.getString("arrival_time"),
-                        "₹" + rs.getDouble("price"),
-                        rs.getInt("available_seats")
-                    };
-                    tableModel.addRow(row);
-                }
-                DBConnection.closeResultSet(rs);
-            }
-        } catch (SQLException e) {
-            System.err.println("Error loading flights: " + e.getMessage());
+    /**
+     * Build flight table rows; runs off the EDT since a cold route index or
+     * seat inventory loads from the database
+     */
+    private static FlightRows flightRows(List<Flight> flights) {
+        SeatInventory inventory = SeatInventory.getInstance();
+        List<Integer> flightIds = new ArrayList<>(flights.size());
+        List<Object[]> rows = new ArrayList<>(flights.size());
+
+        for (Flight flight : flights) {
+            flightIds.add(flight.getFlightId());
+            rows.add(flightRow(flight, inventory.getAvailableSeats(flight.getFlightId())));
+        }
+        return new FlightRows(flightIds, rows);
+    }
+
+    private static Object[] flightRow(Flight flight, int availableSeats) {
+        return new Object[] {
+            flight.getFlightNumber(),
+            flight.getAirline(),
+            flight.getSource(),
+            flight.getDestination(),
+            flight.getFormattedDepartureTime(),
+            flight.getFormattedArrivalTime(),
+            "₹" + flight.getPrice(),
+            availableSeats
+        };
+    }
+
+    /**
+     * Fill the flight table; called on the EDT
+     */
+    private void showFlights(FlightRows flightRows) {
+        tableModel.setRowCount(0); // Clear existing data
+        for (Object[] row : flightRows.rows) {
+            tableModel.addRow(row);
+        }
+        rowFlightIds = new ArrayList<>(flightRows.flightIds);
+        indexRows();
+        statusLabel.setText(flightRows.rows.size() + " flight(s)");
+    }
+
+    private void indexRows() {
+        rowByFlightId.clear();
+        for (int row = 0; row < rowFlightIds.size(); row++) {
+            rowByFlightId.put(rowFlightIds.get(row), row);
+        }
+    }
+
+    /**
+     * Show a listed flight's current available seats; called on the EDT
+     * The count is already in memory, since the flight was listed or just changed
+     */
+    private void updateSeats(int flightId) {
+        Integer row = rowByFlightId.get(flightId);
+        if (row != null) {
+            tableModel.setValueAt(SeatInventory.getInstance().getAvailableSeats(flightId), row, 7);
         }
     }
 
+    /**
+     * Apply a flight change from the database feed; called on the feed's thread
+     */
+    private void flightChanged(Flight flight) {
+        boolean active = "ACTIVE".equals(flight.getStatus());
+        Object[] values = active ? flightRow(flight, SeatInventory.getInstance().getAvailableSeats(flight.getFlightId())) : null;
+        SwingUtilities.invokeLater(() -> {
+            Integer row = rowByFlightId.get(flight.getFlightId());
+            if (row == null) {
+                return; // Not listed; new flights appear on the next search
+            }
+            if (values != null) {
+                tableModel.updateRow(row, values);
+            } else {
+                // No longer bookable
+                tableModel.removeRow(row);
+                rowFlightIds.remove((int) row);
+                indexRows();
+            }
+        });
+    }
+
+    /**
+     * Report a failed background load; called on the EDT
+     */
+    private void showLoadError(Exception e) {
+        statusLabel.setText("Could not load flights");
+        System.err.println("Error loading flights: " + e.getMessage());
+    }
+
     /**
      * Handle flight selection
      */
@@ -318,34 +577,63 @@ public class BookingForm extends JFrame implements ActionListener {
         int selectedRow = flightTable.getSelectedRow();
         if (selectedRow != -1) {
             String flightNumber = (String) tableModel.getValueAt(selectedRow, 0);
-            loadSelectedFlight(flightNumber);
-            updateTotalAmount();
+            selectionTask.submit(this, () -> loadSelectedFlight(flightNumber), flight -> {
+                if (flight == null || selectedRow >= tableModel.getRowCount()
+                        || !flightNumber.equals(tableModel.getValueAt(selectedRow, 0))) {
+                    return; // Flight gone or table reloaded meanwhile
+                }
+                selectedFlight = flight;
+                updateTotalAmount();
+                // The flight's seat count is already in memory from loading the table, so the hold does no I/O
+                holdSelectedSeat();
+            }, null);
         }
     }
 
     /**
-     * Load selected flight details
+     * Hold a seat on the selected flight while the customer completes the booking
      */
-    private void loadSelectedFlight(String flightNumber) {
-        String query = "SELECT * FROM flights WHERE flight_number = ?";
+    private void holdSelectedSeat() {
+        if (selectedFlight == null) {
+            return;
+        }
+        BookingService bookingService = BookingService.getInstance();
+        if (bookingService.isActive(seatHold) && seatHold.getFlightId() == selectedFlight.getFlightId()) {
+            return; // Already holding a seat on this flight
+        }
 
-        try {
-            ResultSet rs = DBConnection.executeQuery(query, flightNumber);
-            if (rs != null && rs.next()) {
-                selectedFlight = new Flight();
-                selectedFlight.setFlightId(rs.getInt("flight_id"));
-                selectedFlight.setFlightNumber(rs.getString("flight_number"));
-                selectedFlight.setAirline(rs.getString("airline"));
-                selectedFlight.setSource(rs.getString("source"));
-                selectedFlight.setDestination(rs.getString("destination"));
-                selectedFlight.setPrice(rs.getDouble("price"));
-                selectedFlight.setAvailableSeats(rs.getInt("available_seats"));
-
-                DBConnection.closeResultSet(rs);
-            }
-        } catch (SQLException e) {
-            System.err.println("Error loading selected flight: " + e.getMessage());
+        releaseSeatHold();
+        seatHold = bookingService.hold(selectedFlight.getFlightId());
+        if (seatHold == null) {
+            JOptionPane.showMessageDialog(this, 
+                "Sorry, this flight has no seats left.", 
+                "Selection Error", JOptionPane.WARNING_MESSAGE);
+        }
+        // The seat listener shows the held seat as no longer available
+    }
+
+    /**
+     * Release the seat held for the selected flight, if any
+     */
+    private void releaseSeatHold() {
+        BookingService.getInstance().releaseHold(seatHold);
+        seatHold = null;
+    }
+
+    /**
+     * Load selected flight details; runs off the EDT
+     * @return a copy of the flight, or null if it is no longer active
+     */
+    private static Flight loadSelectedFlight(String flightNumber) {
+        Flight flight = FlightService.getInstance().findByFlightNumber(flightNumber);
+        if (flight == null) {
+            return null;
         }
+        // Copy, since indexed flights are shared between screens
+        return new Flight(flight.getFlightId(), flight.getFlightNumber(), flight.getAirline(),
+            flight.getSource(), flight.getDestination(), flight.getDepartureTime(),
+            flight.getArrivalTime(), flight.getPrice(), flight.getTotalSeats(),
+            SeatInventory.getInstance().getAvailableSeats(flight.getFlightId()));
     }
 
     /**
@@ -353,22 +641,8 @@ public class BookingForm extends JFrame implements ActionListener {
      */
     private void updateTotalAmount() {
         if (selectedFlight != null) {
-            double basePrice = selectedFlight.getPrice();
-            String seatClass = (String) seatClassCombo.getSelectedItem();
-            double multiplier = 1.0;
-
-            switch (seatClass) {
-                case "Business":
-                    multiplier = 1.5;
-                    break;
-                case "First Class":
-                    multiplier = 2.0;
-                    break;
-                default:
-                    multiplier = 1.0;
-            }
-
-            double totalAmount = basePrice * multiplier;
+            SeatMap.Cabin cabin = SeatMap.Cabin.fromLabel((String) seatClassCombo.getSelectedItem());
+            double totalAmount = BookingService.fare(selectedFlight, cabin);
             totalAmountLabel.setText("₹" + String.format("%.2f", totalAmount));
         }
     }
@@ -392,80 +666,179 @@ public class BookingForm extends JFrame implements ActionListener {
             return;
         }
 
-        // Generate seat number
-        String seatNumber = generateSeatNumber();
         double totalAmount = Double.parseDouble(totalAmountLabel.getText().replace("₹", ""));
 
-        // Create booking
-        if (createBooking(passengerName, seatNumber, totalAmount)) {
-            displayBookingConfirmation(passengerName, seatNumber, totalAmount);
-            JOptionPane.showMessageDialog(this, 
-                "Flight booked successfully! Check booking details below.", 
-                "Booking Success", JOptionPane.INFORMATION_MESSAGE);
-        } else {
-            JOptionPane.showMessageDialog(this, 
-                "Booking failed. Please try again.", 
-                "Booking Error", JOptionPane.ERROR_MESSAGE);
+        // Create booking; the seat is assigned from the flight's seat map
+        Booking booking = new Booking(0, selectedFlight.getFlightId(), passengerName, null, totalAmount);
+        String problem = BookingManager.validate(booking);
+        if (problem != null) {
+            JOptionPane.showMessageDialog(this, problem, "Input Error", JOptionPane.WARNING_MESSAGE);
+            return;
         }
+        Flight bookedFlight = selectedFlight;
+        String seatClass = (String) seatClassCombo.getSelectedItem();
+        SeatMap.Cabin cabin = SeatMap.Cabin.fromLabel(seatClass);
+        SeatMap.Preference preference = (SeatMap.Preference) seatPreferenceCombo.getSelectedItem();
+
+        // The held seat is used up either way; an expired hold falls back to a fresh reservation
+        SeatHoldManager.SeatHold hold = seatHold;
+        seatHold = null;
+
+        bookButton.setEnabled(false);
+        DBExecutor.submit(this, () -> createBooking(booking, cabin, preference, hold), result -> {
+            bookButton.setEnabled(true);
+            showBookingResult(result, bookedFlight, passengerName, seatClass, booking.getSeatNumber(), totalAmount);
+        }, e -> {
+            bookButton.setEnabled(true);
+            System.err.println("Error creating booking: " + e.getMessage());
+            showBookingResult(BookingManager.Result.FAILED, bookedFlight, passengerName, seatClass, null, totalAmount);
+        });
     }
 
     /**
-     * Create booking in database
+     * Book several passengers on the selected flight at once; they are seated
+     * together where the cabin allows and either all are booked or none
      */
-    private boolean createBooking(String passengerName, String seatNumber, double totalAmount) {
-        try {
-            // Get user ID
-            String userQuery = "SELECT user_id FROM users WHERE email = ?";
-            ResultSet userRs = DBConnection.executeQuery(userQuery, currentUser);
-            int userId = 0;
-            if (userRs != null && userRs.next()) {
-                userId = userRs.getInt("user_id");
-                DBConnection.closeResultSet(userRs);
-            }
+    private void handleGroupBooking() {
+        if (selectedFlight == null) {
+            JOptionPane.showMessageDialog(this, 
+                "Please select a flight first.", 
+                "Selection Error", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
 
-            // Insert booking
-            String bookingQuery = "INSERT INTO bookings (user_id, flight_id, passenger_name, seat_number, total_amount, status) VALUES (?, ?, ?, ?, ?, 'CONFIRMED')";
-            int result = DBConnection.executeUpdate(bookingQuery, 
-                userId, selectedFlight.getFlightId(), passengerName, seatNumber, totalAmount);
+        JTextArea namesArea = new JTextArea(passengerNameField.getText().trim(), 12, 25);
+        JPanel namesPanel = new JPanel(new BorderLayout(5, 5));
+        namesPanel.add(new JLabel("Passenger names, one per line:"), BorderLayout.NORTH);
+        namesPanel.add(new JScrollPane(namesArea), BorderLayout.CENTER);
+        int choice = JOptionPane.showConfirmDialog(this, namesPanel, 
+            "Group Booking - " + selectedFlight.getFlightNumber(), JOptionPane.OK_CANCEL_OPTION);
+        if (choice != JOptionPane.OK_OPTION) {
+            return;
+        }
 
-            if (result > 0) {
-                // Update available seats
-                String updateQuery = "UPDATE flights SET available_seats = available_seats - 1 WHERE flight_id = ?";
-                DBConnection.executeUpdate(updateQuery, selectedFlight.getFlightId());
+        List<String> names = new ArrayList<>();
+        for (String name : namesArea.getText().split("\\R")) {
+            if (!name.isBlank()) {
+                names.add(name.trim());
+            }
+        }
+        if (names.isEmpty() || names.size() > BookingService.MAX_GROUP_SIZE) {
+            JOptionPane.showMessageDialog(this, 
+                "Please enter between 1 and " + BookingService.MAX_GROUP_SIZE + " passenger names.", 
+                "Input Error", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
 
-                // Refresh flight table
-                loadFlights();
-                return true;
+        Flight bookedFlight = selectedFlight;
+        String seatClass = (String) seatClassCombo.getSelectedItem();
+        SeatMap.Cabin cabin = SeatMap.Cabin.fromLabel(seatClass);
+        double fare = BookingService.fare(bookedFlight, cabin);
+        List<Booking> group = new ArrayList<>();
+        for (String name : names) {
+            Booking booking = new Booking(0, bookedFlight.getFlightId(), name, null, fare);
+            String problem = BookingManager.validate(booking);
+            if (problem != null) {
+                JOptionPane.showMessageDialog(this, problem, "Input Error", JOptionPane.WARNING_MESSAGE);
+                return;
             }
-        } catch (SQLException e) {
-            System.err.println("Error creating booking: " + e.getMessage());
+            group.add(booking);
         }
-        return false;
+
+        // The group takes its own block of seats, so give back the single seat held for this flight
+        releaseSeatHold();
+
+        groupBookButton.setEnabled(false);
+        DBExecutor.submit(this, () -> BookingService.getInstance().bookGroup(currentUser, group, cabin), result -> {
+            groupBookButton.setEnabled(true);
+            if (result == BookingManager.Result.CONFIRMED) {
+                displayGroupConfirmation(bookedFlight, group, seatClass, fare * group.size());
+                JOptionPane.showMessageDialog(this, 
+                    group.size() + " passengers booked successfully! Check booking details below.", 
+                    "Booking Success", JOptionPane.INFORMATION_MESSAGE);
+            } else if (result == BookingManager.Result.SOLD_OUT) {
+                JOptionPane.showMessageDialog(this, 
+                    "Sorry, there are not enough " + seatClass + " seats left for " + group.size() + " passengers.", 
+                    "Booking Error", JOptionPane.WARNING_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(this, 
+                    "Group booking failed. Please try again.", 
+                    "Booking Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }, e -> {
+            groupBookButton.setEnabled(true);
+            System.err.println("Error creating group booking: " + e.getMessage());
+            JOptionPane.showMessageDialog(this, 
+                "Group booking failed. Please try again.", 
+                "Booking Error", JOptionPane.ERROR_MESSAGE);
+        });
     }
 
     /**
-     * Generate seat number
+     * Report the outcome of a booking; called on the EDT
      */
-    private String generateSeatNumber() {
-        String seatClass = (String) seatClassCombo.getSelectedItem();
-        String prefix = seatClass.equals("Economy") ? "E" : 
-                       seatClass.equals("Business") ? "B" : "F";
-        int seatNum = (int) (Math.random() * 50) + 1;
-        return prefix + String.format("%02d", seatNum);
+    private void showBookingResult(BookingManager.Result result, Flight flight, String passengerName,
+                                   String seatClass, String seatNumber, double totalAmount) {
+        if (result == BookingManager.Result.CONFIRMED) {
+            // The booked flight's row was already updated by the seat listener
+            displayBookingConfirmation(flight, passengerName, seatClass, seatNumber, totalAmount);
+            JOptionPane.showMessageDialog(this, 
+                "Flight booked successfully! Check booking details below.", 
+                "Booking Success", JOptionPane.INFORMATION_MESSAGE);
+        } else if (result == BookingManager.Result.SOLD_OUT) {
+            JOptionPane.showMessageDialog(this, 
+                "Sorry, no " + seatClass + " seats are left on this flight.", 
+                "Booking Error", JOptionPane.WARNING_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(this, 
+                "Booking failed. Please try again.", 
+                "Booking Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Create booking in database; runs off the EDT
+     */
+    private BookingManager.Result createBooking(Booking booking, SeatMap.Cabin cabin,
+                                                SeatMap.Preference preference, SeatHoldManager.SeatHold hold) {
+        return BookingService.getInstance().book(currentUser, booking, cabin, preference, hold);
     }
 
     /**
      * Display booking confirmation
      */
-    private void displayBookingConfirmation(String passengerName, String seatNumber, double totalAmount) {
+    private void displayBookingConfirmation(Flight flight, String passengerName, String seatClass,
+                                            String seatNumber, double totalAmount) {
         StringBuilder details = new StringBuilder();
         details.append("\n========== BOOKING CONFIRMATION ==========\n");
-        details.append("Flight Number: ").append(selectedFlight.getFlightNumber()).append("\n");
-        details.append("Airline: ").append(selectedFlight.getAirline()).append("\n");
-        details.append("Route: ").append(selectedFlight.getSource()).append(" → ").append(selectedFlight.getDestination()).append("\n");
+        details.append("Flight Number: ").append(flight.getFlightNumber()).append("\n");
+        details.append("Airline: ").append(flight.getAirline()).append("\n");
+        details.append("Route: ").append(flight.getSource()).append(" → ").append(flight.getDestination()).append("\n");
         details.append("Passenger: ").append(passengerName).append("\n");
         details.append("Seat Number: ").append(seatNumber).append("\n");
-        details.append("Seat Class: ").append(seatClassCombo.getSelectedItem()).append("\n");
+        details.append("Seat Class: ").append(seatClass).append("\n");
+        details.append("Total Amount: ₹").append(String.format("%.2f", totalAmount)).append("\n");
+        details.append("Booking Date: ").append(LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm"))).append("\n");
+        details.append("Status: CONFIRMED\n");
+        details.append("==========================================\n");
+
+        bookingDetailsArea.setText(details.toString());
+    }
+
+    /**
+     * Display the confirmation of a group booking, one line per passenger
+     */
+    private void displayGroupConfirmation(Flight flight, List<Booking> group, String seatClass, double totalAmount) {
+        StringBuilder details = new StringBuilder();
+        details.append("\n======= GROUP BOOKING CONFIRMATION =======\n");
+        details.append("Flight Number: ").append(flight.getFlightNumber()).append("\n");
+        details.append("Airline: ").append(flight.getAirline()).append("\n");
+        details.append("Route: ").append(flight.getSource()).append(" → ").append(flight.getDestination()).append("\n");
+        details.append("Seat Class: ").append(seatClass).append("\n");
+        for (Booking booking : group) {
+            details.append(String.format("  %-6s %s%n", booking.getSeatNumber(), booking.getPassengerName()));
+        }
+        details.append("Passengers: ").append(group.size()).append("\n");
         details.append("Total Amount: ₹").append(String.format("%.2f", totalAmount)).append("\n");
         details.append("Booking Date: ").append(LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm"))).append("\n");
         details.append("Status: CONFIRMED\n");
@@ -481,11 +854,15 @@ public class BookingForm extends JFrame implements ActionListener {
         sourceField.setText("");
         destinationField.setText("");
         dateChooser.setDate(null);
+        departureWindowCombo.setSelectedIndex(0);
         passengerNameField.setText("");
         seatClassCombo.setSelectedIndex(0);
+        seatPreferenceCombo.setSelectedIndex(0);
         totalAmountLabel.setText("₹0.00");
         bookingDetailsArea.setText("");
+        selectionTask.cancel();
         selectedFlight = null;
+        releaseSeatHold();
         flightTable.clearSelection();
         loadFlights();
     }
@@ -499,17 +876,22 @@ class JDateChooser extends JTextField {
         setToolTipText("Enter date in DD-MM-YYYY format");
     }
 
+    /**
+     * Parse the entered date
+     * @return the date, or null if the field is empty or not a valid DD-MM-YYYY date
+     */
     public java.util.Date getDate() {
-        // Simple date parsing - in real implementation, use proper date parsing
+        String text = getText().trim();
+        if (text.isEmpty()) {
+            return null;
+        }
+        java.text.SimpleDateFormat format = new java.text.SimpleDateFormat("dd-MM-yyyy");
+        format.setLenient(false);
         try {
-            String text = getText();
-            if (!text.isEmpty()) {
-                return new java.util.Date(); // Return current date for demo
-            }
-        } catch (Exception e) {
-            // Handle parsing error
+            return format.parse(text);
+        } catch (java.text.ParseException e) {
+            return null;
         }
-        return null;
     }
 
     public void setDate(java.util.Date date) {
@@ -0,0 +1,261 @@
+package gui;
+
+import utils.DBConnection;
+import utils.DBExecutor;
+import utils.DatabaseConfig;
+import javax.swing.table.AbstractTableModel;
+import java.awt.Component;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Lazily loaded table model for all bookings, newest first
+ * Rows are fetched a page at a time as the table asks for them, using keyset
+ * pagination on (booking_date, booking_id), and only a bounded number of pages
+ * is kept in memory. Pages load in the background; until a page arrives its
+ * rows show as loading. All state is only touched on the EDT
+ */
+public class BookingTableModel extends AbstractTableModel {
+
+    // Page size and number of cached pages (airline.bookings.pageSize and airline.bookings.cachedPages)
+    private static final int PAGE_SIZE = DatabaseConfig.getInt("airline.bookings.pageSize", 200);
+    private static final int MAX_CACHED_PAGES = DatabaseConfig.getInt("airline.bookings.cachedPages", 10);
+
+    private static final String[] COLUMNS = {"Booking ID", "User Email", "Flight No", "Passenger",
+            "Seat", "Amount", "Date", "Status"};
+
+    private static final String COUNT_QUERY = "SELECT COUNT(*) FROM bookings";
+
+    private static final String PAGE_SELECT =
+            "SELECT b.booking_id, u.email, f.flight_number, b.passenger_name, b.seat_number, " +
+            "b.total_amount, b.booking_date, b.status " +
+            "FROM bookings b JOIN users u ON b.user_id = u.user_id JOIN flights f ON b.flight_id = f.flight_id ";
+    private static final String ORDER = "ORDER BY b.booking_date DESC, b.booking_id DESC ";
+    // Keyset condition: at or after a page's first row in (booking_date DESC, booking_id DESC) order
+    private static final String FROM_KEY = "WHERE b.booking_date < ? OR (b.booking_date = ? AND b.booking_id <= ?) ";
+
+    private static final String FIRST_PAGE_QUERY = PAGE_SELECT + ORDER + "LIMIT ?";
+    private static final String PAGE_QUERY = PAGE_SELECT + FROM_KEY + ORDER + "LIMIT ?";
+
+    // Skips ahead on the booking_date index alone (it also holds booking_id) to find a page's first row
+    private static final String SEEK_FIRST_QUERY =
+            "SELECT b.booking_date, b.booking_id FROM bookings b " + ORDER + "LIMIT 1 OFFSET ?";
+    private static final String SEEK_QUERY =
+            "SELECT b.booking_date, b.booking_id FROM bookings b " + FROM_KEY + ORDER + "LIMIT 1 OFFSET ?";
+
+    /**
+     * Position of a row in (booking_date DESC, booking_id DESC) order
+     */
+    private static final class Key {
+        final Timestamp bookingDate;
+        final int bookingId;
+
+        Key(Timestamp bookingDate, int bookingId) {
+            this.bookingDate = bookingDate;
+            this.bookingId = bookingId;
+        }
+    }
+
+    /**
+     * A page fetched in the background, with the first key of the page after it
+     */
+    private static final class Page {
+        final Key start;
+        final List<Object[]> rows;
+        final Key nextStart;
+
+        Page(Key start, List<Object[]> rows, Key nextStart) {
+            this.start = start;
+            this.rows = rows;
+            this.nextStart = nextStart;
+        }
+    }
+
+    private final Component owner;
+    private int rowCount = 0;
+
+    // Most recently used pages, evicted beyond the cache size
+    private final Map<Integer, List<Object[]>> pages = new LinkedHashMap<Integer, List<Object[]>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Object[]>> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+
+    // First key of each page seen so far, so later fetches can seek from the nearest one
+    private final TreeMap<Integer, Key> pageStarts = new TreeMap<>();
+    private final Set<Integer> pendingPages = new HashSet<>();
+
+    // Bumped on reload so fetches started before it are ignored
+    private int generation = 0;
+
+    /**
+     * @param owner Component whose window shows the loading state
+     */
+    public BookingTableModel(Component owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Drop all cached pages and recount the bookings
+     */
+    public void reload() {
+        generation++;
+        pages.clear();
+        pageStarts.clear();
+        pendingPages.clear();
+        rowCount = 0;
+        fireTableDataChanged();
+
+        int requested = generation;
+        DBExecutor.submit(owner, BookingTableModel::countBookings, count -> {
+            if (requested == generation) {
+                rowCount = count;
+                fireTableDataChanged();
+            }
+        }, e -> System.err.println("Error counting bookings: " + e.getMessage()));
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        int page = rowIndex / PAGE_SIZE;
+        List<Object[]> rows = pages.get(page);
+        if (rows == null) {
+            requestPage(page);
+            return columnIndex == 1 ? "Loading..." : "";
+        }
+        int offset = rowIndex % PAGE_SIZE;
+        // Bookings deleted since the count leave the end of the last page short
+        return offset < rows.size() ? rows.get(offset)[columnIndex] : "";
+    }
+
+    /**
+     * Start loading a page in the background unless it is already on its way
+     */
+    private void requestPage(int page) {
+        if (!pendingPages.add(page)) {
+            return;
+        }
+
+        // Seek from the nearest page whose first key is known
+        Map.Entry<Integer, Key> nearest = pageStarts.floorEntry(page);
+        int fromPage = nearest == null ? 0 : nearest.getKey();
+        Key fromKey = nearest == null ? null : nearest.getValue();
+        int requested = generation;
+
+        DBExecutor.submit(owner, () -> fetchPage(fromKey, (page - fromPage) * PAGE_SIZE), result -> {
+            if (requested != generation) {
+                return;
+            }
+            pendingPages.remove(page);
+            pages.put(page, result.rows);
+            if (result.start != null) {
+                pageStarts.put(page, result.start);
+            }
+            if (result.nextStart != null) {
+                pageStarts.put(page + 1, result.nextStart);
+            }
+            int firstRow = page * PAGE_SIZE;
+            int lastRow = Math.min(rowCount, firstRow + PAGE_SIZE) - 1;
+            if (firstRow <= lastRow) {
+                fireTableRowsUpdated(firstRow, lastRow);
+            }
+        }, e -> {
+            if (requested == generation) {
+                pendingPages.remove(page);
+            }
+            System.err.println("Error loading bookings page " + page + ": " + e.getMessage());
+        });
+    }
+
+    private static int countBookings() throws SQLException {
+        try (ResultSet rs = DBConnection.executeReadQuery(COUNT_QUERY)) {
+            if (rs == null) {
+                throw new SQLException("Database connection unavailable");
+            }
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Fetch one page; runs off the EDT
+     * @param fromKey First key of a known page, or null to start from the newest booking
+     * @param skip Rows between that key and the start of the wanted page
+     */
+    private static Page fetchPage(Key fromKey, int skip) throws SQLException {
+        Key start = skip == 0 ? fromKey : seek(fromKey, skip);
+        if (skip > 0 && start == null) {
+            return new Page(null, new ArrayList<>(), null); // Past the end
+        }
+
+        // One extra row gives the first key of the next page
+        List<Object[]> rows = new ArrayList<>(PAGE_SIZE + 1);
+        Key nextStart = null;
+        try (ResultSet rs = start == null
+                ? DBConnection.executeReadQuery(FIRST_PAGE_QUERY, PAGE_SIZE + 1)
+                : DBConnection.executeReadQuery(PAGE_QUERY, start.bookingDate, start.bookingDate, start.bookingId, PAGE_SIZE + 1)) {
+            if (rs == null) {
+                throw new SQLException("Database connection unavailable");
+            }
+            while (rs.next()) {
+                if (rows.size() == PAGE_SIZE) {
+                    nextStart = new Key(rs.getTimestamp("booking_date"), rs.getInt("booking_id"));
+                    break;
+                }
+                Object[] row = {
+                        rs.getInt("booking_id"),
+                        rs.getString("email"),
+                        rs.getString("flight_number"),
+                        rs.getString("passenger_name"),
+                        rs.getString("seat_number"),
+                        "₹" + rs.getDouble("total_amount"),
+                        rs.getString("booking_date"),
+                        rs.getString("status")
+                };
+                rows.add(row);
+                if (start == null && rows.size() == 1) {
+                    start = new Key(rs.getTimestamp("booking_date"), rs.getInt("booking_id"));
+                }
+            }
+        }
+        return new Page(start, rows, nextStart);
+    }
+
+    /**
+     * Find the key a number of rows after a known key, reading only the index
+     * @return the key, or null if there are not that many rows
+     */
+    private static Key seek(Key fromKey, int skip) throws SQLException {
+        try (ResultSet rs = fromKey == null
+                ? DBConnection.executeReadQuery(SEEK_FIRST_QUERY, skip)
+                : DBConnection.executeReadQuery(SEEK_QUERY, fromKey.bookingDate, fromKey.bookingDate, fromKey.bookingId, skip)) {
+            if (rs == null) {
+                throw new SQLException("Database connection unavailable");
+            }
+            return rs.next() ? new Key(rs.getTimestamp("booking_date"), rs.getInt("booking_id")) : null;
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package gui;
 
+import model.User;
+import service.UserService;
 import utils.CustomerDashboard;
-import utils.DBConnection;
+import utils.DBExecutor;
+import utils.Session;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.sql.ResultSet;
 import java.sql.SQLException;
 
 
@@ -156,8 +158,26 @@ public class Login extends JFrame implements ActionListener {
             return;
         }
 
-        // Authenticate user
-        if (authenticateUser(username, password, role)) {
+        // Authenticate user in the background so the window stays responsive
+        loginButton.setEnabled(false);
+        DBExecutor.submit(this, () -> authenticateUser(username, password, role), user -> {
+            loginButton.setEnabled(true);
+            completeLogin(username, role, user);
+        }, e -> {
+            loginButton.setEnabled(true);
+            System.err.println("Authentication error: " + e.getMessage());
+            JOptionPane.showMessageDialog(this, 
+                "Database error occurred. Please try again later.", 
+                "Database Error", JOptionPane.ERROR_MESSAGE);
+        });
+    }
+
+    /**
+     * Open the dashboard after a successful login; called on the EDT
+     */
+    private void completeLogin(String username, String role, User user) {
+        if (user != null) {
+            Session.start(user);
             JOptionPane.showMessageDialog(this, 
                 "Login Successful! Welcome " + username, 
                 "Success", JOptionPane.INFORMATION_MESSAGE);
@@ -167,7 +187,7 @@ public class Login extends JFrame implements ActionListener {
             if (role.equals("admin")) {
                 new AdminDashboard(username).setVisible(true);
             } else {
-                new CustomerDashboard(username).setVisible(true);
+                new CustomerDashboard(user).setVisible(true);
             }
         } else {
             JOptionPane.showMessageDialog(this, 
@@ -177,25 +197,12 @@ public class Login extends JFrame implements ActionListener {
     }
 
     /**
-     * Authenticate user against database
+     * Authenticate user against database; runs off the EDT
+     * @return the user with their id resolved, or null if the login is invalid
      */
-    private boolean authenticateUser(String username, String password, String role) {
-        String query = "SELECT * FROM users WHERE email = ? AND password = ? AND role = ?";
-
-        try {
-            ResultSet rs = DBConnection.executeQuery(query, username, password, role);
-            if (rs != null && rs.next()) {
-                DBConnection.closeResultSet(rs);
-                return true;
-            }
-        } catch (SQLException e) {
-            System.err.println("Authentication error: " + e.getMessage());
-            JOptionPane.showMessageDialog(this, 
-                "Database error occurred. Please try again later.", 
-                "Database Error", JOptionPane.ERROR_MESSAGE);
-        }
-
-        return false;
+    private static User authenticateUser(String username, String password, String role) throws SQLException {
+        User user = UserService.getInstance().authenticate(username, password);
+        return user != null && role.equals(user.getRole()) ? user : null;
     }
 
     /**
@@ -3,6 +3,7 @@ package gui;
 
 
 import utils.DBConnection;
+import utils.DBExecutor;
 import model.User;
 import javax.swing.*;
 import java.awt.*;
@@ -168,17 +169,40 @@ public class Register extends JFrame implements ActionListener {
             return;
         }
 
-        // Check if email already exists
-        if (emailExists(email)) {
+        // Check the email and register in the background so the window stays responsive
+        User newUser = new User(name, email, password, phone, address);
+        registerButton.setEnabled(false);
+        DBExecutor.submit(this, () -> {
+            if (emailExists(email)) {
+                return RegistrationResult.EMAIL_TAKEN;
+            }
+            return registerUser(newUser) ? RegistrationResult.REGISTERED : RegistrationResult.FAILED;
+        }, result -> {
+            registerButton.setEnabled(true);
+            showRegistrationResult(result);
+        }, e -> {
+            registerButton.setEnabled(true);
+            System.err.println("Error registering user: " + e.getMessage());
+            showRegistrationResult(RegistrationResult.FAILED);
+        });
+    }
+
+    /**
+     * Outcome of a background registration
+     */
+    private enum RegistrationResult {
+        REGISTERED, EMAIL_TAKEN, FAILED
+    }
+
+    /**
+     * Report the outcome of a registration; called on the EDT
+     */
+    private void showRegistrationResult(RegistrationResult result) {
+        if (result == RegistrationResult.EMAIL_TAKEN) {
             JOptionPane.showMessageDialog(this, 
                 "Email already registered. Please use a different email.", 
                 "Registration Error", JOptionPane.WARNING_MESSAGE);
-            return;
-        }
-
-        // Create user and register
-        User newUser = new User(name, email, password, phone, address);
-        if (registerUser(newUser)) {
+        } else if (result == RegistrationResult.REGISTERED) {
             JOptionPane.showMessageDialog(this, 
                 "Registration successful! You can now login with your credentials.", 
                 "Registration Success", JOptionPane.INFORMATION_MESSAGE);
@@ -268,15 +292,13 @@ public class Register extends JFrame implements ActionListener {
     }
 
     /**
-     * Check if email already exists in database
+     * Check if email already exists in database; runs off the EDT
      */
-    private boolean emailExists(String email) {
+    private static boolean emailExists(String email) {
         String query = "SELECT COUNT(*) FROM users WHERE email = ?";
-        try {
-            java.sql.ResultSet rs = DBConnection.executeQuery(query, email);
+        try (java.sql.ResultSet rs = DBConnection.executeQuery(query, email)) {
             if (rs != null && rs.next()) {
                 int count = rs.getInt(1);
-                DBConnection.closeResultSet(rs);
                 return count > 0;
             }
         } catch (java.sql.SQLException e) {
@@ -286,9 +308,9 @@ public class Register extends JFrame implements ActionListener {
     }
 
     /**
-     * Register new user in database
+     * Register new user in database; runs off the EDT
      */
-    private boolean registerUser(User user) {
+    private static boolean registerUser(User user) {
         String query = "INSERT INTO users (name, email, password, role, phone, address) VALUES (?, ?, ?, ?, ?, ?)";
         try {
             int result = DBConnection.executeUpdate(query, 
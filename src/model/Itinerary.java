@@ -0,0 +1,65 @@
+package model;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Itinerary model class for Airline Reservation System
+ * Represents a journey of one or more connecting flights
+ */
+public class Itinerary {
+    private final List<Flight> legs;
+
+    // Constructor with legs in travel order
+    public Itinerary(List<Flight> legs) {
+        this.legs = Collections.unmodifiableList(new ArrayList<>(legs));
+    }
+
+    public List<Flight> getLegs() { return legs; }
+
+    public Flight getFirstLeg() { return legs.get(0); }
+
+    public Flight getLastLeg() { return legs.get(legs.size() - 1); }
+
+    public int getConnectionCount() {
+        return legs.size() - 1;
+    }
+
+    // Time from first departure to final arrival
+    public Duration getTotalDuration() {
+        return Duration.between(getFirstLeg().getDepartureTime(), getLastLeg().getArrivalTime());
+    }
+
+    public double getTotalPrice() {
+        double total = 0;
+        for (Flight leg : legs) {
+            total += leg.getPrice();
+        }
+        return total;
+    }
+
+    public String getFormattedDuration() {
+        Duration duration = getTotalDuration();
+        return duration.toHours() + "h " + String.format("%02d", duration.toMinutesPart()) + "m";
+    }
+
+    public String getRoute() {
+        StringBuilder route = new StringBuilder(getFirstLeg().getSource());
+        for (Flight leg : legs) {
+            route.append(" → ").append(leg.getDestination());
+        }
+        return route.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "Itinerary{" +
+                "route='" + getRoute() + "'" +
+                ", legs=" + legs.size() +
+                ", duration=" + getFormattedDuration() +
+                ", price=" + getTotalPrice() +
+                "}";
+    }
+}
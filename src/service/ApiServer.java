@@ -0,0 +1,596 @@
+package service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import model.Booking;
+import model.Flight;
+import model.Itinerary;
+import model.User;
+import utils.BookingManager;
+import utils.DBConnection;
+import utils.DatabaseConfig;
+import utils.ReportAggregates;
+import utils.SeatMap;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Embedded HTTP/JSON API for Airline Reservation System
+ * Serves the same FlightService, BookingService and ReportService the Swing
+ * screens use, so bookings can be made without a desktop client.
+ *
+ * Usage: java -cp <classpath> service.ApiServer
+ * Listens on airline.api.host (default 127.0.0.1) and airline.api.port
+ * (default 8080), set in airline.properties or as -D options. Requests authenticate with HTTP Basic using the account's
+ * email and password; reports and flight changes need an admin account.
+ *
+ *   GET    /api/flights?source=&destination=&date=yyyy-MM-dd
+ *   GET    /api/flights/{id}
+ *   POST   /api/flights                      (admin)
+ *   PUT    /api/flights/{id}                 (admin)
+ *   DELETE /api/flights/{id}                 (admin)
+ *   GET    /api/connections?source=&destination=&date=yyyy-MM-dd
+ *   GET    /api/bookings
+ *   POST   /api/bookings                     flightId, passengerName, cabin, preference
+ *   POST   /api/bookings/group               flightId, passengerNames (one per line), cabin
+ *   DELETE /api/bookings/{id}
+ *   GET    /api/reports/{revenue|occupancy|routes|customers}?limit=   (admin)
+ *
+ * POST and PUT bodies are application/x-www-form-urlencoded
+ */
+public class ApiServer {
+
+    private static final String HOST = DatabaseConfig.get("airline.api.host", "127.0.0.1");
+    private static final int PORT = DatabaseConfig.getInt("airline.api.port", 8080);
+    // Worker threads when the JVM has no virtual threads
+    private static final int THREADS = DatabaseConfig.getInt("airline.api.threads", 16);
+    private static final int DEFAULT_REPORT_LIMIT = 10;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Bind the server; call start() to begin serving
+     */
+    public ApiServer(String host, int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stop accepting requests, giving running ones up to a second to finish
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    public static void main(String[] args) throws IOException {
+        ApiServer api = new ApiServer(HOST, PORT);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            api.stop();
+            DBConnection.closeConnection();
+        }, "api-server-shutdown"));
+        api.start();
+        System.out.println("Airline API listening on http://" + HOST + ":" + api.getAddress().getPort() + "/api/");
+    }
+
+    /**
+     * Virtual thread per request where the JVM has them, otherwise a fixed worker pool
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newFixedThreadPool(THREADS, r -> {
+                Thread t = new Thread(r, "api-worker-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /**
+     * Request failure carrying the HTTP status to answer with
+     */
+    private static class ApiException extends Exception {
+        private final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Route a request and write its JSON response
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String[] path = exchange.getRequestURI().getPath().replaceAll("/+$", "").split("/");
+            // path[0] is empty and path[1] is "api"
+            if (path.length < 3) {
+                throw new ApiException(404, "Not found");
+            }
+            Object body;
+            switch (path[2]) {
+                case "flights":
+                    body = handleFlights(exchange, path);
+                    break;
+                case "connections":
+                    body = handleConnections(exchange, path);
+                    break;
+                case "bookings":
+                    body = handleBookings(exchange, path);
+                    break;
+                case "reports":
+                    body = handleReports(exchange, path);
+                    break;
+                default:
+                    throw new ApiException(404, "Not found");
+            }
+            send(exchange, exchange.getRequestMethod().equals("POST") ? 201 : 200, body);
+        } catch (ApiException e) {
+            if (e.status == 401) {
+                exchange.getResponseHeaders().set("WWW-Authenticate", "Basic realm=\"airline\"");
+            }
+            send(exchange, e.status, Map.of("error", e.getMessage()));
+        } catch (SQLException e) {
+            System.err.println("API database error: " + e.getMessage());
+            send(exchange, 500, Map.of("error", "Database error"));
+        } catch (RuntimeException e) {
+            System.err.println("API error: " + e);
+            send(exchange, 500, Map.of("error", "Internal error"));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Object handleFlights(HttpExchange exchange, String[] path) throws ApiException, SQLException, IOException {
+        FlightService flights = FlightService.getInstance();
+        String method = exchange.getRequestMethod();
+        if (path.length == 3) {
+            if (method.equals("GET")) {
+                Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+                String source = query.get("source");
+                String destination = query.get("destination");
+                if (source == null || destination == null) {
+                    return flightList(flights.getActiveFlights());
+                }
+                LocalDateTime from = parseDate(query.get("date"));
+                return flightList(flights.search(source, destination, from, from == null ? null : from.plusDays(1)));
+            }
+            if (method.equals("POST")) {
+                requireAdmin(exchange);
+                Flight flight = readFlight(parseQuery(readBody(exchange)), 0);
+                if (!flights.addFlight(flight)) {
+                    throw new ApiException(409, "Flight could not be added");
+                }
+                return Map.of("added", true);
+            }
+            throw new ApiException(405, "Method not allowed");
+        }
+        if (path.length != 4) {
+            throw new ApiException(404, "Not found");
+        }
+
+        int flightId = parseId(path[3]);
+        switch (method) {
+            case "GET": {
+                Flight flight = flights.findById(flightId);
+                if (flight == null) {
+                    throw new ApiException(404, "Flight not found");
+                }
+                return flightJson(flight);
+            }
+            case "PUT":
+                requireAdmin(exchange);
+                if (!flights.updateFlight(readFlight(parseQuery(readBody(exchange)), flightId))) {
+                    throw new ApiException(404, "Flight not found");
+                }
+                return Map.of("updated", true);
+            case "DELETE":
+                requireAdmin(exchange);
+                if (!flights.deleteFlight(flightId)) {
+                    throw new ApiException(404, "Flight not found");
+                }
+                return Map.of("deleted", true);
+            default:
+                throw new ApiException(405, "Method not allowed");
+        }
+    }
+
+    private Object handleConnections(HttpExchange exchange, String[] path) throws ApiException {
+        if (path.length != 3) {
+            throw new ApiException(404, "Not found");
+        }
+        requireMethod(exchange, "GET");
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String source = required(query, "source");
+        String destination = required(query, "destination");
+        LocalDateTime from = parseDate(query.get("date"));
+        List<Itinerary> itineraries = FlightService.getInstance().searchConnections(source, destination,
+                from, from == null ? null : from.plusDays(1));
+
+        List<Object> result = new ArrayList<>();
+        for (Itinerary itinerary : itineraries) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("route", itinerary.getRoute());
+            json.put("connections", itinerary.getConnectionCount());
+            json.put("durationMinutes", itinerary.getTotalDuration().toMinutes());
+            json.put("totalPrice", itinerary.getTotalPrice());
+            json.put("legs", flightList(itinerary.getLegs()));
+            result.add(json);
+        }
+        return result;
+    }
+
+    private Object handleBookings(HttpExchange exchange, String[] path) throws ApiException, SQLException, IOException {
+        User user = authenticate(exchange);
+        BookingService bookings = BookingService.getInstance();
+        String method = exchange.getRequestMethod();
+
+        if (path.length == 4 && path[3].equals("group")) {
+            requireMethod(exchange, "POST");
+            return bookGroup(user, parseQuery(readBody(exchange)));
+        }
+        if (path.length == 4) {
+            requireMethod(exchange, "DELETE");
+            if (!bookings.cancel(user, parseId(path[3]))) {
+                throw new ApiException(404, "No confirmed booking with that id");
+            }
+            return Map.of("cancelled", true);
+        }
+        if (path.length != 3) {
+            throw new ApiException(404, "Not found");
+        }
+
+        if (method.equals("GET")) {
+            List<Object> result = new ArrayList<>();
+            for (Booking booking : bookings.getBookings(user)) {
+                result.add(bookingJson(booking));
+            }
+            return result;
+        }
+        requireMethod(exchange, "POST");
+
+        Map<String, String> form = parseQuery(readBody(exchange));
+        Flight flight = FlightService.getInstance().findById(parseId(required(form, "flightId")));
+        if (flight == null) {
+            throw new ApiException(404, "Flight not found");
+        }
+        SeatMap.Cabin cabin = parseEnum(SeatMap.Cabin.class, form.getOrDefault("cabin", "ECONOMY"), "cabin");
+        SeatMap.Preference preference = parseEnum(SeatMap.Preference.class,
+                form.getOrDefault("preference", "ANY"), "preference");
+
+        Booking booking = new Booking(user.getUserId(), flight.getFlightId(), required(form, "passengerName"),
+                null, BookingService.fare(flight, cabin));
+        String problem = BookingManager.validate(booking);
+        if (problem != null) {
+            throw new ApiException(400, problem);
+        }
+        BookingManager.Result result = bookings.book(user, booking, cabin, preference, null);
+        if (result == BookingManager.Result.SOLD_OUT) {
+            throw new ApiException(409, "Flight is sold out");
+        }
+        if (result != BookingManager.Result.CONFIRMED) {
+            throw new SQLException("Booking failed");
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("flightId", booking.getFlightId());
+        json.put("passengerName", booking.getPassengerName());
+        json.put("seatNumber", booking.getSeatNumber());
+        json.put("totalAmount", booking.getTotalAmount());
+        json.put("status", booking.getStatus());
+        return json;
+    }
+
+    /**
+     * Book every passenger listed in the form on one flight, all or none
+     */
+    private Object bookGroup(User user, Map<String, String> form) throws ApiException, SQLException {
+        Flight flight = FlightService.getInstance().findById(parseId(required(form, "flightId")));
+        if (flight == null) {
+            throw new ApiException(404, "Flight not found");
+        }
+        SeatMap.Cabin cabin = parseEnum(SeatMap.Cabin.class, form.getOrDefault("cabin", "ECONOMY"), "cabin");
+        double fare = BookingService.fare(flight, cabin);
+
+        List<Booking> group = new ArrayList<>();
+        for (String name : required(form, "passengerNames").split("\\R")) {
+            if (!name.isBlank()) {
+                Booking booking = new Booking(user.getUserId(), flight.getFlightId(), name.trim(), null, fare);
+                String problem = BookingManager.validate(booking);
+                if (problem != null) {
+                    throw new ApiException(400, problem);
+                }
+                group.add(booking);
+            }
+        }
+        if (group.size() > BookingService.MAX_GROUP_SIZE) {
+            throw new ApiException(400, "At most " + BookingService.MAX_GROUP_SIZE + " passengers per group");
+        }
+
+        BookingManager.Result result = BookingService.getInstance().bookGroup(user, group, cabin);
+        if (result == BookingManager.Result.SOLD_OUT) {
+            throw new ApiException(409, "Not enough " + cabin.getLabel() + " seats left for the group");
+        }
+        if (result != BookingManager.Result.CONFIRMED) {
+            throw new SQLException("Group booking failed");
+        }
+        List<Object> passengers = new ArrayList<>();
+        for (Booking booking : group) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("passengerName", booking.getPassengerName());
+            json.put("seatNumber", booking.getSeatNumber());
+            passengers.add(json);
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("flightId", flight.getFlightId());
+        json.put("cabin", cabin);
+        json.put("totalAmount", fare * group.size());
+        json.put("status", "CONFIRMED");
+        json.put("passengers", passengers);
+        return json;
+    }
+
+    private Object handleReports(HttpExchange exchange, String[] path) throws ApiException, SQLException {
+        requireAdmin(exchange);
+        requireMethod(exchange, "GET");
+        if (path.length != 4) {
+            throw new ApiException(404, "Not found");
+        }
+        String limitParam = parseQuery(exchange.getRequestURI().getRawQuery()).get("limit");
+        int limit = limitParam == null ? DEFAULT_REPORT_LIMIT : parseId(limitParam);
+        ReportService reports = ReportService.getInstance();
+
+        List<Object> result = new ArrayList<>();
+        switch (path[3]) {
+            case "revenue":
+            case "occupancy": {
+                boolean revenue = path[3].equals("revenue");
+                for (ReportAggregates.FlightTotals totals : revenue
+                        ? reports.getRevenueByFlight() : reports.getOccupancyByFlight()) {
+                    Map<String, Object> json = new LinkedHashMap<>();
+                    json.put("flightNumber", totals.getFlightNumber());
+                    json.put("confirmedBookings", totals.getConfirmedBookings());
+                    json.put("revenue", totals.getRevenue());
+                    json.put("occupancyPercent", totals.getOccupancyPercent());
+                    result.add(json);
+                }
+                break;
+            }
+            case "routes":
+                for (ReportAggregates.RouteTotals totals : reports.getTopRoutes(limit)) {
+                    Map<String, Object> json = new LinkedHashMap<>();
+                    json.put("source", totals.getSource());
+                    json.put("destination", totals.getDestination());
+                    json.put("confirmedBookings", totals.getConfirmedBookings());
+                    result.add(json);
+                }
+                break;
+            case "customers":
+                for (ReportAggregates.CustomerTotals totals : reports.getTopCustomers(limit)) {
+                    Map<String, Object> json = new LinkedHashMap<>();
+                    json.put("email", totals.getEmail());
+                    json.put("totalBookings", totals.getTotalBookings());
+                    json.put("totalSpent", totals.getTotalSpent());
+                    result.add(json);
+                }
+                break;
+            default:
+                throw new ApiException(404, "Unknown report");
+        }
+        return result;
+    }
+
+    /**
+     * Check the request's HTTP Basic credentials
+     * @return the authenticated user
+     */
+    private static User authenticate(HttpExchange exchange) throws ApiException, SQLException {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.regionMatches(true, 0, "Basic ", 0, 6)) {
+            throw new ApiException(401, "Authentication required");
+        }
+        String credentials;
+        try {
+            credentials = new String(Base64.getDecoder().decode(header.substring(6).trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(401, "Malformed credentials");
+        }
+        int colon = credentials.indexOf(':');
+        if (colon < 0) {
+            throw new ApiException(401, "Malformed credentials");
+        }
+        User user = UserService.getInstance().authenticate(credentials.substring(0, colon),
+                credentials.substring(colon + 1));
+        if (user == null) {
+            throw new ApiException(401, "Invalid email or password");
+        }
+        return user;
+    }
+
+    private static User requireAdmin(HttpExchange exchange) throws ApiException, SQLException {
+        User user = authenticate(exchange);
+        if (!"admin".equals(user.getRole())) {
+            throw new ApiException(403, "Admin access required");
+        }
+        return user;
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) throws ApiException {
+        if (!exchange.getRequestMethod().equals(method)) {
+            throw new ApiException(405, "Method not allowed");
+        }
+    }
+
+    /**
+     * Flight from form fields, in the same format the admin screen takes
+     */
+    private static Flight readFlight(Map<String, String> form, int flightId) throws ApiException {
+        try {
+            Flight flight = new Flight();
+            flight.setFlightId(flightId);
+            flight.setFlightNumber(required(form, "flightNumber"));
+            flight.setAirline(required(form, "airline"));
+            flight.setSource(required(form, "source"));
+            flight.setDestination(required(form, "destination"));
+            flight.setDepartureTime(LocalDateTime.parse(required(form, "departureTime")));
+            flight.setArrivalTime(LocalDateTime.parse(required(form, "arrivalTime")));
+            flight.setPrice(Double.parseDouble(required(form, "price")));
+            flight.setTotalSeats(Integer.parseInt(required(form, "totalSeats")));
+            if (!flight.getArrivalTime().isAfter(flight.getDepartureTime())
+                    || flight.getPrice() <= 0 || flight.getTotalSeats() <= 0) {
+                throw new ApiException(400, "Arrival must follow departure; price and seats must be positive");
+            }
+            return flight;
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new ApiException(400, "Invalid flight details: " + e.getMessage());
+        }
+    }
+
+    private static List<Object> flightList(List<Flight> flights) {
+        List<Object> result = new ArrayList<>(flights.size());
+        for (Flight flight : flights) {
+            result.add(flightJson(flight));
+        }
+        return result;
+    }
+
+    private static Map<String, Object> flightJson(Flight flight) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("flightId", flight.getFlightId());
+        json.put("flightNumber", flight.getFlightNumber());
+        json.put("airline", flight.getAirline());
+        json.put("source", flight.getSource());
+        json.put("destination", flight.getDestination());
+        json.put("departureTime", flight.getDepartureTime());
+        json.put("arrivalTime", flight.getArrivalTime());
+        json.put("price", flight.getPrice());
+        json.put("totalSeats", flight.getTotalSeats());
+        // Live count, including seats sold since the route index was loaded
+        json.put("availableSeats", FlightService.getInstance().getAvailableSeats(flight.getFlightId()));
+        return json;
+    }
+
+    private static Map<String, Object> bookingJson(Booking booking) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("bookingId", booking.getBookingId());
+        json.put("reference", booking.getBookingReference());
+        json.put("flightId", booking.getFlightId());
+        json.put("flightNumber", booking.getFlightNumber());
+        json.put("airline", booking.getAirline());
+        json.put("source", booking.getSource());
+        json.put("destination", booking.getDestination());
+        json.put("departureTime", booking.getDepartureTime());
+        json.put("passengerName", booking.getPassengerName());
+        json.put("seatNumber", booking.getSeatNumber());
+        json.put("totalAmount", booking.getTotalAmount());
+        json.put("bookingDate", booking.getBookingDate());
+        json.put("status", booking.getStatus());
+        return json;
+    }
+
+    /**
+     * Decode a query string or form body into its parameters
+     */
+    private static Map<String, String> parseQuery(String raw) {
+        Map<String, String> params = new HashMap<>();
+        if (raw == null || raw.isEmpty()) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String required(Map<String, String> params, String name) throws ApiException {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) {
+            throw new ApiException(400, "Missing parameter: " + name);
+        }
+        return value.trim();
+    }
+
+    private static int parseId(String value) throws ApiException {
+        try {
+            int id = Integer.parseInt(value);
+            if (id <= 0) {
+                throw new ApiException(400, "Expected a positive number: " + value);
+            }
+            return id;
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Expected a positive number: " + value);
+        }
+    }
+
+    /**
+     * Start of a yyyy-MM-dd day, or null if no date was given
+     */
+    private static LocalDateTime parseDate(String value) throws ApiException {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value.trim()).atStartOfDay();
+        } catch (DateTimeParseException e) {
+            throw new ApiException(400, "Expected a yyyy-MM-dd date: " + value);
+        }
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String name) throws ApiException {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "Invalid " + name + ": " + value);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package service;
+
+import model.Booking;
+import model.Flight;
+import model.User;
+import utils.BookingManager;
+import utils.DBConnection;
+import utils.DatabaseConfig;
+import utils.SeatHoldManager;
+import utils.SeatMap;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Booking operations for Airline Reservation System
+ * Seat holds, bookings and cancellations go through the seat inventory via
+ * BookingManager; used by the Swing screens and the HTTP API alike
+ */
+public class BookingService {
+
+    private static final String CUSTOMER_BOOKINGS_QUERY =
+            "SELECT b.booking_id, b.user_id, b.flight_id, b.passenger_name, b.seat_number, b.total_amount, " +
+            "b.booking_date, b.status, f.flight_number, f.airline, f.source, f.destination, f.departure_time " +
+            "FROM bookings b JOIN flights f ON b.flight_id = f.flight_id " +
+            "WHERE b.user_id = ? ORDER BY b.booking_date DESC";
+    private static final String BOOKING_OWNER_QUERY = "SELECT user_id FROM bookings WHERE booking_id = ?";
+
+    // Largest group booked in one go (airline.booking.maxGroupSize)
+    public static final int MAX_GROUP_SIZE = DatabaseConfig.getInt("airline.booking.maxGroupSize", 100);
+
+    private static final BookingService INSTANCE = new BookingService();
+
+    // When each customer last booked or cancelled, so their history is read from the
+    // primary until the read replicas are sure to have the change
+    private final ConcurrentHashMap<Integer, Long> lastWriteMillis = new ConcurrentHashMap<>();
+
+    private BookingService() {
+    }
+
+    /**
+     * Get the shared booking service
+     */
+    public static BookingService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Price of one seat on a flight: Business costs 1.5 times and First Class twice the base fare
+     */
+    public static double fare(Flight flight, SeatMap.Cabin cabin) {
+        switch (cabin) {
+            case BUSINESS:
+                return flight.getPrice() * 1.5;
+            case FIRST:
+                return flight.getPrice() * 2.0;
+            default:
+                return flight.getPrice();
+        }
+    }
+
+    /**
+     * Hold a seat while the customer completes the booking
+     * @return the hold, or null if the flight has no seat left
+     */
+    public SeatHoldManager.SeatHold hold(int flightId) {
+        return SeatHoldManager.getInstance().hold(flightId);
+    }
+
+    /**
+     * Check whether a hold is still active
+     */
+    public boolean isActive(SeatHoldManager.SeatHold hold) {
+        return SeatHoldManager.getInstance().isActive(hold);
+    }
+
+    /**
+     * Give a held seat back; does nothing if the hold was used or has expired
+     */
+    public void releaseHold(SeatHoldManager.SeatHold hold) {
+        SeatHoldManager.getInstance().release(hold);
+    }
+
+    /**
+     * Book one seat for a customer; on success the booking's seat number and status are filled in
+     * @param hold Seat hold taken when the flight was selected, or null
+     * @return CONFIRMED, SOLD_OUT if no seat was left, or FAILED on error
+     */
+    public BookingManager.Result book(User customer, Booking booking, SeatMap.Cabin cabin,
+                                      SeatMap.Preference preference, SeatHoldManager.SeatHold hold) {
+        // Seat reservation, seat assignment and booking insert succeed or are undone together
+        BookingManager.Result result = BookingManager.bookSeat(customer, booking, cabin, preference, hold);
+        if (result == BookingManager.Result.CONFIRMED) {
+            wrote(customer);
+        }
+        return result;
+    }
+
+    /**
+     * Book a group of passengers on one flight together; either all are booked or none
+     * On success each booking's seat number and status are filled in
+     * @return CONFIRMED, SOLD_OUT if the cabin can't seat the whole group, or FAILED on error
+     */
+    public BookingManager.Result bookGroup(User customer, List<Booking> bookings, SeatMap.Cabin cabin) {
+        if (bookings.size() > MAX_GROUP_SIZE) {
+            System.err.println("Error creating group booking: more than " + MAX_GROUP_SIZE + " passengers");
+            return BookingManager.Result.FAILED;
+        }
+        BookingManager.Result result = BookingManager.bookGroup(customer, bookings, cabin);
+        if (result == BookingManager.Result.CONFIRMED) {
+            wrote(customer);
+        }
+        return result;
+    }
+
+    /**
+     * Cancel a confirmed booking and release its seat
+     * @return true if the booking was cancelled
+     */
+    public boolean cancel(int bookingId) {
+        return BookingManager.cancelBooking(bookingId);
+    }
+
+    /**
+     * Cancel a confirmed booking on behalf of a customer, who must own it
+     * @return true if the booking was the customer's and was cancelled
+     */
+    public boolean cancel(User customer, int bookingId) throws SQLException {
+        try (ResultSet rs = DBConnection.executeQuery(BOOKING_OWNER_QUERY, bookingId)) {
+            if (rs == null) {
+                throw new SQLException("Database connection unavailable");
+            }
+            if (!rs.next() || rs.getInt("user_id") != customer.getUserId()) {
+                return false;
+            }
+        }
+        if (!cancel(bookingId)) {
+            return false;
+        }
+        wrote(customer);
+        return true;
+    }
+
+    /**
+     * Note that a customer just changed their bookings
+     */
+    private void wrote(User customer) {
+        lastWriteMillis.put(customer.getUserId(), System.currentTimeMillis());
+    }
+
+    /**
+     * A customer's bookings, newest first, with their flight details
+     */
+    public List<Booking> getBookings(User customer) throws SQLException {
+        List<Booking> bookings = new ArrayList<>();
+        long writtenAt = lastWriteMillis.getOrDefault(customer.getUserId(), 0L);
+        try (ResultSet rs = DBConnection.executeReadQueryAfterWrite(writtenAt, CUSTOMER_BOOKINGS_QUERY,
+                customer.getUserId())) {
+            if (rs == null) {
+                throw new SQLException("Database connection unavailable");
+            }
+            while (rs.next()) {
+                Booking booking = new Booking(rs.getInt("user_id"), rs.getInt("flight_id"),
+                        rs.getString("passenger_name"), rs.getString("seat_number"), rs.getDouble("total_amount"));
+                booking.setBookingId(rs.getInt("booking_id"));
+                booking.setStatus(rs.getString("status"));
+                Timestamp bookingDate = rs.getTimestamp("booking_date");
+                if (bookingDate != null) {
+                    booking.setBookingDate(bookingDate.toLocalDateTime());
+                }
+                booking.setFlightNumber(rs.getString("flight_number"));
+                booking.setAirline(rs.getString("airline"));
+                booking.setSource(rs.getString("source"));
+                booking.setDestination(rs.getString("destination"));
+                booking.setDepartureTime(rs.getTimestamp("departure_time").toLocalDateTime());
+                bookings.add(booking);
+            }
+        }
+        return bookings;
+    }
+}
@@ -0,0 +1,187 @@
+package service;
+
+import model.Flight;
+import model.Itinerary;
+import utils.ConnectionSearch;
+import utils.DBConnection;
+import utils.ReportAggregates;
+import utils.RouteIndex;
+import utils.ScheduleImporter;
+import utils.SeatInventory;
+import utils.SeatMap;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Flight operations for Airline Reservation System
+ * Searches are answered from the in-memory route index and seat inventory;
+ * flight changes are written to the database and then invalidate those caches.
+ * Used by the Swing screens and the HTTP API alike
+ */
+public class FlightService {
+
+    // Limits for connecting itineraries shown when there is no direct flight
+    public static final int MAX_CONNECTION_LEGS = 3;
+    public static final int MAX_CONNECTION_RESULTS = 5;
+
+    private static final String ALL_FLIGHTS_QUERY = "SELECT * FROM flights ORDER BY flight_id";
+    private static final String INSERT_FLIGHT_QUERY =
+            "INSERT INTO flights (flight_number, airline, source, destination, departure_time, arrival_time, " +
+            "price, total_seats, available_seats, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 'ACTIVE')";
+    private static final String UPDATE_FLIGHT_QUERY =
+            "UPDATE flights SET flight_number=?, airline=?, source=?, destination=?, departure_time=?, " +
+            "arrival_time=?, price=?, total_seats=? WHERE flight_id=?";
+    private static final String DELETE_FLIGHT_QUERY = "DELETE FROM flights WHERE flight_id = ?";
+
+    private static final FlightService INSTANCE = new FlightService();
+
+    private FlightService() {
+    }
+
+    /**
+     * Get the shared flight service
+     */
+    public static FlightService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Active flights on a route departing in a window, with at least one seat left
+     * @param from Start of the window (inclusive), or null for no lower bound
+     * @param to End of the window (exclusive), or null for no upper bound
+     */
+    public List<Flight> search(String source, String destination, LocalDateTime from, LocalDateTime to) {
+        return RouteIndex.getInstance().search(source, destination, from, to);
+    }
+
+    /**
+     * Connecting itineraries whose first leg departs in a window, shortest first
+     * @param from Earliest departure of the first leg
+     * @param to End of the window (exclusive), or null for no limit
+     */
+    public List<Itinerary> searchConnections(String source, String destination, LocalDateTime from, LocalDateTime to) {
+        return new ConnectionSearch().search(source, destination, from, to == null ? null : to.minusNanos(1),
+                MAX_CONNECTION_LEGS, ConnectionSearch.SortOrder.DURATION, MAX_CONNECTION_RESULTS);
+    }
+
+    /**
+     * All active flights, ordered by departure time
+     */
+    public List<Flight> getActiveFlights() {
+        return RouteIndex.getInstance().getActiveFlights();
+    }
+
+    /**
+     * Active flight by id, or null if there is none
+     */
+    public Flight findById(int flightId) {
+        return RouteIndex.getInstance().findById(flightId);
+    }
+
+    /**
+     * Active flight by flight number, or null if there is none
+     */
+    public Flight findByFlightNumber(String flightNumber) {
+        return RouteIndex.getInstance().findByFlightNumber(flightNumber);
+    }
+
+    /**
+     * Seats currently left on a flight, as known to the in-memory inventory
+     */
+    public int getAvailableSeats(int flightId) {
+        return SeatInventory.getInstance().getAvailableSeats(flightId);
+    }
+
+    /**
+     * Every flight whatever its status, ordered by id, for the admin screens
+     */
+    public List<Flight> getAllFlights() throws SQLException {
+        List<Flight> flights = new ArrayList<>();
+        try (ResultSet rs = DBConnection.executeQuery(ALL_FLIGHTS_QUERY)) {
+            if (rs == null) {
+                throw new SQLException("Database connection unavailable");
+            }
+            while (rs.next()) {
+                flights.add(RouteIndex.readFlight(rs));
+            }
+        }
+        return flights;
+    }
+
+    /**
+     * Add an active flight with every seat available
+     * @return true if the flight was added
+     */
+    public boolean addFlight(Flight flight) {
+        int result = DBConnection.executeUpdate(INSERT_FLIGHT_QUERY,
+                flight.getFlightNumber(), flight.getAirline(), flight.getSource(), flight.getDestination(),
+                Timestamp.valueOf(flight.getDepartureTime()), Timestamp.valueOf(flight.getArrivalTime()),
+                flight.getPrice(), flight.getTotalSeats(), flight.getTotalSeats());
+        if (result > 0) {
+            RouteIndex.getInstance().invalidate();
+        }
+        return result > 0;
+    }
+
+    /**
+     * Update a flight's schedule, price and capacity
+     * @return true if the flight was updated
+     */
+    public boolean updateFlight(Flight flight) {
+        int flightId = flight.getFlightId();
+        int result = DBConnection.executeUpdate(UPDATE_FLIGHT_QUERY,
+                flight.getFlightNumber(), flight.getAirline(), flight.getSource(), flight.getDestination(),
+                Timestamp.valueOf(flight.getDepartureTime()), Timestamp.valueOf(flight.getArrivalTime()),
+                flight.getPrice(), flight.getTotalSeats(), flightId);
+        if (result > 0) {
+            SeatInventory.getInstance().refresh(flightId);
+            SeatMap.evict(flightId);
+            RouteIndex.getInstance().invalidate();
+        }
+        return result > 0;
+    }
+
+    /**
+     * Import a timetable file, adding new flights and updating existing ones by flight number
+     * @see ScheduleImporter
+     */
+    public ScheduleImporter.ImportResult importSchedule(Path file) throws IOException {
+        ScheduleImporter.ImportResult result = ScheduleImporter.importFile(file);
+        if (result.getRowsImported() > 0) {
+            SeatInventory.getInstance().seed();
+            SeatMap.evictAll();
+            RouteIndex.getInstance().invalidate();
+        }
+        return result;
+    }
+
+    /**
+     * Delete a flight and, through the foreign key, its bookings
+     * @return true if the flight was deleted
+     */
+    public boolean deleteFlight(int flightId) {
+        int result;
+        try {
+            // The flight's bookings leave the customer report totals along with it
+            result = DBConnection.executeInTransaction(conn -> {
+                ReportAggregates.recordFlightDeleted(conn, flightId);
+                return DBConnection.executeUpdate(conn, DELETE_FLIGHT_QUERY, flightId);
+            });
+        } catch (SQLException e) {
+            System.err.println("Error deleting flight: " + e.getMessage());
+            return false;
+        }
+        if (result > 0) {
+            SeatInventory.getInstance().evict(flightId);
+            SeatMap.evict(flightId);
+            RouteIndex.getInstance().invalidate();
+        }
+        return result > 0;
+    }
+}
@@ -0,0 +1,108 @@
+package service;
+
+import utils.DataExporter;
+import utils.ReportAggregates;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Admin reports for Airline Reservation System
+ * Reports are read from the report totals kept with every booking, and
+ * exports are streamed to files; used by the Swing screens and the HTTP API alike
+ */
+public class ReportService {
+
+    private static final ReportService INSTANCE = new ReportService();
+
+    private ReportService() {
+    }
+
+    /**
+     * Get the shared report service
+     */
+    public static ReportService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Flights with confirmed bookings, highest revenue first
+     */
+    public List<ReportAggregates.FlightTotals> getRevenueByFlight() throws SQLException {
+        return ReportAggregates.getRevenueByFlight();
+    }
+
+    /**
+     * All flights, most occupied first
+     */
+    public List<ReportAggregates.FlightTotals> getOccupancyByFlight() throws SQLException {
+        return ReportAggregates.getOccupancyByFlight();
+    }
+
+    /**
+     * Routes with the most confirmed bookings
+     */
+    public List<ReportAggregates.RouteTotals> getTopRoutes(int limit) throws SQLException {
+        return ReportAggregates.getTopRoutes(limit);
+    }
+
+    /**
+     * Customers who spent the most
+     */
+    public List<ReportAggregates.CustomerTotals> getTopCustomers(int limit) throws SQLException {
+        return ReportAggregates.getTopCustomers(limit);
+    }
+
+    /**
+     * Stream every booking to a CSV file
+     * @return Number of bookings written
+     */
+    public long exportBookings(Path file, boolean gzip) throws SQLException, IOException {
+        return DataExporter.exportBookings(file, gzip);
+    }
+
+    /**
+     * Write the four reports in full as CSV files in a directory
+     */
+    public void exportReports(Path dir, boolean gzip) throws SQLException, IOException {
+        List<Object[]> rows = new ArrayList<>();
+        for (ReportAggregates.FlightTotals flight : getRevenueByFlight()) {
+            rows.add(new Object[]{flight.getFlightNumber(), flight.getConfirmedBookings(),
+                    String.format("%.2f", flight.getRevenue())});
+        }
+        DataExporter.exportRows(exportPath(dir.resolve("revenue.csv"), gzip), gzip,
+                new String[]{"flight_number", "confirmed_bookings", "revenue"}, rows);
+
+        rows = new ArrayList<>();
+        for (ReportAggregates.FlightTotals flight : getOccupancyByFlight()) {
+            rows.add(new Object[]{flight.getFlightNumber(), flight.getOccupancyPercent()});
+        }
+        DataExporter.exportRows(exportPath(dir.resolve("occupancy.csv"), gzip), gzip,
+                new String[]{"flight_number", "occupancy_percent"}, rows);
+
+        rows = new ArrayList<>();
+        for (ReportAggregates.RouteTotals route : getTopRoutes(Integer.MAX_VALUE)) {
+            rows.add(new Object[]{route.getSource(), route.getDestination(), route.getConfirmedBookings()});
+        }
+        DataExporter.exportRows(exportPath(dir.resolve("routes.csv"), gzip), gzip,
+                new String[]{"source", "destination", "confirmed_bookings"}, rows);
+
+        rows = new ArrayList<>();
+        for (ReportAggregates.CustomerTotals customer : getTopCustomers(Integer.MAX_VALUE)) {
+            rows.add(new Object[]{customer.getEmail(), customer.getTotalBookings(),
+                    String.format("%.2f", customer.getTotalSpent())});
+        }
+        DataExporter.exportRows(exportPath(dir.resolve("customers.csv"), gzip), gzip,
+                new String[]{"email", "total_bookings", "total_spent"}, rows);
+    }
+
+    /**
+     * Add the .gz suffix to compressed exports
+     */
+    public static Path exportPath(Path file, boolean gzip) {
+        String name = file.getFileName().toString();
+        return gzip && !name.endsWith(".gz") ? file.resolveSibling(name + ".gz") : file;
+    }
+}
@@ -0,0 +1,50 @@
+package service;
+
+import model.User;
+import utils.DBConnection;
+import utils.UserDirectory;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * User accounts for Airline Reservation System
+ * Used by the login screen and to authenticate HTTP API requests
+ */
+public class UserService {
+
+    private static final String AUTHENTICATE_QUERY =
+            "SELECT user_id, name, email, role, phone, address FROM users WHERE email = ? AND password = ?";
+
+    private static final UserService INSTANCE = new UserService();
+
+    private UserService() {
+    }
+
+    /**
+     * Get the shared user service
+     */
+    public static UserService getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Check a user's credentials
+     * @return the user, or null if the email and password do not match
+     */
+    public User authenticate(String email, String password) throws SQLException {
+        try (ResultSet rs = DBConnection.executeQuery(AUTHENTICATE_QUERY, email, password)) {
+            if (rs == null) {
+                throw new SQLException("Database connection unavailable");
+            }
+            if (!rs.next()) {
+                return null;
+            }
+            User user = new User(rs.getInt("user_id"), rs.getString("name"), rs.getString("email"),
+                    null, rs.getString("role"));
+            user.setPhone(rs.getString("phone"));
+            user.setAddress(rs.getString("address"));
+            UserDirectory.put(user.getEmail(), user.getUserId());
+            return user;
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package tools;
+
+import model.Booking;
+import model.Flight;
+import utils.BookingManager;
+import utils.DBConnection;
+import utils.LatencyHistogram;
+import utils.RouteIndex;
+import utils.SeatHoldManager;
+import utils.SeatMap;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless booking load generator and soak test for Airline Reservation System
+ * Simulated customers pick flights, hold a seat, book it and sometimes cancel,
+ * going through the same SeatHoldManager and BookingManager calls as
+ * BookingForm and CustomerDashboard. At the end it reports throughput,
+ * latency histograms, deadlock retries and any oversold flights.
+ *
+ * Usage: java -cp <classpath> tools.LoadGenerator [--customers=1000] [--duration=60]
+ *            [--think-ms=500] [--cancel-ratio=0.1] [--skew=1.0]
+ *
+ * Each simulated customer runs on its own virtual thread on Java 21+, or on a
+ * platform thread before that. Size the connection pool for the load with
+ * -Dairline.pool.maxSize; customers wait for a free connection like real users would
+ */
+public class LoadGenerator {
+
+    private static final String CUSTOMER_EMAIL_FORMAT = "loadtest-%d@example.com";
+    private static final String CREATE_CUSTOMER_QUERY =
+            "INSERT IGNORE INTO users (name, email, password, role) VALUES (?, ?, 'loadtest', 'customer')";
+    // CustomerDashboard has the booking id from the customer's list; look it up the same way
+    private static final String FIND_BOOKING_QUERY =
+            "SELECT b.booking_id FROM bookings b JOIN users u ON b.user_id = u.user_id " +
+            "WHERE u.email = ? AND b.flight_id = ? AND b.seat_number = ? AND b.status = 'CONFIRMED'";
+    private static final String SEAT_CHECK_QUERY =
+            "SELECT f.flight_id, f.flight_number, f.total_seats, f.available_seats, " +
+            "COUNT(b.booking_id) AS confirmed, COUNT(DISTINCT b.seat_number) AS distinct_seats " +
+            "FROM flights f LEFT JOIN bookings b ON b.flight_id = f.flight_id AND b.status = 'CONFIRMED' " +
+            "GROUP BY f.flight_id, f.flight_number, f.total_seats, f.available_seats";
+
+    private static final long PROGRESS_INTERVAL_SECONDS = 5;
+
+    /**
+     * Command line options
+     */
+    private static final class Options {
+        int customers = 1000;
+        int durationSeconds = 60;
+        long thinkMillis = 500;
+        double cancelRatio = 0.1;
+        // Zipf exponent of route popularity; 0 spreads customers evenly over routes
+        double skew = 1.0;
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                String[] parts = arg.split("=", 2);
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Expected --name=value: " + arg);
+                }
+                switch (parts[0]) {
+                    case "--customers": options.customers = Integer.parseInt(parts[1]); break;
+                    case "--duration": options.durationSeconds = Integer.parseInt(parts[1]); break;
+                    case "--think-ms": options.thinkMillis = Long.parseLong(parts[1]); break;
+                    case "--cancel-ratio": options.cancelRatio = Double.parseDouble(parts[1]); break;
+                    case "--skew": options.skew = Double.parseDouble(parts[1]); break;
+                    default: throw new IllegalArgumentException("Unknown option: " + parts[0]);
+                }
+            }
+            return options;
+        }
+    }
+
+    /**
+     * Picks flights with Zipf-distributed route popularity, then uniformly within the route
+     */
+    private static final class FlightPicker {
+        private final List<List<Flight>> routes = new ArrayList<>();
+        private final double[] cumulativeWeights;
+
+        FlightPicker(List<Flight> flights, double skew) {
+            Map<String, List<Flight>> byRoute = new LinkedHashMap<>();
+            for (Flight flight : flights) {
+                byRoute.computeIfAbsent(flight.getSource() + " → " + flight.getDestination(),
+                        key -> new ArrayList<>()).add(flight);
+            }
+            routes.addAll(byRoute.values());
+            // Fixed seed, so the same routes are popular in every run
+            Collections.shuffle(routes, new Random(42));
+
+            cumulativeWeights = new double[routes.size()];
+            double total = 0;
+            for (int i = 0; i < routes.size(); i++) {
+                total += 1.0 / Math.pow(i + 1, skew);
+                cumulativeWeights[i] = total;
+            }
+        }
+
+        Flight pick(ThreadLocalRandom random) {
+            double target = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+            int index = Arrays.binarySearch(cumulativeWeights, target);
+            index = index >= 0 ? index : Math.min(-index - 1, routes.size() - 1);
+            List<Flight> route = routes.get(index);
+            return route.get(random.nextInt(route.size()));
+        }
+    }
+
+    private final Options options;
+    private final FlightPicker picker;
+
+    private final LatencyHistogram bookingLatency = new LatencyHistogram();
+    private final LatencyHistogram cancelLatency = new LatencyHistogram();
+    private final AtomicLong confirmed = new AtomicLong();
+    private final AtomicLong soldOut = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong cancelFailed = new AtomicLong();
+    private final Set<Integer> bookedFlights = ConcurrentHashMap.newKeySet();
+
+    private LoadGenerator(Options options, List<Flight> flights) {
+        this.options = options;
+        this.picker = new FlightPicker(flights, options.skew);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: tools.LoadGenerator [--customers=N] [--duration=SECONDS] "
+                    + "[--think-ms=MILLIS] [--cancel-ratio=0..1] [--skew=ZIPF_EXPONENT]");
+            System.exit(2);
+            return;
+        }
+
+        List<Flight> flights = RouteIndex.getInstance().getActiveFlights();
+        if (flights.isEmpty()) {
+            System.err.println("No active flights to book; is the database reachable?");
+            System.exit(1);
+        }
+        createCustomers(options.customers);
+
+        new LoadGenerator(options, flights).run();
+        DBConnection.closeConnection();
+        System.exit(0);
+    }
+
+    /**
+     * Make sure every simulated customer has an account
+     */
+    private static void createCustomers(int customers) throws SQLException {
+        DBConnection.executeInTransaction(conn -> {
+            for (int i = 1; i <= customers; i++) {
+                DBConnection.executeUpdate(conn, CREATE_CUSTOMER_QUERY, "Load Test " + i, customerEmail(i));
+            }
+            return null;
+        });
+    }
+
+    private static String customerEmail(int customer) {
+        return String.format(CUSTOMER_EMAIL_FORMAT, customer);
+    }
+
+    private void run() throws InterruptedException, SQLException {
+        System.out.printf("Load test: %d customers for %ds, think time %dms, cancel ratio %.2f, route skew %.2f%n",
+                options.customers, options.durationSeconds, options.thinkMillis, options.cancelRatio, options.skew);
+
+        Map<Integer, Integer> driftBefore = readSeatDrift();
+        long retriesBefore = DBConnection.getTransactionRetries();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "load-progress");
+            t.setDaemon(true);
+            return t;
+        });
+        progress.scheduleAtFixedRate(() -> printProgress(start), PROGRESS_INTERVAL_SECONDS,
+                PROGRESS_INTERVAL_SECONDS, TimeUnit.SECONDS);
+
+        ExecutorService customers = newCustomerExecutor();
+        for (int i = 1; i <= options.customers; i++) {
+            String email = customerEmail(i);
+            customers.execute(() -> simulateCustomer(email, deadline));
+        }
+        customers.shutdown();
+        if (!customers.awaitTermination(options.durationSeconds + 60L, TimeUnit.SECONDS)) {
+            System.err.println("Some customers did not finish in time; stopping them");
+            customers.shutdownNow();
+        }
+        progress.shutdownNow();
+
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        long retries = DBConnection.getTransactionRetries() - retriesBefore;
+
+        printReport(elapsedSeconds, retries, driftBefore);
+    }
+
+    /**
+     * One customer's session: pick a flight, hold a seat, book it, maybe cancel, repeat
+     */
+    private void simulateCustomer(String email, long deadline) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        SeatHoldManager holds = SeatHoldManager.getInstance();
+        try {
+            while (System.nanoTime() < deadline) {
+                think(random);
+                Flight flight = picker.pick(random);
+
+                // Selecting a flight in BookingForm holds a seat while the customer fills in the form
+                SeatHoldManager.SeatHold hold = holds.hold(flight.getFlightId());
+                if (hold == null) {
+                    soldOut.incrementAndGet();
+                    continue;
+                }
+                Booking booking = new Booking(0, flight.getFlightId(), "Load Test Passenger", null, flight.getPrice());
+                BookingManager.Result result;
+                try {
+                    think(random);
+                    long started = System.nanoTime();
+                    result = BookingManager.bookSeat(email, booking, randomCabin(random), SeatMap.Preference.ANY, hold);
+                    bookingLatency.record(System.nanoTime() - started);
+                } finally {
+                    holds.release(hold); // No-op once the booking used it
+                }
+
+                switch (result) {
+                    case CONFIRMED:
+                        confirmed.incrementAndGet();
+                        bookedFlights.add(flight.getFlightId());
+                        break;
+                    case SOLD_OUT:
+                        soldOut.incrementAndGet();
+                        break;
+                    default:
+                        failed.incrementAndGet();
+                        break;
+                }
+
+                if (result == BookingManager.Result.CONFIRMED && random.nextDouble() < options.cancelRatio) {
+                    think(random);
+                    cancel(email, booking);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            System.err.println("Simulated customer " + email + " failed: " + e.getMessage());
+        }
+    }
+
+    private void cancel(String email, Booking booking) {
+        Integer bookingId = null;
+        try (ResultSet rs = DBConnection.executeQuery(FIND_BOOKING_QUERY, email, booking.getFlightId(),
+                booking.getSeatNumber())) {
+            if (rs != null && rs.next()) {
+                bookingId = rs.getInt("booking_id");
+            }
+        } catch (SQLException e) {
+            System.err.println("Error finding booking to cancel: " + e.getMessage());
+        }
+        if (bookingId == null) {
+            cancelFailed.incrementAndGet();
+            return;
+        }
+
+        long started = System.nanoTime();
+        boolean ok = BookingManager.cancelBooking(bookingId);
+        cancelLatency.record(System.nanoTime() - started);
+        if (ok) {
+            cancelled.incrementAndGet();
+        } else {
+            cancelFailed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Pause like a customer reading the screen, exponentially distributed around the mean
+     */
+    private void think(ThreadLocalRandom random) throws InterruptedException {
+        if (options.thinkMillis > 0) {
+            Thread.sleep((long) (-options.thinkMillis * Math.log(1 - random.nextDouble())));
+        }
+    }
+
+    /**
+     * Cabin mix roughly matching the seat map: mostly Economy
+     */
+    private static SeatMap.Cabin randomCabin(ThreadLocalRandom random) {
+        int roll = random.nextInt(100);
+        return roll < 5 ? SeatMap.Cabin.FIRST : roll < 20 ? SeatMap.Cabin.BUSINESS : SeatMap.Cabin.ECONOMY;
+    }
+
+    /**
+     * Virtual thread per customer where the JVM has them, otherwise a platform thread per customer
+     */
+    private static ExecutorService newCustomerExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "load-customer-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    private void printProgress(long start) {
+        long elapsed = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+        System.out.printf("[%4ds] bookings %d (%.1f/s), sold out %d, failed %d, cancelled %d, p99 %.1fms%n",
+                elapsed, confirmed.get(), confirmed.get() / (double) elapsed, soldOut.get(), failed.get(),
+                cancelled.get(), bookingLatency.getPercentileMillis(99));
+    }
+
+    private void printReport(double elapsedSeconds, long retries, Map<Integer, Integer> driftBefore) throws SQLException {
+        System.out.println();
+        System.out.println("=== Load Test Report ===");
+        System.out.printf("Duration: %.1fs%n", elapsedSeconds);
+        System.out.printf("Bookings: %d confirmed (%.1f/s), %d sold out, %d failed%n",
+                confirmed.get(), confirmed.get() / elapsedSeconds, soldOut.get(), failed.get());
+        System.out.printf("Cancellations: %d (%.1f/s), %d failed%n",
+                cancelled.get(), cancelled.get() / elapsedSeconds, cancelFailed.get());
+        System.out.println("Deadlock/lock-timeout retries: " + retries);
+        printLatency("Booking latency", bookingLatency);
+        printLatency("Cancellation latency", cancelLatency);
+        checkSeats(driftBefore);
+    }
+
+    private static void printLatency(String title, LatencyHistogram histogram) {
+        System.out.printf("%s: n=%d mean %.2fms p50 %.2fms p90 %.2fms p99 %.2fms p99.9 %.2fms max %.2fms%n",
+                title, histogram.getCount(), histogram.getMeanMillis(), histogram.getPercentileMillis(50),
+                histogram.getPercentileMillis(90), histogram.getPercentileMillis(99),
+                histogram.getPercentileMillis(99.9), histogram.getMaxMillis());
+        System.out.print(histogram.format());
+    }
+
+    /**
+     * Per flight, how far available_seats is from what the confirmed bookings leave;
+     * sample data may start out of step, so the check only flags changes during the run
+     */
+    private static Map<Integer, Integer> readSeatDrift() throws SQLException {
+        Map<Integer, Integer> drift = new HashMap<>();
+        try (ResultSet rs = DBConnection.executeQuery(SEAT_CHECK_QUERY)) {
+            if (rs == null) {
+                throw new SQLException("Database connection unavailable");
+            }
+            while (rs.next()) {
+                drift.put(rs.getInt("flight_id"),
+                        rs.getInt("available_seats") - (rs.getInt("total_seats") - rs.getInt("confirmed")));
+            }
+        }
+        return drift;
+    }
+
+    /**
+     * Compare confirmed bookings with each booked flight's seats: more bookings than
+     * seats, two bookings on one seat, or a seat count that drifted from the bookings
+     */
+    private void checkSeats(Map<Integer, Integer> driftBefore) throws SQLException {
+        long oversold = 0;
+        long doubleBooked = 0;
+        int drifted = 0;
+        try (ResultSet rs = DBConnection.executeQuery(SEAT_CHECK_QUERY)) {
+            if (rs == null) {
+                throw new SQLException("Database connection unavailable");
+            }
+            while (rs.next()) {
+                int flightId = rs.getInt("flight_id");
+                if (!bookedFlights.contains(flightId)) {
+                    continue;
+                }
+                int totalSeats = rs.getInt("total_seats");
+                int bookings = rs.getInt("confirmed");
+                oversold += Math.max(0, bookings - totalSeats);
+                doubleBooked += bookings - rs.getInt("distinct_seats");
+                int drift = rs.getInt("available_seats") - (totalSeats - bookings);
+                if (drift != driftBefore.getOrDefault(flightId, 0)) {
+                    drifted++;
+                    System.out.println("Seat count drift on " + rs.getString("flight_number") + ": "
+                            + rs.getInt("available_seats") + " available, " + (totalSeats - bookings)
+                            + " left by confirmed bookings");
+                }
+            }
+        }
+        System.out.println("Oversold seats: " + oversold);
+        System.out.println("Double-booked seats: " + doubleBooked);
+        System.out.println("Flights with seat count drift: " + drifted);
+    }
+}
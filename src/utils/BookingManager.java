@@ -0,0 +1,372 @@
+package utils;
+
+import model.Booking;
+import model.User;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Booking transaction utility for Airline Reservation System
+ * The in-memory SeatInventory turns away bookings on flights it knows are sold
+ * out; otherwise seats are taken with a conditional decrement of the flight's
+ * available seats in the same transaction as the booking insert, so separate
+ * application instances can't oversell a flight. The insert also claims the
+ * seat numbers under the bookings table's unique active-seat key; if another
+ * instance booked one of them first the booking moves to another seat before
+ * it is confirmed
+ */
+public class BookingManager {
+
+    /**
+     * Outcome of a booking attempt
+     */
+    public enum Result {
+        CONFIRMED,
+        SOLD_OUT,
+        FAILED
+    }
+
+    // Column sizes in the bookings table
+    public static final int MAX_PASSENGER_NAME_LENGTH = 100;
+    private static final double MAX_TOTAL_AMOUNT = 99_999_999.99;
+
+    // Attempts at inserting a booking whose seats other instances keep booking first
+    private static final int MAX_SEAT_ATTEMPTS = 3;
+
+    // Take the seats first: the conditional decrement locks the flight row and
+    // refuses the booking once too few seats remain, whichever instance sold them
+    private static final String RESERVE_SEATS_QUERY =
+            "UPDATE flights SET available_seats = available_seats - ? " +
+            "WHERE flight_id = ? AND status = 'ACTIVE' AND available_seats >= ?";
+    private static final String RETURN_SEATS_QUERY =
+            "UPDATE flights SET available_seats = LEAST(total_seats, available_seats + ?) WHERE flight_id = ?";
+
+    // The customer's id is resolved at login or from UserDirectory, so the insert needs no users lookup
+    private static final String INSERT_BOOKING_QUERY =
+            "INSERT INTO bookings (user_id, flight_id, passenger_name, seat_number, total_amount, status) " +
+            "VALUES (?, ?, ?, ?, ?, 'CONFIRMED')";
+
+    // Lock the booking so two cancellations can't both release its seat.
+    // The customer's email comes from a subquery, which reads users without locking it
+    private static final String FIND_CONFIRMED_BOOKING_QUERY =
+            "SELECT b.flight_id, b.seat_number, b.total_amount, " +
+            "(SELECT u.email FROM users u WHERE u.user_id = b.user_id) AS email " +
+            "FROM bookings b WHERE b.booking_id = ? AND b.status = 'CONFIRMED' FOR UPDATE";
+    private static final String CANCEL_BOOKING_QUERY =
+            "UPDATE bookings SET status = 'CANCELLED' WHERE booking_id = ?";
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private BookingManager() {
+    }
+
+    /**
+     * Check a booking's passenger name and amount before it is written, so the
+     * customer gets a clear message instead of a database error
+     * @return a message for the user, or null if the booking is valid
+     */
+    public static String validate(Booking booking) {
+        String name = booking.getPassengerName();
+        if (name == null || name.trim().isEmpty()) {
+            return "Please enter passenger name.";
+        }
+        if (name.length() > MAX_PASSENGER_NAME_LENGTH) {
+            return "Passenger name must be at most " + MAX_PASSENGER_NAME_LENGTH + " characters.";
+        }
+        double amount = booking.getTotalAmount();
+        if (!(amount > 0 && amount <= MAX_TOTAL_AMOUNT)) {
+            return "Invalid booking amount: " + amount;
+        }
+        return null;
+    }
+
+    /**
+     * Book one seat on a flight, assigning a seat in the requested cabin
+     * On success the booking's seat number and status are filled in
+     * @param customerEmail Email of the booking customer
+     * @param booking Flight, passenger name and amount to book
+     * @param cabin Cabin class to seat the passenger in
+     * @param preference Preferred seat position
+     * @return CONFIRMED, SOLD_OUT if no seat was left, or FAILED on error
+     */
+    public static Result bookSeat(String customerEmail, Booking booking,
+                                  SeatMap.Cabin cabin, SeatMap.Preference preference) {
+        return bookSeat(customerEmail, booking, cabin, preference, null);
+    }
+
+    /**
+     * Book one seat on a flight, using a seat held during checkout if it is still active
+     * The hold is used up or released whatever the outcome
+     * @param hold Seat hold taken when the flight was selected, or null
+     * @return CONFIRMED, SOLD_OUT if no seat was left, or FAILED on error
+     */
+    public static Result bookSeat(String customerEmail, Booking booking, SeatMap.Cabin cabin,
+                                  SeatMap.Preference preference, SeatHoldManager.SeatHold hold) {
+        int userId;
+        try {
+            userId = UserDirectory.getUserId(customerEmail);
+        } catch (SQLException e) {
+            System.err.println("Error creating booking: " + e.getMessage());
+            userId = -1;
+        }
+        if (userId < 0) {
+            System.err.println("Error creating booking: unknown customer " + customerEmail);
+            SeatHoldManager.getInstance().release(hold);
+            return Result.FAILED;
+        }
+        User customer = new User();
+        customer.setUserId(userId);
+        customer.setEmail(customerEmail);
+        return bookSeat(customer, booking, cabin, preference, hold);
+    }
+
+    /**
+     * Book one seat on a flight for a customer whose id is already known, e.g. the session user
+     * The hold is used up or released whatever the outcome
+     * @param hold Seat hold taken when the flight was selected, or null
+     * @return CONFIRMED, SOLD_OUT if no seat was left, or FAILED on error
+     */
+    public static Result bookSeat(User customer, Booking booking, SeatMap.Cabin cabin,
+                                  SeatMap.Preference preference, SeatHoldManager.SeatHold hold) {
+        String customerEmail = customer.getEmail();
+        int flightId = booking.getFlightId();
+        String problem = validate(booking);
+        if (problem != null) {
+            System.err.println("Error creating booking: " + problem);
+            SeatHoldManager.getInstance().release(hold);
+            return Result.FAILED;
+        }
+        SeatInventory inventory = SeatInventory.getInstance();
+        SeatMap seatMap = SeatMap.forFlight(flightId);
+        if (seatMap == null) {
+            SeatHoldManager.getInstance().release(hold);
+            return Result.FAILED;
+        }
+
+        // An active hold already took the seat out of the inventory
+        boolean reserved = hold != null && hold.getFlightId() == flightId
+                && SeatHoldManager.getInstance().confirm(hold);
+        if (!reserved) {
+            // A hold on another flight is no longer needed; after confirm() every later
+            // failure gives the seat back through inventory.release() instead
+            SeatHoldManager.getInstance().release(hold);
+            if (!inventory.tryReserve(flightId)) {
+                return Result.SOLD_OUT;
+            }
+        }
+
+        int seat = seatMap.claimPreferred(cabin, preference);
+        if (seat < 0) {
+            // Flight has seats, but not in this cabin
+            inventory.release(flightId);
+            return Result.SOLD_OUT;
+        }
+        String[] seatNumbers = {SeatMap.formatSeat(cabin, seat)};
+
+        try {
+            Result result = save(customer, flightId, List.of(booking), seatMap, seatNumbers);
+            if (result == Result.SOLD_OUT) {
+                // Other instances sold the seats this one still counted
+                releaseSeats(seatMap, seatNumbers);
+                inventory.release(flightId);
+                inventory.refresh(flightId);
+                return Result.SOLD_OUT;
+            }
+            inventory.booked(flightId, 1);
+            booking.setUserId(customer.getUserId());
+            booking.setSeatNumber(seatNumbers[0]);
+            booking.setStatus("CONFIRMED");
+            CustomerStats.recordBooking(customerEmail, flightId, booking.getTotalAmount());
+            return Result.CONFIRMED;
+        } catch (SQLException e) {
+            System.err.println("Error creating booking: " + e.getMessage());
+        }
+
+        // Booking row wasn't written, so give the seat back
+        releaseSeats(seatMap, seatNumbers);
+        inventory.release(flightId);
+        return Result.FAILED;
+    }
+
+    /**
+     * Book several passengers on one flight for the same customer, e.g. a group or corporate trip
+     * All seats are taken with one conditional decrement, assigned from a block of adjacent seats
+     * where the cabin has one, and inserted as one JDBC batch in the same transaction, so either
+     * every passenger is booked or none is. On success each booking's seat number and status are filled in
+     * @param customer Booking customer, with the user id resolved
+     * @param bookings One booking per passenger, all on the same flight
+     * @param cabin Cabin class to seat the group in
+     * @return CONFIRMED, SOLD_OUT if the cabin can't seat the whole group, or FAILED on error
+     */
+    public static Result bookGroup(User customer, List<Booking> bookings, SeatMap.Cabin cabin) {
+        if (bookings.isEmpty()) {
+            return Result.FAILED;
+        }
+        int flightId = bookings.get(0).getFlightId();
+        for (Booking booking : bookings) {
+            if (booking.getFlightId() != flightId) {
+                System.err.println("Error creating group booking: passengers on different flights");
+                return Result.FAILED;
+            }
+            String problem = validate(booking);
+            if (problem != null) {
+                System.err.println("Error creating group booking: " + problem);
+                return Result.FAILED;
+            }
+        }
+        SeatInventory inventory = SeatInventory.getInstance();
+        SeatMap seatMap = SeatMap.forFlight(flightId);
+        if (seatMap == null) {
+            return Result.FAILED;
+        }
+
+        int count = bookings.size();
+        if (!inventory.tryReserve(flightId, count)) {
+            return Result.SOLD_OUT;
+        }
+        int[] seats = seatMap.claimBlock(cabin, count);
+        if (seats == null) {
+            // Flight has the seats, but not all in this cabin
+            inventory.release(flightId, count);
+            return Result.SOLD_OUT;
+        }
+
+        String[] seatNumbers = new String[count];
+        for (int i = 0; i < count; i++) {
+            seatNumbers[i] = SeatMap.formatSeat(cabin, seats[i]);
+        }
+
+        try {
+            Result result = save(customer, flightId, bookings, seatMap, seatNumbers);
+            if (result == Result.SOLD_OUT) {
+                releaseSeats(seatMap, seatNumbers);
+                inventory.release(flightId, count);
+                inventory.refresh(flightId);
+                return Result.SOLD_OUT;
+            }
+            inventory.booked(flightId, count);
+            for (int i = 0; i < count; i++) {
+                Booking booking = bookings.get(i);
+                booking.setUserId(customer.getUserId());
+                booking.setSeatNumber(seatNumbers[i]);
+                booking.setStatus("CONFIRMED");
+                CustomerStats.recordBooking(customer.getEmail(), flightId, booking.getTotalAmount());
+            }
+            return Result.CONFIRMED;
+        } catch (SQLException e) {
+            System.err.println("Error creating group booking: " + e.getMessage());
+        }
+
+        // No booking row was written, so give every seat back
+        releaseSeats(seatMap, seatNumbers);
+        inventory.release(flightId, count);
+        return Result.FAILED;
+    }
+
+    /**
+     * Take the seats in the flights table and write the booking rows, in one transaction
+     * @param seatNumbers Seat assigned to each booking; replaced in place if another booking has it
+     * @return CONFIRMED, or SOLD_OUT if the flight or cabin has fewer seats left than bookings
+     */
+    private static Result save(User customer, int flightId, List<Booking> bookings, SeatMap seatMap,
+                               String[] seatNumbers) throws SQLException {
+        int count = bookings.size();
+        ReportAggregates.Sales sales = new ReportAggregates.Sales();
+        for (Booking booking : bookings) {
+            sales.booked(customer.getUserId(), flightId, 1, booking.getTotalAmount());
+        }
+        for (int attempt = 1; ; attempt++) {
+            List<Object[]> rows = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Booking booking = bookings.get(i);
+                rows.add(new Object[] {customer.getUserId(), flightId, booking.getPassengerName(),
+                        seatNumbers[i], booking.getTotalAmount()});
+            }
+            try {
+                return DBConnection.executeInTransaction(conn -> {
+                    if (DBConnection.executeUpdate(conn, RESERVE_SEATS_QUERY, count, flightId, count) == 0) {
+                        return Result.SOLD_OUT;
+                    }
+                    if (count == 1) {
+                        DBConnection.executeUpdate(conn, INSERT_BOOKING_QUERY, rows.get(0));
+                    } else {
+                        DBConnection.executeBatch(conn, INSERT_BOOKING_QUERY, rows);
+                    }
+                    ReportAggregates.recordBookings(conn, sales);
+                    return Result.CONFIRMED;
+                });
+            } catch (SQLException e) {
+                if (attempt >= MAX_SEAT_ATTEMPTS || !SeatMap.isSeatTaken(e)) {
+                    throw e;
+                }
+                // Another instance booked one of the seats first; the transaction was rolled back
+                if (!seatMap.reseat(seatNumbers)) {
+                    return Result.SOLD_OUT;
+                }
+            }
+        }
+    }
+
+    /**
+     * Give back the seats of a booking that wasn't written
+     */
+    private static void releaseSeats(SeatMap seatMap, String[] seatNumbers) {
+        for (String seatNumber : seatNumbers) {
+            seatMap.release(seatNumber);
+        }
+    }
+
+    /**
+     * Cancel a confirmed booking and release its seat
+     * @param bookingId Booking to cancel
+     * @return true if the booking was cancelled
+     */
+    public static boolean cancelBooking(int bookingId) {
+        try {
+            String[] customerEmail = new String[1];
+            Booking cancelled = DBConnection.executeInTransaction(conn -> {
+                Booking booking = new Booking();
+                try (ResultSet rs = DBConnection.executeQuery(conn, FIND_CONFIRMED_BOOKING_QUERY, bookingId)) {
+                    if (!rs.next()) {
+                        return null;
+                    }
+                    booking.setBookingId(bookingId);
+                    booking.setFlightId(rs.getInt("flight_id"));
+                    booking.setSeatNumber(rs.getString("seat_number"));
+                    booking.setTotalAmount(rs.getDouble("total_amount"));
+                    customerEmail[0] = rs.getString("email");
+                }
+                DBConnection.executeUpdate(conn, CANCEL_BOOKING_QUERY, bookingId);
+                DBConnection.executeUpdate(conn, RETURN_SEATS_QUERY, 1, booking.getFlightId());
+                ReportAggregates.recordCancellation(conn, bookingId);
+                booking.setStatus("CANCELLED");
+                return booking;
+            });
+
+            if (cancelled != null) {
+                SeatInventory.getInstance().cancelled(cancelled.getFlightId(), 1);
+                releaseCancelled(cancelled, customerEmail[0]);
+                return true;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error cancelling booking: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Free a cancelled booking's seat number and take it out of the customer's statistics
+     */
+    private static void releaseCancelled(Booking cancelled, String customerEmail) {
+        SeatMap seatMap = SeatMap.forFlight(cancelled.getFlightId());
+        if (seatMap != null) {
+            seatMap.release(cancelled.getSeatNumber());
+        }
+        if (customerEmail != null) {
+            CustomerStats.recordCancellation(customerEmail, cancelled.getFlightId(), cancelled.getTotalAmount());
+        }
+    }
+}
@@ -0,0 +1,451 @@
+package utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded JDBC connection pool used by DBConnection
+ * Connections are borrowed per operation and returned by calling close()
+ * Each borrow gets its own handle, so closing a handle twice, or using one
+ * after it was closed, can't affect the next borrower of the same connection
+ */
+class ConnectionPool {
+
+    private final String url;
+    private final String username;
+    private final String password;
+
+    // Pool sizing and timing configuration
+    private final int maxSize;
+    private final int minIdle;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final long validationIntervalMillis;
+    private final int statementCacheSize;
+
+    // Permits bound the number of physical connections handed out at once
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    // Physical connections open or being opened, idle ones included; never more than maxSize
+    private final AtomicInteger openCount = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+
+    private volatile boolean closed = false;
+
+    ConnectionPool(String url, String username, String password, int maxSize, int minIdle,
+                   long borrowTimeoutMillis, long idleTimeoutMillis, long leakThresholdMillis,
+                   long validationIntervalMillis, int statementCacheSize) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.minIdle = minIdle;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.validationIntervalMillis = validationIntervalMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, Math.min(idleTimeoutMillis, leakThresholdMillis) / 2);
+        // The first run opens the minimum idle connections in the background
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrow a connection, waiting up to the borrow timeout for a free slot
+     * @return Connection whose close() returns it to the pool
+     * @throws SQLException if the pool is closed, exhausted or the database is unreachable
+     */
+    Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool has been shut down");
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException("Timed out after " + borrowTimeoutMillis
+                        + " ms waiting for a database connection (pool size " + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledConnection pooled = takeValidIdle();
+            if (pooled == null) {
+                pooled = openOrWait(deadline);
+            }
+            pooled.markBorrowed();
+            borrowed.add(pooled);
+            return pooled.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Take the most recently used idle connection that passes validation
+     */
+    private PooledConnection takeValidIdle() {
+        PooledConnection pooled;
+        // LIFO keeps the hottest connections in use and lets the rest age out
+        while ((pooled = idle.pollFirst()) != null) {
+            if (pooled.isValid()) {
+                return pooled;
+            }
+            pooled.closePhysical();
+        }
+        return null;
+    }
+
+    /**
+     * Open a connection if fewer than maxSize are open, otherwise wait for one the
+     * housekeeper is opening, or for a slot freed by a connection being closed
+     */
+    private PooledConnection openOrWait(long deadline) throws SQLException {
+        while (true) {
+            if (reserveSlot()) {
+                return open();
+            }
+            PooledConnection pooled;
+            try {
+                pooled = idle.pollFirst(10, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database connection", e);
+            }
+            if (pooled != null) {
+                if (pooled.isValid()) {
+                    return pooled;
+                }
+                pooled.closePhysical();
+            } else if (System.nanoTime() - deadline > 0) {
+                throw new SQLTimeoutException("Timed out after " + borrowTimeoutMillis
+                        + " ms waiting for a database connection (pool size " + maxSize + ")");
+            }
+        }
+    }
+
+    /**
+     * Count a connection about to be opened, unless maxSize are open already
+     * @return true if the caller may open one, and must then call open()
+     */
+    private boolean reserveSlot() {
+        int open;
+        do {
+            open = openCount.get();
+            if (open >= maxSize) {
+                return false;
+            }
+        } while (!openCount.compareAndSet(open, open + 1));
+        return true;
+    }
+
+    /**
+     * Open a physical connection in a slot taken with reserveSlot()
+     */
+    private PooledConnection open() throws SQLException {
+        try {
+            return new PooledConnection(DriverManager.getConnection(url, username, password));
+        } catch (SQLException | RuntimeException e) {
+            openCount.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Prepare a statement on a borrowed connection, reusing a cached one when possible
+     * Statements must be handed back with recycle() instead of being closed
+     */
+    PreparedStatement prepare(Connection conn, String sql) throws SQLException {
+        Handle handle = unwrap(conn);
+        if (handle == null) {
+            return conn.prepareStatement(sql);
+        }
+        if (handle.closed.get()) {
+            throw new SQLException("Connection has already been returned to the pool");
+        }
+        PreparedStatement pstmt = handle.pooled.statementCache.take(sql);
+        return pstmt != null ? pstmt : handle.pooled.physical.prepareStatement(sql);
+    }
+
+    /**
+     * Hand a statement obtained from prepare() back to its connection's cache
+     */
+    void recycle(Connection conn, String sql, PreparedStatement pstmt) {
+        if (pstmt == null) {
+            return;
+        }
+        Handle handle = unwrap(conn);
+        if (handle == null || handle.closed.get()) {
+            // The connection may already belong to another borrower
+            DBConnection.closePreparedStatement(pstmt);
+        } else {
+            handle.pooled.statementCache.give(sql, pstmt);
+        }
+    }
+
+    private Handle unwrap(Connection conn) {
+        if (Proxy.isProxyClass(conn.getClass())
+                && Proxy.getInvocationHandler(conn) instanceof Handle) {
+            return (Handle) Proxy.getInvocationHandler(conn);
+        }
+        return null;
+    }
+
+    /**
+     * Return a borrowed connection to the idle set
+     */
+    private void release(PooledConnection pooled) {
+        if (!borrowed.remove(pooled)) {
+            return; // Already returned
+        }
+
+        try {
+            boolean reusable = !closed && pooled.reset();
+            if (reusable) {
+                pooled.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(pooled);
+            } else {
+                pooled.closePhysical();
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Evict connections idle for too long, top the pool up to minIdle and
+     * report borrowed connections that look leaked
+     */
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+
+        // Oldest idle connections sit at the tail of the deque
+        Iterator<PooledConnection> it = idle.descendingIterator();
+        while (it.hasNext() && idle.size() > minIdle) {
+            PooledConnection pooled = it.next();
+            if (now - pooled.lastUsed > idleTimeoutMillis && idle.remove(pooled)) {
+                pooled.closePhysical();
+            }
+        }
+
+        fillIdle();
+
+        for (PooledConnection pooled : borrowed) {
+            if (!pooled.leakReported && now - pooled.borrowedAt > leakThresholdMillis) {
+                pooled.leakReported = true;
+                System.err.println("Possible connection leak: connection borrowed "
+                        + (now - pooled.borrowedAt) + " ms ago and not yet returned");
+                pooled.borrowSite.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Open connections until minIdle are idle, without going past maxSize in total
+     * New connections go to the tail so the hot ones at the head stay in use
+     */
+    private void fillIdle() {
+        int target = Math.min(minIdle, maxSize);
+        while (!closed && idle.size() < target && reserveSlot()) {
+            try {
+                idle.offerLast(open());
+            } catch (SQLException e) {
+                System.err.println("Could not open idle pool connection: " + e.getMessage());
+                return;
+            }
+        }
+        if (closed) {
+            // Lost a race with shutdown()
+            PooledConnection pooled;
+            while ((pooled = idle.pollFirst()) != null) {
+                pooled.closePhysical();
+            }
+        }
+    }
+
+    /**
+     * Number of connections currently borrowed
+     */
+    int getActiveCount() {
+        return borrowed.size();
+    }
+
+    /**
+     * Number of idle connections ready to be borrowed
+     */
+    int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Close all idle connections and stop handing out new ones
+     * Borrowed connections are closed as they are returned
+     */
+    void shutdown() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            pooled.closePhysical();
+        }
+    }
+
+    /**
+     * Physical connection plus the bookkeeping the pool needs for it
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statementCache = new StatementCache(statementCacheSize);
+        private volatile long lastUsed;
+        private volatile long borrowedAt;
+        private volatile Throwable borrowSite;
+        private volatile boolean leakReported;
+        private final AtomicBoolean physicalClosed = new AtomicBoolean();
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.lastUsed = System.currentTimeMillis();
+        }
+
+        /**
+         * A new Connection for this borrow, valid until its close()
+         */
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, new Handle(this));
+        }
+
+        void markBorrowed() {
+            borrowedAt = System.currentTimeMillis();
+            borrowSite = new Throwable("Connection borrowed here");
+            leakReported = false;
+        }
+
+        /**
+         * Validate on borrow, skipping the round trip for recently returned connections
+         */
+        boolean isValid() {
+            try {
+                if (physical.isClosed()) {
+                    return false;
+                }
+                if (System.currentTimeMillis() - lastUsed < validationIntervalMillis) {
+                    return true;
+                }
+                return physical.isValid(2);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Undo any session state a caller left behind
+         * @return false if the connection is no longer usable
+         */
+        boolean reset() {
+            try {
+                if (physical.isClosed()) {
+                    return false;
+                }
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                if (physical.isReadOnly()) {
+                    physical.setReadOnly(false);
+                }
+                physical.clearWarnings();
+                return true;
+            } catch (SQLException e) {
+                System.err.println("Discarding broken pooled connection: " + e.getMessage());
+                return false;
+            }
+        }
+
+        void closePhysical() {
+            if (!physicalClosed.compareAndSet(false, true)) {
+                return;
+            }
+            openCount.decrementAndGet();
+            statementCache.clear();
+            try {
+                physical.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing pooled connection: " + e.getMessage());
+            }
+        }
+
+    }
+
+    /**
+     * One borrower's view of a pooled connection
+     * Only the first close() returns the connection; afterwards the handle is dead
+     */
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (closed.compareAndSet(false, true)) {
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed.get() || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    if (closed.get()) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                    try {
+                        return method.invoke(pooled.physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
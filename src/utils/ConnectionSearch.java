@@ -0,0 +1,202 @@
+package utils;
+
+import model.Flight;
+import model.Itinerary;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Connecting-flight search for Airline Reservation System
+ * Walks the route index's time-ordered departures (a time-expanded graph of
+ * the schedule) to find itineraries of up to a given number of legs that
+ * respect minimum and maximum connection times. The best itineraries found so
+ * far are kept in a bounded heap, and a path that can no longer beat the worst
+ * of them is not extended
+ */
+public class ConnectionSearch {
+
+    // Connection time rules (airline.connection.minMinutes and airline.connection.maxHours)
+    private static final Duration MIN_CONNECTION_TIME =
+            Duration.ofMinutes(DatabaseConfig.getLong("airline.connection.minMinutes", 45));
+    private static final Duration MAX_CONNECTION_TIME =
+            Duration.ofHours(DatabaseConfig.getLong("airline.connection.maxHours", 12));
+
+    /**
+     * How to rank itineraries
+     */
+    public enum SortOrder {
+        DURATION, PRICE
+    }
+
+    private static final Comparator<Itinerary> BY_DURATION =
+            Comparator.comparing(Itinerary::getTotalDuration).thenComparingDouble(Itinerary::getTotalPrice);
+    private static final Comparator<Itinerary> BY_PRICE =
+            Comparator.comparingDouble(Itinerary::getTotalPrice).thenComparing(Itinerary::getTotalDuration);
+
+    private final RouteIndex routeIndex;
+    private final SeatInventory inventory;
+
+    public ConnectionSearch() {
+        this(RouteIndex.getInstance(), SeatInventory.getInstance());
+    }
+
+    public ConnectionSearch(RouteIndex routeIndex, SeatInventory inventory) {
+        this.routeIndex = routeIndex;
+        this.inventory = inventory;
+    }
+
+    /**
+     * Find itineraries from source to destination departing at or after a given time
+     * @param source Origin city
+     * @param destination Final destination city
+     * @param earliestDeparture Earliest departure of the first leg
+     * @param maxLegs Maximum number of flights in an itinerary
+     * @param sortOrder Ranking of the results
+     * @param limit Maximum number of itineraries returned
+     * @return ranked itineraries; each leg has at least one seat available
+     */
+    public List<Itinerary> search(String source, String destination, LocalDateTime earliestDeparture,
+                                  int maxLegs, SortOrder sortOrder, int limit) {
+        return search(source, destination, earliestDeparture, null, maxLegs, sortOrder, limit);
+    }
+
+    /**
+     * Find itineraries from source to destination whose first leg departs in a window
+     * @param latestDeparture Latest departure of the first leg, or null for no limit
+     */
+    public List<Itinerary> search(String source, String destination, LocalDateTime earliestDeparture,
+                                  LocalDateTime latestDeparture, int maxLegs, SortOrder sortOrder, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        Best best = new Best(sortOrder, limit);
+        String target = RouteIndex.cityKey(destination);
+        Set<String> visited = new HashSet<>();
+        visited.add(RouteIndex.cityKey(source));
+
+        List<Flight> path = new ArrayList<>(maxLegs);
+        extend(source, earliestDeparture, latestDeparture, target, maxLegs, path, 0, visited, best);
+        return best.ranked();
+    }
+
+    /**
+     * Depth-first extension of the current path from a city
+     * @param earliest Earliest allowed departure from this city
+     * @param latest Latest allowed departure (end of the connection window), or null for no limit
+     * @param price Price of the path so far
+     */
+    private void extend(String city, LocalDateTime earliest, LocalDateTime latest, String target,
+                        int legsLeft, List<Flight> path, double price, Set<String> visited, Best best) {
+        if (legsLeft == 0) {
+            return;
+        }
+
+        LocalDateTime firstDeparture = path.isEmpty() ? null : path.get(0).getDepartureTime();
+        List<Flight> departures = routeIndex.getDepartures(city);
+        for (int i = firstDepartureAtOrAfter(departures, earliest); i < departures.size(); i++) {
+            Flight flight = departures.get(i);
+            if (latest != null && flight.getDepartureTime().isAfter(latest)) {
+                break; // Departures are ordered, so the rest miss the connection window too
+            }
+            if (firstDeparture != null && best.tooLong(Duration.between(firstDeparture, flight.getDepartureTime()))) {
+                break; // Later departures only make the trip longer
+            }
+
+            String next = RouteIndex.cityKey(flight.getDestination());
+            if (visited.contains(next) || !inventory.hasAvailableSeats(flight.getFlightId())) {
+                continue;
+            }
+            double legPrice = price + flight.getPrice();
+            if (best.tooExpensive(legPrice)) {
+                continue;
+            }
+
+            path.add(flight);
+            if (next.equals(target)) {
+                best.offer(new Itinerary(path));
+            } else if (legsLeft > 1) {
+                LocalDateTime arrival = flight.getArrivalTime();
+                LocalDateTime departure = path.get(0).getDepartureTime();
+                // Any onward leg leaves no earlier than the minimum connection time after arrival
+                if (!best.tooLong(Duration.between(departure, arrival.plus(MIN_CONNECTION_TIME)))) {
+                    visited.add(next);
+                    extend(flight.getDestination(), arrival.plus(MIN_CONNECTION_TIME),
+                            arrival.plus(MAX_CONNECTION_TIME), target, legsLeft - 1, path, legPrice, visited, best);
+                    visited.remove(next);
+                }
+            }
+            path.remove(path.size() - 1);
+        }
+    }
+
+    /**
+     * The best itineraries found so far, at most limit, with the worst at the head
+     * so it can be compared and replaced cheaply
+     */
+    private static final class Best {
+        private final SortOrder sortOrder;
+        private final Comparator<Itinerary> order;
+        private final int limit;
+        private final PriorityQueue<Itinerary> heap;
+
+        Best(SortOrder sortOrder, int limit) {
+            this.sortOrder = sortOrder;
+            this.order = sortOrder == SortOrder.PRICE ? BY_PRICE : BY_DURATION;
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(order.reversed());
+        }
+
+        void offer(Itinerary itinerary) {
+            if (heap.size() < limit) {
+                heap.add(itinerary);
+            } else if (order.compare(itinerary, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(itinerary);
+            }
+        }
+
+        /**
+         * Whether every itinerary costing at least this much ranks below all kept ones
+         */
+        boolean tooExpensive(double price) {
+            return sortOrder == SortOrder.PRICE && heap.size() == limit && price > heap.peek().getTotalPrice();
+        }
+
+        /**
+         * Whether every itinerary taking at least this long ranks below all kept ones
+         */
+        boolean tooLong(Duration duration) {
+            return sortOrder == SortOrder.DURATION && heap.size() == limit
+                    && duration.compareTo(heap.peek().getTotalDuration()) > 0;
+        }
+
+        List<Itinerary> ranked() {
+            List<Itinerary> result = new ArrayList<>(heap);
+            result.sort(order);
+            return result;
+        }
+    }
+
+    /**
+     * Binary search for the first departure at or after a time
+     */
+    private static int firstDepartureAtOrAfter(List<Flight> departures, LocalDateTime time) {
+        int low = 0;
+        int high = departures.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (departures.get(mid).getDepartureTime().isBefore(time)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
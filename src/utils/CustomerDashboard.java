@@ -5,12 +5,16 @@ import javax.swing.table.DefaultTableModel;
 
 import gui.BookingForm;
 import gui.Login;
+import model.User;
+import service.BookingService;
 
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * CustomerDashboard GUI class for Airline Reservation System
@@ -24,17 +28,30 @@ public class CustomerDashboard extends JFrame implements ActionListener {
     private DefaultTableModel bookingTableModel;
     private JButton bookFlightButton, cancelBookingButton, refreshButton, logoutButton;
     private JLabel welcomeLabel;
+    private JLabel totalBookingsLabel, totalSpentLabel, cancelledLabel, favoriteRouteLabel;
+    private JPanel profilePanel;
 
-    // Current customer user
-    private String currentCustomer;
+    // Current customer user, with the id resolved at login
+    private final User currentCustomer;
+
+    // Dashboard loads run in the background; a refresh cancels the previous one
+    private final DBExecutor.LatestTask dashboardTask = new DBExecutor.LatestTask();
+
+    /**
+     * Booking history and statistics read in one query
+     */
+    private static final class DashboardData {
+        final List<Object[]> rows = new ArrayList<>();
+        final CustomerStats stats = new CustomerStats();
+    }
 
     // Constructor
-    public CustomerDashboard(String customerEmail) {
-        this.currentCustomer = customerEmail;
+    public CustomerDashboard(User customer) {
+        this.currentCustomer = customer;
         initializeComponents();
         setupLayout();
         setFrameProperties();
-        loadBookingHistory();
+        loadDashboard();
     }
 
     /**
@@ -44,7 +61,7 @@ public class CustomerDashboard extends JFrame implements ActionListener {
         tabbedPane = new JTabbedPane();
 
         // Welcome label
-        welcomeLabel = new JLabel("Welcome, " + currentCustomer);
+        welcomeLabel = new JLabel("Welcome, " + currentCustomer.getEmail());
         welcomeLabel.setFont(new Font("Arial", Font.BOLD, 16));
 
         // Buttons
@@ -204,8 +221,10 @@ public class CustomerDashboard extends JFrame implements ActionListener {
         gbc.insets = new Insets(10, 10, 10, 10);
         gbc.anchor = GridBagConstraints.WEST;
 
-        // Load and display user profile
-        displayUserProfile(profileInfoPanel, gbc);
+        // The profile is filled in once it has loaded
+        gbc.gridx = 0; gbc.gridy = 0;
+        profileInfoPanel.add(new JLabel("Loading..."), gbc);
+        profilePanel = profileInfoPanel;
 
         // Statistics panel
         JPanel statsPanel = createStatsPanel();
@@ -217,42 +236,41 @@ public class CustomerDashboard extends JFrame implements ActionListener {
     }
 
     /**
-     * Display user profile information
+     * Display user profile information; called on the EDT
      */
-    private void displayUserProfile(JPanel panel, GridBagConstraints gbc) {
-        String query = "SELECT * FROM users WHERE email = ?";
-
-        try {
-            ResultSet rs = DBConnection.executeQuery(query, currentCustomer);
-            if (rs != null && rs.next()) {
-                gbc.gridx = 0; gbc.gridy = 0;
-                panel.add(new JLabel("Name:"), gbc);
-                gbc.gridx = 1;
-                panel.add(new JLabel(rs.getString("name")), gbc);
-
-                gbc.gridx = 0; gbc.gridy = 1;
-                panel.add(new JLabel("Email:"), gbc);
-                gbc.gridx = 1;
-                panel.add(new JLabel(rs.getString("email")), gbc);
-
-                gbc.gridx = 0; gbc.gridy = 2;
-                panel.add(new JLabel("Phone:"), gbc);
-                gbc.gridx = 1;
-                panel.add(new JLabel(rs.getString("phone")), gbc);
-
-                gbc.gridx = 0; gbc.gridy = 3;
-                panel.add(new JLabel("Address:"), gbc);
-                gbc.gridx = 1;
-                JTextArea addressArea = new JTextArea(rs.getString("address"));
-                addressArea.setEditable(false);
-                addressArea.setRows(3);
-                panel.add(new JScrollPane(addressArea), gbc);
-
-                DBConnection.closeResultSet(rs);
-            }
-        } catch (SQLException e) {
-            System.err.println("Error loading user profile: " + e.getMessage());
+    private void displayUserProfile(String[] profile) {
+        JPanel panel = profilePanel;
+        panel.removeAll();
+        if (profile != null) {
+            GridBagConstraints gbc = new GridBagConstraints();
+            gbc.insets = new Insets(10, 10, 10, 10);
+            gbc.anchor = GridBagConstraints.WEST;
+
+            gbc.gridx = 0; gbc.gridy = 0;
+            panel.add(new JLabel("Name:"), gbc);
+            gbc.gridx = 1;
+            panel.add(new JLabel(profile[0]), gbc);
+
+            gbc.gridx = 0; gbc.gridy = 1;
+            panel.add(new JLabel("Email:"), gbc);
+            gbc.gridx = 1;
+            panel.add(new JLabel(profile[1]), gbc);
+
+            gbc.gridx = 0; gbc.gridy = 2;
+            panel.add(new JLabel("Phone:"), gbc);
+            gbc.gridx = 1;
+            panel.add(new JLabel(profile[2]), gbc);
+
+            gbc.gridx = 0; gbc.gridy = 3;
+            panel.add(new JLabel("Address:"), gbc);
+            gbc.gridx = 1;
+            JTextArea addressArea = new JTextArea(profile[3]);
+            addressArea.setEditable(false);
+            addressArea.setRows(3);
+            panel.add(new JScrollPane(addressArea), gbc);
         }
+        panel.revalidate();
+        panel.repaint();
     }
 
     /**
@@ -263,17 +281,15 @@ public class CustomerDashboard extends JFrame implements ActionListener {
         statsPanel.setBorder(BorderFactory.createTitledBorder("Your Travel Statistics"));
         statsPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
 
-        // Get statistics from database
-        int totalBookings = getTotalBookings();
-        double totalSpent = getTotalSpent();
-        int cancelledBookings = getCancelledBookings();
-        String favoriteRoute = getFavoriteRoute();
-
-        // Create stat cards
-        JPanel totalBookingsPanel = createStatCard("Total Bookings", String.valueOf(totalBookings));
-        JPanel totalSpentPanel = createStatCard("Total Spent", "₹" + String.format("%.2f", totalSpent));
-        JPanel cancelledPanel = createStatCard("Cancelled", String.valueOf(cancelledBookings));
-        JPanel favoriteRoutePanel = createStatCard("Favorite Route", favoriteRoute);
+        // Create stat cards; values are filled in once the statistics have loaded
+        totalBookingsLabel = new JLabel("...");
+        totalSpentLabel = new JLabel("...");
+        cancelledLabel = new JLabel("...");
+        favoriteRouteLabel = new JLabel("...");
+        JPanel totalBookingsPanel = createStatCard("Total Bookings", totalBookingsLabel);
+        JPanel totalSpentPanel = createStatCard("Total Spent", totalSpentLabel);
+        JPanel cancelledPanel = createStatCard("Cancelled", cancelledLabel);
+        JPanel favoriteRoutePanel = createStatCard("Favorite Route", favoriteRouteLabel);
 
         statsPanel.add(totalBookingsPanel);
         statsPanel.add(totalSpentPanel);
@@ -283,10 +299,20 @@ public class CustomerDashboard extends JFrame implements ActionListener {
         return statsPanel;
     }
 
+    /**
+     * Show statistics in the stat cards; called on the EDT
+     */
+    private void showStats(CustomerStats stats) {
+        totalBookingsLabel.setText(String.valueOf(stats.getTotalBookings()));
+        totalSpentLabel.setText("₹" + String.format("%.2f", stats.getTotalSpent()));
+        cancelledLabel.setText(String.valueOf(stats.getCancelledBookings()));
+        favoriteRouteLabel.setText(stats.getFavoriteRoute());
+    }
+
     /**
      * Create a statistics card
      */
-    private JPanel createStatCard(String title, String value) {
+    private JPanel createStatCard(String title, JLabel valueLabel) {
         JPanel card = new JPanel(new BorderLayout());
         card.setBorder(BorderFactory.createRaisedBevelBorder());
         card.setBackground(Color.LIGHT_GRAY);
@@ -295,7 +321,6 @@ public class CustomerDashboard extends JFrame implements ActionListener {
         titleLabel.setFont(new Font("Arial", Font.PLAIN, 12));
         titleLabel.setHorizontalAlignment(SwingConstants.CENTER);
 
-        JLabel valueLabel = new JLabel(value);
         valueLabel.setFont(new Font("Arial", Font.BOLD, 16));
         valueLabel.setHorizontalAlignment(SwingConstants.CENTER);
 
@@ -358,7 +383,7 @@ public class CustomerDashboard extends JFrame implements ActionListener {
         } else if (e.getSource() == cancelBookingButton) {
             handleCancelBooking();
         } else if (e.getSource() == refreshButton) {
-            loadBookingHistory();
+            loadDashboard();
         } else if (e.getSource() == logoutButton) {
             handleLogout();
         }
@@ -398,38 +423,35 @@ public class CustomerDashboard extends JFrame implements ActionListener {
         if (confirm == JOptionPane.YES_OPTION) {
             int bookingId = (int) bookingTableModel.getValueAt(selectedRow, 0);
 
-            if (cancelBooking(bookingId)) {
-                JOptionPane.showMessageDialog(this, 
-                    "Booking cancelled successfully!", 
-                    "Success", JOptionPane.INFORMATION_MESSAGE);
-                loadBookingHistory();
-            } else {
+            cancelBookingButton.setEnabled(false);
+            DBExecutor.submit(this, () -> cancelBooking(bookingId), cancelled -> {
+                cancelBookingButton.setEnabled(true);
+                if (cancelled) {
+                    JOptionPane.showMessageDialog(this, 
+                        "Booking cancelled successfully!", 
+                        "Success", JOptionPane.INFORMATION_MESSAGE);
+                    loadDashboard();
+                } else {
+                    JOptionPane.showMessageDialog(this, 
+                        "Failed to cancel booking.", 
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }, e -> {
+                cancelBookingButton.setEnabled(true);
+                System.err.println("Error cancelling booking: " + e.getMessage());
                 JOptionPane.showMessageDialog(this, 
                     "Failed to cancel booking.", 
                     "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            });
         }
     }
 
     /**
-     * Cancel booking in database
+     * Cancel booking in database; runs off the EDT
      */
-    private boolean cancelBooking(int bookingId) {
-        try {
-            // Update booking status
-            String updateBookingQuery = "UPDATE bookings SET status = 'CANCELLED' WHERE booking_id = ?";
-            int result = DBConnection.executeUpdate(updateBookingQuery, bookingId);
-
-            if (result > 0) {
-                // Increment available seats
-                String updateFlightQuery = "UPDATE flights f JOIN bookings b ON f.flight_id = b.flight_id SET f.available_seats = f.available_seats + 1 WHERE b.booking_id = ?";
-                DBConnection.executeUpdate(updateFlightQuery, bookingId);
-                return true;
-            }
-        } catch (Exception e) {
-            System.err.println("Error cancelling booking: " + e.getMessage());
-        }
-        return false;
+    private boolean cancelBooking(int bookingId) throws SQLException {
+        // Status change and seat release go through the seat inventory
+        return BookingService.getInstance().cancel(currentCustomer, bookingId);
     }
 
     /**
@@ -441,115 +463,72 @@ public class CustomerDashboard extends JFrame implements ActionListener {
             "Confirm Logout", JOptionPane.YES_NO_OPTION);
 
         if (confirm == JOptionPane.YES_OPTION) {
+            Session.end();
             this.dispose();
             new Login().setVisible(true);
         }
     }
 
     /**
-     * Load booking history
+     * Load the profile, booking history and statistics in the background with
+     * one query, replacing any load in progress
+     */
+    private void loadDashboard() {
+        refreshButton.setEnabled(false);
+        dashboardTask.submit(this, this::fetchDashboard, data -> {
+            refreshButton.setEnabled(true);
+            bookingTableModel.setRowCount(0);
+            for (Object[] row : data.rows) {
+                bookingTableModel.addRow(row);
+            }
+            displayUserProfile(new String[] {
+                currentCustomer.getName(), currentCustomer.getEmail(), currentCustomer.getPhone(), currentCustomer.getAddress()
+            });
+            showStats(data.stats);
+        }, e -> {
+            refreshButton.setEnabled(true);
+            System.err.println("Error loading booking history: " + e.getMessage());
+        });
+    }
+
+    /**
+     * Read the customer's bookings in one round trip and derive the statistics
+     * from them; runs off the EDT. The profile comes from the session user
      */
-    private void loadBookingHistory() {
+    private DashboardData fetchDashboard() throws SQLException {
         String query = "SELECT b.booking_id, f.flight_number, f.airline, " +
                       "CONCAT(f.source, ' → ', f.destination) as route, " +
                       "b.passenger_name, b.seat_number, b.total_amount, " +
                       "b.booking_date, b.status " +
                       "FROM bookings b " +
                       "JOIN flights f ON b.flight_id = f.flight_id " +
-                      "JOIN users u ON b.user_id = u.user_id " +
-                      "WHERE u.email = ? " +
+                      "WHERE b.user_id = ? " +
                       "ORDER BY b.booking_date DESC";
 
-        try {
-            ResultSet rs = DBConnection.executeQuery(query, currentCustomer);
-            bookingTableModel.setRowCount(0);
-
-            if (rs != null) {
-                while (rs.next()) {
-                    Object[] row = {
-                        rs.getInt("booking_id"),
-                        rs.getString("flight_number"),
-                        rs.getString("airline"),
-                        rs.getString("route"),
-                        rs.getString("passenger_name"),
-                        rs.getString("seat_number"),
-                        "₹" + rs.getDouble("total_amount"),
-                        rs.getString("booking_date"),
-                        rs.getString("status")
-                    };
-                    bookingTableModel.addRow(row);
-                }
-                DBConnection.closeResultSet(rs);
-            }
-        } catch (SQLException e) {
-            System.err.println("Error loading booking history: " + e.getMessage());
-        }
-    }
-
-    // Statistics methods
-    private int getTotalBookings() {
-        String query = "SELECT COUNT(*) FROM bookings b JOIN users u ON b.user_id = u.user_id WHERE u.email = ?";
-        try {
-            ResultSet rs = DBConnection.executeQuery(query, currentCustomer);
-            if (rs != null && rs.next()) {
-                int count = rs.getInt(1);
-                DBConnection.closeResultSet(rs);
-                return count;
-            }
-        } catch (SQLException e) {
-            System.err.println("Error getting total bookings: " + e.getMessage());
-        }
-        return 0;
-    }
-
-    private double getTotalSpent() {
-        String query = "SELECT SUM(total_amount) FROM bookings b JOIN users u ON b.user_id = u.user_id WHERE u.email = ? AND b.status != 'CANCELLED'";
-        try {
-            ResultSet rs = DBConnection.executeQuery(query, currentCustomer);
-            if (rs != null && rs.next()) {
-                double total = rs.getDouble(1);
-                DBConnection.closeResultSet(rs);
-                return total;
-            }
-        } catch (SQLException e) {
-            System.err.println("Error getting total spent: " + e.getMessage());
-        }
-        return 0.0;
-    }
-
-    private int getCancelledBookings() {
-        String query = "SELECT COUNT(*) FROM bookings b JOIN users u ON b.user_id = u.user_id WHERE u.email = ? AND b.status = 'CANCELLED'";
-        try {
-            ResultSet rs = DBConnection.executeQuery(query, currentCustomer);
-            if (rs != null && rs.next()) {
-                int count = rs.getInt(1);
-                DBConnection.closeResultSet(rs);
-                return count;
+        DashboardData data = new DashboardData();
+        // From the primary: these rows seed CustomerStats, which later bookings update in place
+        try (ResultSet rs = DBConnection.executeQuery(query, currentCustomer.getUserId())) {
+            if (rs == null) {
+                throw new SQLException("Database connection unavailable");
             }
-        } catch (SQLException e) {
-            System.err.println("Error getting cancelled bookings: " + e.getMessage());
-        }
-        return 0;
-    }
-
-    private String getFavoriteRoute() {
-        String query = "SELECT CONCAT(f.source, ' → ', f.destination) as route, COUNT(*) as count " +
-                      "FROM bookings b " +
-                      "JOIN flights f ON b.flight_id = f.flight_id " +
-                      "JOIN users u ON b.user_id = u.user_id " +
-                      "WHERE u.email = ? AND b.status != 'CANCELLED' " +
-                      "GROUP BY f.source, f.destination " +
-                      "ORDER BY count DESC LIMIT 1";
-        try {
-            ResultSet rs = DBConnection.executeQuery(query, currentCustomer);
-            if (rs != null && rs.next()) {
-                String route = rs.getString("route");
-                DBConnection.closeResultSet(rs);
-                return route;
+            while (rs.next()) {
+                int bookingId = rs.getInt("booking_id");
+                Object[] row = {
+                    bookingId,
+                    rs.getString("flight_number"),
+                    rs.getString("airline"),
+                    rs.getString("route"),
+                    rs.getString("passenger_name"),
+                    rs.getString("seat_number"),
+                    "₹" + rs.getDouble("total_amount"),
+                    rs.getString("booking_date"),
+                    rs.getString("status")
+                };
+                data.rows.add(row);
+                data.stats.add(rs.getString("route"), rs.getDouble("total_amount"), rs.getString("status"));
             }
-        } catch (SQLException e) {
-            System.err.println("Error getting favorite route: " + e.getMessage());
         }
-        return "None";
+        CustomerStats.put(currentCustomer.getEmail(), data.stats);
+        return data;
     }
-}
\ No newline at end of file
+}
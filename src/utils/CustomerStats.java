@@ -0,0 +1,184 @@
+package utils;
+
+import model.Flight;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-customer travel statistics for Airline Reservation System
+ * Stats are loaded with one aggregate query (or built from rows the caller
+ * already has), cached per customer and kept current incrementally as the
+ * customer books and cancels
+ */
+public class CustomerStats {
+
+    // Customers whose stats are cached (airline.stats.cacheSize)
+    private static final int CACHE_SIZE = DatabaseConfig.getInt("airline.stats.cacheSize", 1000);
+
+    // Per-route totals for one customer, summed up in memory
+    private static final String STATS_QUERY =
+            "SELECT CONCAT(f.source, ' → ', f.destination) AS route, " +
+            "COUNT(*) AS bookings, " +
+            "SUM(b.status = 'CANCELLED') AS cancelled, " +
+            "SUM(CASE WHEN b.status != 'CANCELLED' THEN b.total_amount ELSE 0 END) AS spent " +
+            "FROM bookings b " +
+            "JOIN flights f ON b.flight_id = f.flight_id " +
+            "WHERE b.user_id = ? " +
+            "GROUP BY f.source, f.destination";
+
+    private static final Map<String, CustomerStats> CACHE = new LinkedHashMap<String, CustomerStats>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CustomerStats> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private int totalBookings = 0;
+    private double totalSpent = 0;
+    private int cancelledBookings = 0;
+    // Bookings that are not cancelled, per route
+    private final Map<String, Integer> activeByRoute = new HashMap<>();
+
+    public synchronized int getTotalBookings() { return totalBookings; }
+    public synchronized double getTotalSpent() { return totalSpent; }
+    public synchronized int getCancelledBookings() { return cancelledBookings; }
+
+    /**
+     * Route with the most bookings that are not cancelled
+     * @return the route, or "None" if there is none
+     */
+    public synchronized String getFavoriteRoute() {
+        String favorite = "None";
+        int most = 0;
+        for (Map.Entry<String, Integer> entry : activeByRoute.entrySet()) {
+            if (entry.getValue() > most) {
+                most = entry.getValue();
+                favorite = entry.getKey();
+            }
+        }
+        return favorite;
+    }
+
+    /**
+     * Count one booking, e.g. while reading a customer's booking history
+     */
+    public synchronized void add(String route, double amount, String status) {
+        totalBookings++;
+        if ("CANCELLED".equals(status)) {
+            cancelledBookings++;
+        } else {
+            totalSpent += amount;
+            activeByRoute.merge(route, 1, Integer::sum);
+        }
+    }
+
+    private synchronized void cancel(String route, double amount) {
+        cancelledBookings++;
+        totalSpent -= amount;
+        activeByRoute.computeIfPresent(route, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * Stats for a customer, from the cache or loaded with one query
+     */
+    public static CustomerStats get(String email) throws SQLException {
+        CustomerStats stats = cached(email);
+        if (stats != null) {
+            return stats;
+        }
+
+        stats = new CustomerStats();
+        int userId = UserDirectory.getUserId(email);
+        if (userId < 0) {
+            return stats; // No such customer, so nothing booked
+        }
+        try (ResultSet rs = DBConnection.executeQuery(STATS_QUERY, userId)) {
+            if (rs == null) {
+                throw new SQLException("Database connection unavailable");
+            }
+            while (rs.next()) {
+                String route = rs.getString("route");
+                int cancelled = rs.getInt("cancelled");
+                int active = rs.getInt("bookings") - cancelled;
+                stats.totalBookings += active + cancelled;
+                stats.cancelledBookings += cancelled;
+                stats.totalSpent += rs.getDouble("spent");
+                if (active > 0) {
+                    stats.activeByRoute.put(route, active);
+                }
+            }
+        }
+        put(email, stats);
+        return stats;
+    }
+
+    /**
+     * Cached stats for a customer, or null if not cached
+     */
+    public static CustomerStats cached(String email) {
+        synchronized (CACHE) {
+            return CACHE.get(email);
+        }
+    }
+
+    /**
+     * Cache stats the caller built, e.g. from a freshly loaded booking history
+     */
+    public static void put(String email, CustomerStats stats) {
+        synchronized (CACHE) {
+            CACHE.put(email, stats);
+        }
+    }
+
+    /**
+     * Drop a customer's cached stats so they are reloaded on next use
+     */
+    public static void invalidate(String email) {
+        synchronized (CACHE) {
+            CACHE.remove(email);
+        }
+    }
+
+    /**
+     * Count a new confirmed booking in the customer's cached stats
+     */
+    static void recordBooking(String email, int flightId, double amount) {
+        CustomerStats stats = cached(email);
+        if (stats == null) {
+            return; // Loaded fresh on next use
+        }
+        String route = routeOf(flightId);
+        if (route == null) {
+            invalidate(email);
+        } else {
+            stats.add(route, amount, "CONFIRMED");
+        }
+    }
+
+    /**
+     * Count a cancellation in the customer's cached stats
+     */
+    static void recordCancellation(String email, int flightId, double amount) {
+        CustomerStats stats = cached(email);
+        if (stats == null) {
+            return;
+        }
+        String route = routeOf(flightId);
+        if (route == null) {
+            invalidate(email);
+        } else {
+            stats.cancel(route, amount);
+        }
+    }
+
+    /**
+     * Route label of a flight from the route index, formatted like the stats query
+     */
+    private static String routeOf(int flightId) {
+        Flight flight = RouteIndex.getInstance().findById(flightId);
+        return flight == null ? null : flight.getSource() + " → " + flight.getDestination();
+    }
+}
@@ -1,25 +1,76 @@
 package utils;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Database Connection Utility Class
- * Handles MySQL database connectivity for Airline Reservation System
+ * Handles MySQL database connectivity for Airline Reservation System, or an
+ * embedded database in its place (see EmbeddedDatabase). Read-only queries
+ * that can tolerate slightly stale data may go to read replicas (see ReplicaSet)
  */
 public class DBConnection {
 
-    // Database configuration constants
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/airline";
-    private static final String USERNAME = "root";
-    private static final String PASSWORD = "root";
-    private static final String DRIVER_CLASS = "com.mysql.cj.jdbc.Driver";
+    // Backend: "mysql", or "embedded" for an in-process database created on first use
+    // (set with airline.db.mode in airline.properties or as a -D system property)
+    private static final boolean EMBEDDED = "embedded".equalsIgnoreCase(DatabaseConfig.get("airline.db.mode", "mysql"));
 
-    // Singleton connection instance
-    private static Connection connection = null;
+    // Database configuration (overridable with airline.db.* settings)
+    private static final String DB_URL = DatabaseConfig.get("airline.db.url", EMBEDDED ? EmbeddedDatabase.url()
+            : "jdbc:mysql://localhost:3306/airline?useServerPrepStmts=true&rewriteBatchedStatements=true");
+    private static final String USERNAME = DatabaseConfig.get("airline.db.user",
+            EMBEDDED ? EmbeddedDatabase.USERNAME : "root");
+    private static final String PASSWORD = DatabaseConfig.get("airline.db.password",
+            EMBEDDED ? EmbeddedDatabase.PASSWORD : "root");
+    private static final String DRIVER_CLASS = DatabaseConfig.get("airline.db.driver",
+            EMBEDDED ? EmbeddedDatabase.DRIVER_CLASS : "com.mysql.cj.jdbc.Driver");
+
+    // Connection pool configuration (overridable with airline.pool.* settings)
+    private static final int POOL_MAX_SIZE = DatabaseConfig.getInt("airline.pool.maxSize", 10);
+    private static final int POOL_MIN_IDLE = DatabaseConfig.getInt("airline.pool.minIdle", 2);
+    private static final long BORROW_TIMEOUT_MS = DatabaseConfig.getLong("airline.pool.borrowTimeoutMs", 5000);
+    private static final long IDLE_TIMEOUT_MS = DatabaseConfig.getLong("airline.pool.idleTimeoutMs", 300000);
+    private static final long LEAK_THRESHOLD_MS = DatabaseConfig.getLong("airline.pool.leakThresholdMs", 60000);
+    private static final long VALIDATION_INTERVAL_MS = DatabaseConfig.getLong("airline.pool.validationIntervalMs", 1000);
+    private static final int STATEMENT_CACHE_SIZE = DatabaseConfig.getInt("airline.pool.statementCacheSize", 32);
+
+    // Read replicas: comma-separated JDBC URLs; none means every query uses the primary
+    private static final String REPLICA_URLS = DatabaseConfig.get("airline.db.replicas", "");
+    private static final String REPLICA_USERNAME = DatabaseConfig.get("airline.db.replica.user", USERNAME);
+    private static final String REPLICA_PASSWORD = DatabaseConfig.get("airline.db.replica.password", PASSWORD);
+    private static final int REPLICA_POOL_MAX_SIZE = DatabaseConfig.getInt("airline.pool.replicaMaxSize", POOL_MAX_SIZE);
+    // Reads go to the primary while every replica is further behind than this
+    private static final long REPLICA_MAX_LAG_MS = DatabaseConfig.getLong("airline.db.replica.maxLagMs", 5000);
+    private static final long REPLICA_CHECK_INTERVAL_MS = DatabaseConfig.getLong("airline.db.replica.checkIntervalMs", 1000);
+    // Query returning a replica's lag in seconds; by default MySQL's SHOW REPLICA STATUS is used
+    private static final String REPLICA_LAG_QUERY = DatabaseConfig.get("airline.db.replica.lagQuery", null);
+
+    // Transaction retry configuration
+    private static final int MAX_TRANSACTION_ATTEMPTS = DatabaseConfig.getInt("airline.tx.maxAttempts", 5);
+    private static final long RETRY_BACKOFF_MS = DatabaseConfig.getLong("airline.tx.retryBackoffMs", 10);
+
+    // MySQL error codes for deadlock and lock wait timeout
+    private static final int ER_LOCK_DEADLOCK = 1213;
+    private static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+
+    // Number of transactions retried after a deadlock or serialization failure
+    private static final AtomicLong TRANSACTION_RETRIES = new AtomicLong();
+
+    // Shared connection pool, created on first use
+    private static volatile ConnectionPool pool = null;
+    // Read replicas, created with the pool when configured
+    private static volatile ReplicaSet replicas = null;
 
     /**
      * Private constructor to prevent instantiation
@@ -29,28 +80,118 @@ public class DBConnection {
     }
 
     /**
-     * Get database connection
-     * @return Connection object
+     * Get the connection pool, creating it on first use
      */
-    public static Connection getConnection() {
-        if (connection == null) {
-            try {
-                // Load MySQL JDBC driver
-                Class.forName(DRIVER_CLASS);
+    private static ConnectionPool getPool() throws SQLException {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DBConnection.class) {
+                current = pool;
+                if (current == null) {
+                    try {
+                        // Load the JDBC driver
+                        Class.forName(DRIVER_CLASS);
+                    } catch (ClassNotFoundException e) {
+                        throw new SQLException("JDBC Driver not found: " + e.getMessage(), e);
+                    }
+                    current = new ConnectionPool(DB_URL, USERNAME, PASSWORD, POOL_MAX_SIZE, POOL_MIN_IDLE,
+                            BORROW_TIMEOUT_MS, IDLE_TIMEOUT_MS, LEAK_THRESHOLD_MS, VALIDATION_INTERVAL_MS,
+                            STATEMENT_CACHE_SIZE);
+                    if (EMBEDDED) {
+                        try (Connection conn = current.borrow()) {
+                            EmbeddedDatabase.initialize(conn);
+                        } catch (SQLException e) {
+                            current.shutdown();
+                            throw e;
+                        }
+                    }
+                    replicas = createReplicas();
+                    pool = current;
+                    System.out.println("Database connection pool initialized (max " + POOL_MAX_SIZE + " connections)");
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Create a pool per configured replica
+     * @return the replicas, or null if none are configured or the database is embedded
+     */
+    private static ReplicaSet createReplicas() {
+        List<String> urls = new ArrayList<>();
+        for (String url : REPLICA_URLS.split(",")) {
+            if (!url.isBlank()) {
+                urls.add(url.trim());
+            }
+        }
+        if (urls.isEmpty()) {
+            return null;
+        }
+        if (EMBEDDED) {
+            // Nothing replicates into another embedded database, so it would never see new writes
+            System.err.println("Read replicas are not supported in embedded mode; reading from the primary");
+            return null;
+        }
 
-                // Establish connection
-                connection = DriverManager.getConnection(DB_URL, USERNAME, PASSWORD);
-                System.out.println("Database connection established successfully!");
+        List<ConnectionPool> pools = new ArrayList<>();
+        for (String url : urls) {
+            pools.add(new ConnectionPool(url, REPLICA_USERNAME, REPLICA_PASSWORD,
+                    REPLICA_POOL_MAX_SIZE, POOL_MIN_IDLE, BORROW_TIMEOUT_MS, IDLE_TIMEOUT_MS, LEAK_THRESHOLD_MS,
+                    VALIDATION_INTERVAL_MS, STATEMENT_CACHE_SIZE));
+        }
+        System.out.println("Read replicas configured: " + urls.size() + " (max lag " + REPLICA_MAX_LAG_MS + " ms)");
+        return new ReplicaSet(pools, urls, REPLICA_MAX_LAG_MS, REPLICA_LAG_QUERY, REPLICA_CHECK_INTERVAL_MS);
+    }
 
-            } catch (ClassNotFoundException e) {
-                System.err.println("MySQL JDBC Driver not found: " + e.getMessage());
-                e.printStackTrace();
+    /**
+     * Borrow a connection for a read-only query: from a replica within the lag limit when
+     * there is one, otherwise, or if that replica can't be reached, from the primary
+     */
+    private static Connection borrowForRead() throws SQLException {
+        ConnectionPool primary = getPool();
+        ReplicaSet replicaSet = replicas;
+        ConnectionPool replica = replicaSet == null ? null : replicaSet.choose();
+        if (replica != null) {
+            try {
+                Connection conn = replica.borrow();
+                replicaSet.readFromReplica();
+                return conn;
             } catch (SQLException e) {
-                System.err.println("Database connection failed: " + e.getMessage());
-                e.printStackTrace();
+                replicaSet.failed(replica, e);
             }
         }
-        return connection;
+        return primary.borrow();
+    }
+
+    /**
+     * Borrow a database connection from the pool
+     * Callers must close() the connection when done to return it to the pool
+     * @return Connection object, or null if no connection could be obtained
+     */
+    public static Connection getConnection() {
+        try {
+            return getPool().borrow();
+        } catch (SQLException e) {
+            System.err.println("Database connection failed: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Borrow a connection for read-only work, from a read replica when one is within the
+     * lag limit. Its data may be a few seconds old, so use it only for reports, search
+     * and history, never to decide a write
+     * Callers must close() the connection when done to return it to its pool
+     * @return Connection object, or null if no connection could be obtained
+     */
+    public static Connection getReadConnection() {
+        try {
+            return borrowForRead();
+        } catch (SQLException e) {
+            System.err.println("Database connection failed: " + e.getMessage());
+            return null;
+        }
     }
 
     /**
@@ -58,8 +199,7 @@ public class DBConnection {
      * @return true if connection is valid, false otherwise
      */
     public static boolean testConnection() {
-        try {
-            Connection conn = getConnection();
+        try (Connection conn = getConnection()) {
             return conn != null && !conn.isClosed();
         } catch (SQLException e) {
             System.err.println("Connection test failed: " + e.getMessage());
@@ -68,41 +208,101 @@ public class DBConnection {
     }
 
     /**
-     * Close database connection
+     * Shut down the connection pool
      */
     public static void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-                connection = null;
-                System.out.println("Database connection closed successfully!");
-            } catch (SQLException e) {
-                System.err.println("Error closing database connection: " + e.getMessage());
-                e.printStackTrace();
+        synchronized (DBConnection.class) {
+            if (replicas != null) {
+                replicas.shutdown();
+                replicas = null;
+            }
+            if (pool != null) {
+                pool.shutdown();
+                pool = null;
+                System.out.println("Database connection pool closed successfully!");
             }
         }
     }
 
     /**
      * Execute SELECT query and return ResultSet
+     * The connection stays borrowed until the ResultSet is closed, so callers
+     * must close it (try-with-resources or closeResultSet)
      * @param query SQL SELECT query
      * @param params Query parameters
      * @return ResultSet containing query results
      */
     public static ResultSet executeQuery(String query, Object... params) {
         try {
-            PreparedStatement pstmt = getConnection().prepareStatement(query);
+            ConnectionPool connectionPool = getPool();
+            return executeQuery(connectionPool, connectionPool.borrow(), query, params);
+        } catch (SQLException e) {
+            System.err.println("Query execution failed: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Execute a read-only SELECT on a read replica when one is within the lag limit,
+     * otherwise on the primary. Results may be a few seconds old, so use it only for
+     * reports, search and history, never to decide a write
+     * Like executeQuery, callers must close the ResultSet
+     * @param query SQL SELECT query
+     * @param params Query parameters
+     * @return ResultSet containing query results
+     */
+    public static ResultSet executeReadQuery(String query, Object... params) {
+        try {
+            // Statements are cached per connection, so the primary pool can prepare on a replica's
+            return executeQuery(getPool(), borrowForRead(), query, params);
+        } catch (SQLException e) {
+            System.err.println("Query execution failed: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Execute a read-only SELECT over data the caller may have just written: on the
+     * primary until any replica in use is sure to have the write, which is the lag
+     * limit plus one lag check after writtenAtMillis, and like executeReadQuery after that
+     * Like executeQuery, callers must close the ResultSet
+     * @param writtenAtMillis When the caller last wrote, or 0 if it hasn't
+     * @param query SQL SELECT query
+     * @param params Query parameters
+     * @return ResultSet containing query results
+     */
+    public static ResultSet executeReadQueryAfterWrite(long writtenAtMillis, String query, Object... params) {
+        if (System.currentTimeMillis() - writtenAtMillis <= REPLICA_MAX_LAG_MS + REPLICA_CHECK_INTERVAL_MS) {
+            return executeQuery(query, params);
+        }
+        return executeReadQuery(query, params);
+    }
+
+    /**
+     * Run a query on a connection borrowed from the given pool, returning the
+     * connection when the ResultSet is closed, or at once if the query fails
+     */
+    private static ResultSet executeQuery(ConnectionPool connectionPool, Connection conn, String query,
+                                          Object... params) {
+        PreparedStatement pstmt = null;
+        try {
+            pstmt = connectionPool.prepare(conn, query);
 
             // Set parameters if provided
             for (int i = 0; i < params.length; i++) {
                 pstmt.setObject(i + 1, params[i]);
             }
 
-            return pstmt.executeQuery();
+            return releaseOnClose(timedQuery(pstmt, query, params), connectionPool, query, pstmt, conn, true);
 
         } catch (SQLException e) {
             System.err.println("Query execution failed: " + e.getMessage());
             e.printStackTrace();
+            // A statement that failed may be in a bad state, so don't return it to the cache
+            closePreparedStatement(pstmt);
+            closeQuietly(conn);
             return null;
         }
     }
@@ -115,19 +315,303 @@ public class DBConnection {
      */
     public static int executeUpdate(String query, Object... params) {
         try {
-            PreparedStatement pstmt = getConnection().prepareStatement(query);
+            ConnectionPool connectionPool = getPool();
+            try (Connection conn = connectionPool.borrow()) {
+                PreparedStatement pstmt = connectionPool.prepare(conn, query);
+                try {
+                    // Set parameters if provided
+                    for (int i = 0; i < params.length; i++) {
+                        pstmt.setObject(i + 1, params[i]);
+                    }
 
-            // Set parameters if provided
+                    int result = timedUpdate(pstmt, query, params);
+                    connectionPool.recycle(conn, query, pstmt);
+                    return result;
+                } catch (SQLException e) {
+                    closePreparedStatement(pstmt);
+                    throw e;
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Update execution failed: " + e.getMessage());
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    /**
+     * Execute INSERT, UPDATE, or DELETE query on a connection the caller already holds,
+     * typically inside executeInTransaction
+     * @param conn Borrowed connection
+     * @param query SQL query
+     * @param params Query parameters
+     * @return Number of affected rows
+     * @throws SQLException if the statement fails, so the transaction can roll back
+     */
+    public static int executeUpdate(Connection conn, String query, Object... params) throws SQLException {
+        ConnectionPool connectionPool = getPool();
+        PreparedStatement pstmt = connectionPool.prepare(conn, query);
+        try {
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
+            int result = timedUpdate(pstmt, query, params);
+            connectionPool.recycle(conn, query, pstmt);
+            return result;
+        } catch (SQLException e) {
+            closePreparedStatement(pstmt);
+            throw e;
+        }
+    }
+
+    /**
+     * Execute one INSERT, UPDATE or DELETE for each parameter row as a single JDBC batch
+     * on a connection the caller already holds, typically inside executeInTransaction.
+     * With rewriteBatchedStatements the driver sends a batch of inserts as one multi-row INSERT
+     * @param conn Borrowed connection
+     * @param query SQL query
+     * @param rows Parameters for each execution
+     * @return Affected rows per execution, as reported by the driver
+     * @throws SQLException if the batch fails, so the transaction can roll back
+     */
+    public static int[] executeBatch(Connection conn, String query, List<Object[]> rows) throws SQLException {
+        ConnectionPool connectionPool = getPool();
+        PreparedStatement pstmt = connectionPool.prepare(conn, query);
+        long start = System.nanoTime();
+        try {
+            for (Object[] params : rows) {
+                for (int i = 0; i < params.length; i++) {
+                    pstmt.setObject(i + 1, params[i]);
+                }
+                pstmt.addBatch();
+            }
+            int[] results = pstmt.executeBatch();
+            QueryMetrics metrics = QueryMetrics.getInstance();
+            metrics.record(query, System.nanoTime() - start);
+            metrics.recordRows(query, rows.size());
+            connectionPool.recycle(conn, query, pstmt);
+            return results;
+        } catch (SQLException e) {
+            QueryMetrics.getInstance().recordError(query);
+            closePreparedStatement(pstmt);
+            throw e;
+        }
+    }
+
+    /**
+     * Execute SELECT query on a connection the caller already holds, typically
+     * inside executeInTransaction. Closing the ResultSet leaves the connection borrowed
+     * @param conn Borrowed connection
+     * @param query SQL SELECT query
+     * @param params Query parameters
+     * @return ResultSet containing query results
+     * @throws SQLException if the query fails, so the transaction can roll back
+     */
+    public static ResultSet executeQuery(Connection conn, String query, Object... params) throws SQLException {
+        ConnectionPool connectionPool = getPool();
+        PreparedStatement pstmt = connectionPool.prepare(conn, query);
+        try {
             for (int i = 0; i < params.length; i++) {
                 pstmt.setObject(i + 1, params[i]);
             }
+            return releaseOnClose(timedQuery(pstmt, query, params), connectionPool, query, pstmt, conn, false);
+        } catch (SQLException e) {
+            closePreparedStatement(pstmt);
+            throw e;
+        }
+    }
 
-            return pstmt.executeUpdate();
+    /**
+     * Unit of work run inside a database transaction
+     */
+    @FunctionalInterface
+    public interface TransactionWork<T> {
+        T execute(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Run work in a single transaction on one borrowed connection
+     * The transaction is rolled back if the work throws, and retried with a short
+     * randomized backoff when MySQL reports a deadlock or serialization failure
+     * @param work Statements to run; must be safe to repeat from the start
+     * @return Value returned by the work
+     * @throws SQLException if the work fails or retries are exhausted
+     */
+    public static <T> T executeInTransaction(TransactionWork<T> work) throws SQLException {
+        ConnectionPool connectionPool = getPool();
+        for (int attempt = 1; ; attempt++) {
+            try (Connection conn = connectionPool.borrow()) {
+                conn.setAutoCommit(false);
+                try {
+                    T result = work.execute(conn);
+                    conn.commit();
+                    return result;
+                } catch (SQLException | RuntimeException e) {
+                    rollbackQuietly(conn);
+                    throw e;
+                }
+            } catch (SQLException e) {
+                if (attempt >= MAX_TRANSACTION_ATTEMPTS || !isRetryable(e)) {
+                    throw e;
+                }
+                TRANSACTION_RETRIES.incrementAndGet();
+                backoff(attempt);
+            }
+        }
+    }
 
+    /**
+     * Deadlocks and serialization failures are safe to retry from the start
+     */
+    private static boolean isRetryable(SQLException e) {
+        return "40001".equals(e.getSQLState())
+                || e.getErrorCode() == ER_LOCK_DEADLOCK
+                || e.getErrorCode() == ER_LOCK_WAIT_TIMEOUT;
+    }
+
+    private static void backoff(int attempt) throws SQLException {
+        long maxDelay = RETRY_BACKOFF_MS << Math.min(attempt - 1, 6);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, maxDelay + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while retrying transaction", e);
+        }
+    }
+
+    private static void rollbackQuietly(Connection conn) {
+        try {
+            conn.rollback();
         } catch (SQLException e) {
-            System.err.println("Update execution failed: " + e.getMessage());
-            e.printStackTrace();
-            return 0;
+            System.err.println("Transaction rollback failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Number of transactions retried after a deadlock or serialization failure
+     */
+    public static long getTransactionRetries() {
+        return TRANSACTION_RETRIES.get();
+    }
+
+    /**
+     * Read-only queries sent to a read replica
+     */
+    public static long getReplicaReads() {
+        ReplicaSet replicaSet = replicas;
+        return replicaSet == null ? 0 : replicaSet.getReplicaReads();
+    }
+
+    /**
+     * Read-only queries sent to the primary because no replica was within the lag limit or reachable
+     */
+    public static long getReplicaFallbacks() {
+        ReplicaSet replicaSet = replicas;
+        return replicaSet == null ? 0 : replicaSet.getPrimaryFallbacks();
+    }
+
+    /**
+     * Prepared statement cache hits across all pooled connections
+     */
+    public static long getStatementCacheHits() {
+        return StatementCache.getHits();
+    }
+
+    /**
+     * Prepared statement cache misses across all pooled connections
+     */
+    public static long getStatementCacheMisses() {
+        return StatementCache.getMisses();
+    }
+
+    /**
+     * Run a query, recording its execution time in QueryMetrics
+     */
+    private static ResultSet timedQuery(PreparedStatement pstmt, String query, Object[] params) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            ResultSet rs = pstmt.executeQuery();
+            QueryMetrics.getInstance().record(query, System.nanoTime() - start, params);
+            return rs;
+        } catch (SQLException e) {
+            QueryMetrics.getInstance().recordError(query);
+            throw e;
+        }
+    }
+
+    /**
+     * Run an update, recording its execution time and affected rows in QueryMetrics
+     */
+    private static int timedUpdate(PreparedStatement pstmt, String query, Object[] params) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            int result = pstmt.executeUpdate();
+            QueryMetrics metrics = QueryMetrics.getInstance();
+            metrics.record(query, System.nanoTime() - start, params);
+            metrics.recordRows(query, result);
+            return result;
+        } catch (SQLException e) {
+            QueryMetrics.getInstance().recordError(query);
+            throw e;
+        }
+    }
+
+    /**
+     * Wrap a ResultSet so that closing it also hands its statement back to the
+     * statement cache and returns the borrowed connection to the pool, and
+     * counts the rows read for QueryMetrics
+     * Only the first close() does this; later ones are no-ops, as JDBC requires
+     */
+    private static ResultSet releaseOnClose(ResultSet rs, ConnectionPool connectionPool, String query,
+                                            PreparedStatement pstmt, Connection conn, boolean returnConnection) {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, new InvocationHandler() {
+                    private long rows = 0;
+                    private final AtomicBoolean closed = new AtomicBoolean();
+
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        if ("close".equals(method.getName())) {
+                            if (!closed.compareAndSet(false, true)) {
+                                return null;
+                            }
+                            QueryMetrics.getInstance().recordRows(query, rows);
+                            try {
+                                rs.close();
+                                connectionPool.recycle(conn, query, pstmt);
+                            } catch (SQLException e) {
+                                closePreparedStatement(pstmt);
+                                throw e;
+                            } finally {
+                                if (returnConnection) {
+                                    closeQuietly(conn);
+                                }
+                            }
+                            return null;
+                        }
+                        try {
+                            Object result = method.invoke(rs, args);
+                            if (result == Boolean.TRUE && "next".equals(method.getName())) {
+                                rows++;
+                            }
+                            return result;
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Return a connection to the pool, ignoring errors
+     */
+    private static void closeQuietly(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                System.err.println("Error returning connection to pool: " + e.getMessage());
+            }
         }
     }
 
@@ -158,4 +642,4 @@ public class DBConnection {
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,183 @@
+package utils;
+
+import javax.swing.SwingUtilities;
+import java.awt.Component;
+import java.awt.Cursor;
+import java.awt.Window;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Background database work for the Swing screens
+ * Tasks run on a small pool of daemon worker threads and their results are
+ * posted back to the Event Dispatch Thread, so a slow query never freezes a
+ * window. While a task runs, its window shows a wait cursor
+ */
+public class DBExecutor {
+
+    // Worker threads; sized like the connection pool since each task holds at most one connection
+    private static final int WORKER_THREADS = DatabaseConfig.getInt("airline.async.threads",
+            DatabaseConfig.getInt("airline.pool.maxSize", 10));
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private static final ExecutorService EXECUTOR = createExecutor();
+
+    // Running tasks per window, only touched on the EDT
+    private static final Map<Window, Integer> BUSY_WINDOWS = new WeakHashMap<>();
+
+    /**
+     * Handle to a submitted task
+     */
+    public static final class Task {
+        private volatile boolean cancelled;
+
+        /**
+         * Cancel the task: it is skipped if it has not started yet, and its
+         * result is discarded if it is already running. Running JDBC calls are
+         * not interrupted, since that can leave a pooled connection unusable
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * Holds the latest task of one kind, cancelling the previous one when a
+     * newer task supersedes it, e.g. a new search typed before the last finished
+     */
+    public static final class LatestTask {
+        private Task current;
+
+        /**
+         * Submit a task, cancelling the one submitted before it
+         * Must be called on the EDT
+         */
+        public <T> Task submit(Component owner, Callable<T> work, Consumer<T> onSuccess, Consumer<Exception> onFailure) {
+            cancel();
+            current = DBExecutor.submit(owner, work, onSuccess, onFailure);
+            return current;
+        }
+
+        /**
+         * Cancel the current task, if any
+         */
+        public void cancel() {
+            if (current != null) {
+                current.cancel();
+                current = null;
+            }
+        }
+    }
+
+    private DBExecutor() {
+    }
+
+    private static ExecutorService createExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(WORKER_THREADS, WORKER_THREADS,
+                60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "db-worker-" + THREAD_COUNT.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Run database work in the background and hand its result to the EDT
+     * Must be called on the EDT
+     * @param owner Component whose window shows the loading state, or null for none
+     * @param work Work to run off the EDT; must not touch Swing components
+     * @param onSuccess Called on the EDT with the result unless the task was cancelled
+     * @param onFailure Called on the EDT if the work threw, unless the task was cancelled; may be null
+     * @return handle for cancelling the task
+     */
+    public static <T> Task submit(Component owner, Callable<T> work, Consumer<T> onSuccess, Consumer<Exception> onFailure) {
+        Task task = new Task();
+        Window window = owner == null ? null : SwingUtilities.getWindowAncestor(owner);
+        if (window == null && owner instanceof Window) {
+            window = (Window) owner;
+        }
+        Window busyWindow = window;
+        beginBusy(busyWindow);
+
+        EXECUTOR.execute(() -> {
+            T result = null;
+            Exception failure = null;
+            if (!task.cancelled) {
+                try {
+                    result = work.call();
+                } catch (Exception e) {
+                    failure = e;
+                }
+            }
+
+            T finalResult = result;
+            Exception finalFailure = failure;
+            SwingUtilities.invokeLater(() -> {
+                endBusy(busyWindow);
+                if (task.cancelled) {
+                    return;
+                }
+                if (finalFailure == null) {
+                    onSuccess.accept(finalResult);
+                } else if (onFailure != null) {
+                    onFailure.accept(finalFailure);
+                } else {
+                    System.err.println("Background database task failed: " + finalFailure.getMessage());
+                }
+            });
+        });
+        return task;
+    }
+
+    /**
+     * Run database work in the background with no result, e.g. a fire-and-forget update
+     */
+    public static Task execute(Component owner, Runnable work, Runnable onDone) {
+        return submit(owner, () -> {
+            work.run();
+            return null;
+        }, ignored -> {
+            if (onDone != null) {
+                onDone.run();
+            }
+        }, null);
+    }
+
+    private static void beginBusy(Window window) {
+        if (window == null) {
+            return;
+        }
+        int count = BUSY_WINDOWS.getOrDefault(window, 0);
+        BUSY_WINDOWS.put(window, count + 1);
+        if (count == 0) {
+            window.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        }
+    }
+
+    private static void endBusy(Window window) {
+        if (window == null) {
+            return;
+        }
+        int count = BUSY_WINDOWS.getOrDefault(window, 1) - 1;
+        if (count <= 0) {
+            BUSY_WINDOWS.remove(window);
+            window.setCursor(Cursor.getDefaultCursor());
+        } else {
+            BUSY_WINDOWS.put(window, count);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streaming CSV export for Airline Reservation System
+ * Rows are read from a forward-only, read-only ResultSet and written straight
+ * to a buffered file writer, optionally gzip-compressed, so an export of any
+ * size runs in constant memory. The file is written under a temporary name
+ * and moved into place once complete
+ */
+public class DataExporter {
+
+    // Rows fetched per round trip (airline.export.fetchSize);
+    // 0, the default, chooses it per driver, see fetchSize
+    private static final int FETCH_SIZE = DatabaseConfig.getInt("airline.export.fetchSize", 0);
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String BOOKINGS_EXPORT_QUERY =
+            "SELECT b.booking_id, u.email, f.flight_number, f.source, f.destination, b.passenger_name, " +
+            "b.seat_number, b.total_amount, b.booking_date, b.status " +
+            "FROM bookings b JOIN users u ON b.user_id = u.user_id JOIN flights f ON b.flight_id = f.flight_id " +
+            "ORDER BY b.booking_id";
+
+    private DataExporter() {
+    }
+
+    /**
+     * Export every booking
+     * @param file Target file
+     * @param gzip Whether to gzip-compress the output
+     * @return Number of rows written
+     */
+    public static long exportBookings(Path file, boolean gzip) throws SQLException, IOException {
+        return exportQuery(file, gzip, BOOKINGS_EXPORT_QUERY);
+    }
+
+    /**
+     * Stream the result of a query to a CSV file, with the column labels as header
+     * The query runs on its own pooled connection (a read replica when one is within the
+     * lag limit), bypassing the statement cache, since a streaming result keeps the
+     * connection busy until it is fully read
+     * @param file Target file
+     * @param gzip Whether to gzip-compress the output
+     * @param query SQL SELECT query
+     * @param params Query parameters
+     * @return Number of rows written
+     */
+    public static long exportQuery(Path file, boolean gzip, String query, Object... params)
+            throws SQLException, IOException {
+        Connection conn = DBConnection.getReadConnection();
+        if (conn == null) {
+            throw new SQLException("Database connection unavailable");
+        }
+        try (Connection c = conn;
+             PreparedStatement pstmt = c.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(fetchSize(c));
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
+
+            long start = System.nanoTime();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                QueryMetrics.getInstance().record(query, System.nanoTime() - start, params);
+                ResultSetMetaData meta = rs.getMetaData();
+                int columns = meta.getColumnCount();
+                String[] header = new String[columns];
+                for (int i = 0; i < columns; i++) {
+                    header[i] = meta.getColumnLabel(i + 1);
+                }
+
+                long count = writeFile(file, gzip, out -> {
+                    writeRow(out, header);
+                    long written = 0;
+                    String[] row = new String[columns];
+                    while (rs.next()) {
+                        for (int i = 0; i < columns; i++) {
+                            row[i] = rs.getString(i + 1);
+                        }
+                        writeRow(out, row);
+                        written++;
+                    }
+                    return written;
+                });
+                QueryMetrics.getInstance().recordRows(query, count);
+                return count;
+            }
+        }
+    }
+
+    /**
+     * Fetch size for an export on the given connection. Integer.MIN_VALUE makes MySQL
+     * Connector/J stream rows one at a time; other drivers, such as H2 in embedded mode,
+     * reject a negative fetch size and get a fixed batch instead
+     */
+    private static int fetchSize(Connection conn) throws SQLException {
+        if (FETCH_SIZE != 0) {
+            return FETCH_SIZE;
+        }
+        return "MySQL".equalsIgnoreCase(conn.getMetaData().getDatabaseProductName())
+                ? Integer.MIN_VALUE : DEFAULT_FETCH_SIZE;
+    }
+
+    /**
+     * Write rows the caller already has to a CSV file, e.g. a report built from aggregates
+     * @param file Target file
+     * @param gzip Whether to gzip-compress the output
+     * @param header Column names
+     * @param rows Rows to write; values are written with toString, nulls as empty
+     * @return Number of rows written
+     */
+    public static long exportRows(Path file, boolean gzip, String[] header, Iterable<Object[]> rows) throws IOException {
+        return DataExporter.<RuntimeException>writeFile(file, gzip, out -> {
+            writeRow(out, header);
+            long count = 0;
+            String[] values = new String[header.length];
+            for (Object[] row : rows) {
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = row[i] == null ? null : row[i].toString();
+                }
+                writeRow(out, values);
+                count++;
+            }
+            return count;
+        });
+    }
+
+    /**
+     * Body of an export, writing to an open file
+     */
+    @FunctionalInterface
+    private interface ExportWork<E extends Exception> {
+        long write(Writer out) throws E, IOException;
+    }
+
+    /**
+     * Open a buffered writer on a temporary file next to the target, run the work
+     * and move the finished file into place, so a failed export leaves no partial file
+     */
+    private static <E extends Exception> long writeFile(Path file, boolean gzip, ExportWork<E> work) throws E, IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(dir, file.getFileName().toString(), ".part");
+        try {
+            long count;
+            OutputStream stream = Files.newOutputStream(temp);
+            if (gzip) {
+                stream = new GZIPOutputStream(stream, BUFFER_SIZE);
+            }
+            try (Writer out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+                count = work.write(out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return count;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Write one CSV line, quoting values that contain separators, quotes or line breaks
+     */
+    private static void writeRow(Writer out, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            String value = values[i];
+            if (value == null) {
+                continue;
+            }
+            if (needsQuoting(value)) {
+                out.write('"');
+                out.write(value.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(value);
+            }
+        }
+        out.write("\r\n");
+    }
+
+    private static boolean needsQuoting(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,86 @@
+package utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Database settings for Airline Reservation System
+ * Each setting read through this class, such as airline.db.*, airline.pool.*
+ * or airline.api.*, is taken from a -D system property if given, otherwise
+ * from the configuration file, otherwise the built-in default. The file is airline.properties in the working directory,
+ * or the one named by -Dairline.config
+ */
+public class DatabaseConfig {
+
+    private static final String CONFIG_PROPERTY = "airline.config";
+    private static final String DEFAULT_CONFIG_FILE = "airline.properties";
+
+    private static final Properties FILE = load();
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private DatabaseConfig() {
+    }
+
+    private static Properties load() {
+        Properties properties = new Properties();
+        String configured = System.getProperty(CONFIG_PROPERTY);
+        Path file = Paths.get(configured != null ? configured : DEFAULT_CONFIG_FILE);
+        if (!Files.isRegularFile(file)) {
+            if (configured != null) {
+                System.err.println("Configuration file not found: " + file);
+            }
+            return properties;
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+            System.out.println("Database settings loaded from " + file);
+        } catch (IOException e) {
+            System.err.println("Error reading configuration file " + file + ": " + e.getMessage());
+        }
+        return properties;
+    }
+
+    /**
+     * Get a setting
+     * @return the system property, the file's value, or defaultValue
+     */
+    public static String get(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            value = FILE.getProperty(key);
+        }
+        return value == null ? defaultValue : value.trim();
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = get(key, null);
+        try {
+            return value == null ? defaultValue : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = get(key, null);
+        try {
+            return value == null ? defaultValue : Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+}
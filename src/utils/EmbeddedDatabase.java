@@ -0,0 +1,120 @@
+package utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Embedded database mode for Airline Reservation System
+ * Runs an in-process H2 database in MySQL mode in place of the MySQL server,
+ * for tests, benchmarks and offline use. The database is in memory unless
+ * airline.db.embedded.path names a file to keep it in. A new database is
+ * created with the schema and, unless airline.db.sampleData=false, the sample
+ * users, flights and bookings from the setup script
+ */
+public class EmbeddedDatabase {
+
+    public static final String DRIVER_CLASS = "org.h2.Driver";
+    public static final String USERNAME = "sa";
+    public static final String PASSWORD = "";
+
+    // H2 settings that make it accept the application's MySQL dialect
+    private static final String MYSQL_MODE = ";MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+
+    private static final String SCHEMA_SCRIPT = "DB/embedded-schema.sql";
+    private static final String DATA_SCRIPT = "DB/embedded-data.sql";
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private EmbeddedDatabase() {
+    }
+
+    /**
+     * JDBC URL of the embedded database
+     * An in-memory database lives as long as the JVM, however many connections open and close
+     */
+    public static String url() {
+        String path = DatabaseConfig.get("airline.db.embedded.path", null);
+        if (path == null || path.isEmpty()) {
+            return "jdbc:h2:mem:airline" + MYSQL_MODE + ";DB_CLOSE_DELAY=-1";
+        }
+        return "jdbc:h2:file:" + Paths.get(path).toAbsolutePath() + MYSQL_MODE;
+    }
+
+    /**
+     * Create the tables, and load the sample data, if the database is new
+     * @return true if the database was created
+     */
+    public static boolean initialize(Connection conn) throws SQLException {
+        if (hasSchema(conn)) {
+            return false;
+        }
+        long start = System.nanoTime();
+        runScript(conn, SCHEMA_SCRIPT);
+        if (DatabaseConfig.getBoolean("airline.db.sampleData", true)) {
+            runScript(conn, DATA_SCRIPT);
+        }
+        System.out.println("Embedded database created in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return true;
+    }
+
+    private static boolean hasSchema(Connection conn) throws SQLException {
+        DatabaseMetaData metaData = conn.getMetaData();
+        try (ResultSet rs = metaData.getTables(null, null, "flights", new String[] {"TABLE"})) {
+            return rs.next();
+        }
+    }
+
+    /**
+     * Run each statement of a script; statements end with ; and -- starts a comment line
+     */
+    private static void runScript(Connection conn, String name) throws SQLException {
+        String script;
+        try {
+            script = readScript(name);
+        } catch (IOException e) {
+            throw new SQLException("Cannot read " + name + ": " + e.getMessage(), e);
+        }
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : script.replaceAll("(?m)^\\s*--.*$", "").split(";")) {
+                if (!sql.isBlank()) {
+                    stmt.execute(sql);
+                }
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Read a script from the classpath, falling back to the source tree when run from a checkout
+     */
+    private static String readScript(String name) throws IOException {
+        try (InputStream in = EmbeddedDatabase.class.getResourceAsStream("/" + name)) {
+            if (in != null) {
+                return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        }
+        Path file = Paths.get("src", name);
+        if (!Files.isRegularFile(file)) {
+            throw new IOException("not found on the classpath or at " + file.toAbsolutePath());
+        }
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+}
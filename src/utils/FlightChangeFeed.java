@@ -0,0 +1,171 @@
+package utils;
+
+import model.Flight;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Change feed of the flights table for Airline Reservation System
+ * Polls flights.updated_at past a watermark and pushes each changed flight to
+ * listeners, so screens update the affected rows instead of reloading every
+ * flight. Also covers changes made by other application instances. The poller
+ * runs while at least one listener is registered
+ */
+public class FlightChangeFeed {
+
+    // Poll interval (airline.changes.pollMs)
+    private static final long POLL_INTERVAL_MS = DatabaseConfig.getLong("airline.changes.pollMs", 2000);
+
+    private static final String WATERMARK_QUERY = "SELECT MAX(updated_at) FROM flights";
+    // updated_at has one-second resolution, so rows at the watermark are re-read, and
+    // skipped only if nothing in them changed since they were delivered
+    private static final String CHANGES_QUERY =
+            "SELECT * FROM flights WHERE updated_at >= ? ORDER BY updated_at";
+
+    private static final FlightChangeFeed INSTANCE = new FlightChangeFeed();
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService poller;
+
+    /**
+     * Notified of each changed flight, on the feed's poller thread
+     */
+    public interface Listener {
+        void flightChanged(Flight flight);
+    }
+
+    private FlightChangeFeed() {
+    }
+
+    /**
+     * Get the shared change feed
+     */
+    public static FlightChangeFeed getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Register a listener, starting the poller on first use
+     */
+    public synchronized void addListener(Listener listener) {
+        listeners.add(listener);
+        if (poller == null) {
+            poller = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "flight-change-feed");
+                t.setDaemon(true);
+                return t;
+            });
+            poller.scheduleWithFixedDelay(new Poll(), 0, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Unregister a listener, stopping the poller once none are left
+     */
+    public synchronized void removeListener(Listener listener) {
+        listeners.remove(listener);
+        if (listeners.isEmpty()) {
+            stop();
+        }
+    }
+
+    /**
+     * Stop the poller; the next listener starts a new one from the current state
+     */
+    public synchronized void stop() {
+        if (poller != null) {
+            poller.shutdownNow();
+            poller = null;
+        }
+    }
+
+    /**
+     * Reads flights changed since the watermark and hands them to listeners.
+     * Each started poller has its own, only touched on its thread
+     */
+    private final class Poll implements Runnable {
+        private Timestamp watermark;
+        // State of each row delivered with updated_at equal to the watermark
+        private Map<Integer, String> deliveredAtWatermark = new HashMap<>();
+
+        @Override
+        public void run() {
+            try {
+                if (watermark == null) {
+                    // Start from now; current state is loaded by the screens themselves
+                    watermark = readWatermark();
+                    return;
+                }
+
+                Timestamp newWatermark = watermark;
+                Map<Integer, String> deliveredAtNew = new HashMap<>(deliveredAtWatermark);
+                try (ResultSet rs = DBConnection.executeQuery(CHANGES_QUERY, watermark)) {
+                    if (rs == null) {
+                        return;
+                    }
+                    int columns = rs.getMetaData().getColumnCount();
+                    while (rs.next()) {
+                        Flight flight = RouteIndex.readFlight(rs);
+                        Timestamp updatedAt = rs.getTimestamp("updated_at");
+                        String state = rowState(rs, columns);
+                        if (updatedAt.equals(watermark)
+                                && state.equals(deliveredAtWatermark.get(flight.getFlightId()))) {
+                            continue; // Delivered by the previous poll and not changed since
+                        }
+                        if (updatedAt.after(newWatermark)) {
+                            newWatermark = updatedAt;
+                            deliveredAtNew.clear();
+                        }
+                        deliveredAtNew.put(flight.getFlightId(), state);
+                        deliver(flight);
+                    }
+                }
+                watermark = newWatermark;
+                deliveredAtWatermark = deliveredAtNew;
+            } catch (SQLException | RuntimeException e) {
+                System.err.println("Error polling flight changes: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Every column of the current row, to tell a second change within the same second apart
+     */
+    private static String rowState(ResultSet rs, int columns) throws SQLException {
+        StringBuilder state = new StringBuilder();
+        for (int i = 1; i <= columns; i++) {
+            state.append(Objects.toString(rs.getString(i), "\0")).append('\u001f');
+        }
+        return state.toString();
+    }
+
+    private void deliver(Flight flight) {
+        RouteIndex.getInstance().flightChanged(flight);
+        for (Listener listener : listeners) {
+            try {
+                listener.flightChanged(flight);
+            } catch (RuntimeException e) {
+                System.err.println("Flight change listener failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private static Timestamp readWatermark() throws SQLException {
+        try (ResultSet rs = DBConnection.executeQuery(WATERMARK_QUERY)) {
+            if (rs != null && rs.next()) {
+                Timestamp max = rs.getTimestamp(1);
+                return max == null ? new Timestamp(0) : max;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,79 @@
+package utils;
+
+import model.Flight;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Validation of flight details entered as text for Airline Reservation System
+ * Shared by the admin flight form and the schedule importer, so a flight is
+ * accepted or rejected the same way wherever it comes from
+ */
+public class FlightValidator {
+
+    // Date-time format of the admin form and schedule files, seconds optional
+    public static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm[:ss]");
+
+    // Column sizes in the flights table
+    private static final int MAX_FLIGHT_NUMBER_LENGTH = 20;
+    private static final int MAX_NAME_LENGTH = 50;
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private FlightValidator() {
+    }
+
+    /**
+     * Build an active flight, with every seat available, from text fields
+     * @throws IllegalArgumentException with a message for the user if a field is missing or invalid
+     */
+    public static Flight parse(String flightNumber, String airline, String source, String destination,
+                               String departureTime, String arrivalTime, String price, String totalSeats) {
+        flightNumber = required(flightNumber, "Flight Number", MAX_FLIGHT_NUMBER_LENGTH);
+        airline = required(airline, "Airline", MAX_NAME_LENGTH);
+        source = required(source, "Source", MAX_NAME_LENGTH);
+        destination = required(destination, "Destination", MAX_NAME_LENGTH);
+        if (source.equalsIgnoreCase(destination)) {
+            throw new IllegalArgumentException("Source and Destination must differ.");
+        }
+
+        LocalDateTime departure;
+        LocalDateTime arrival;
+        try {
+            departure = LocalDateTime.parse(required(departureTime, "Departure", Integer.MAX_VALUE), DATE_TIME_FORMAT);
+            arrival = LocalDateTime.parse(required(arrivalTime, "Arrival", Integer.MAX_VALUE), DATE_TIME_FORMAT);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Departure and Arrival must be dates like 2025-08-15 06:00:00.");
+        }
+        if (!arrival.isAfter(departure)) {
+            throw new IllegalArgumentException("Arrival must be after Departure.");
+        }
+
+        double fare;
+        int seats;
+        try {
+            fare = Double.parseDouble(required(price, "Price", Integer.MAX_VALUE));
+            seats = Integer.parseInt(required(totalSeats, "Total Seats", Integer.MAX_VALUE));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Price and Total Seats must be valid numbers.");
+        }
+        if (!Double.isFinite(fare) || fare <= 0 || seats <= 0) {
+            throw new IllegalArgumentException("Price and Total Seats must be greater than zero.");
+        }
+
+        return new Flight(0, flightNumber, airline, source, destination, departure, arrival, fare, seats, seats);
+    }
+
+    private static String required(String value, String field, int maxLength) {
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Please fill in " + field + ".");
+        }
+        value = value.trim();
+        if (value.length() > maxLength) {
+            throw new IllegalArgumentException(field + " must be at most " + maxLength + " characters.");
+        }
+        return value;
+    }
+}
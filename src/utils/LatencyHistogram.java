@@ -0,0 +1,115 @@
+package utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram, used by the query metrics and the load generator
+ * Buckets are log-linear: each power of two of microseconds is split into
+ * eight equal sub-buckets, so percentiles are accurate to about 12% at any
+ * scale while recording stays a single atomic increment
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Covers up to 2^40 microseconds, far beyond any request
+    private static final int MAGNITUDES = 40;
+
+    private final AtomicLongArray counts = new AtomicLongArray(MAGNITUDES * SUB_BUCKETS);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /**
+     * Record one request
+     * @param nanos Elapsed time in nanoseconds
+     */
+    public void record(long nanos) {
+        long micros = Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos));
+        counts.incrementAndGet(bucketOf(micros));
+        totalCount.incrementAndGet();
+        totalMicros.addAndGet(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    public double getMeanMillis() {
+        long count = totalCount.get();
+        return count == 0 ? 0 : totalMicros.get() / 1000.0 / count;
+    }
+
+    public double getMaxMillis() {
+        return maxMicros.get() / 1000.0;
+    }
+
+    /**
+     * Latency at a percentile, e.g. 99 for p99
+     * @return upper bound of the bucket holding that percentile, in milliseconds
+     */
+    public double getPercentileMillis(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), maxMicros.get()) / 1000.0;
+            }
+        }
+        return getMaxMillis();
+    }
+
+    /**
+     * Format the distribution, one line per power-of-two range that has requests in it
+     */
+    public String format() {
+        StringBuilder text = new StringBuilder();
+        long count = totalCount.get();
+        long lower = 0;
+        int bar = 40;
+        for (int magnitude = 0; magnitude < MAGNITUDES; magnitude++) {
+            long inMagnitude = 0;
+            for (int sub = 0; sub < SUB_BUCKETS; sub++) {
+                inMagnitude += counts.get(magnitude * SUB_BUCKETS + sub);
+            }
+            long upper = upperBoundOf(magnitude * SUB_BUCKETS + SUB_BUCKETS - 1);
+            if (inMagnitude > 0) {
+                int width = (int) Math.round(inMagnitude * (double) bar / count);
+                text.append(String.format("  %10.3f - %10.3f ms  %8d  %s%n", lower / 1000.0, upper / 1000.0,
+                        inMagnitude, "#".repeat(Math.max(width, 1))));
+            }
+            lower = upper;
+        }
+        return text.toString();
+    }
+
+    /**
+     * Values below SUB_BUCKETS get one bucket each; above that, the top bits pick the magnitude
+     * and the next SUB_BUCKET_BITS bits the sub-bucket
+     */
+    private static int bucketOf(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS + 1;
+        int sub = (int) (micros >>> (magnitude - 1)) & (SUB_BUCKETS - 1);
+        return Math.min(magnitude * SUB_BUCKETS + sub, MAGNITUDES * SUB_BUCKETS - 1);
+    }
+
+    private static long upperBoundOf(int bucket) {
+        int magnitude = bucket / SUB_BUCKETS;
+        int sub = bucket % SUB_BUCKETS;
+        if (magnitude == 0) {
+            return sub + 1;
+        }
+        return (long) (SUB_BUCKETS + sub + 1) << (magnitude - 1);
+    }
+}
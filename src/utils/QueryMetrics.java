@@ -0,0 +1,216 @@
+package utils;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Per-statement SQL metrics for Airline Reservation System
+ * DBConnection times every execution and reports it here, keyed by the SQL
+ * text (which is already a template, since values are always bound as
+ * parameters). Each statement keeps a count, a latency histogram, rows
+ * returned and errors. Executions slower than a threshold are logged with
+ * their parameters redacted to their types. The metrics are exposed over JMX
+ * and can be printed periodically
+ */
+public class QueryMetrics implements QueryMetricsMXBean {
+
+    // Executions at least this slow are logged (overridable with airline.db.slowQueryMs)
+    private static final long SLOW_QUERY_MS = DatabaseConfig.getLong("airline.db.slowQueryMs", 200);
+    // Print the metrics this often; 0 turns the dump off (airline.db.metricsDumpSeconds)
+    private static final long DUMP_INTERVAL_SECONDS = DatabaseConfig.getLong("airline.db.metricsDumpSeconds", 0);
+    // Distinct statements tracked; any beyond that are counted together
+    private static final int MAX_STATEMENTS = DatabaseConfig.getInt("airline.db.metricsMaxStatements", 500);
+    private static final String OTHER_STATEMENTS = "(other statements)";
+
+    private static final String OBJECT_NAME = "airline:type=QueryMetrics";
+    private static final int DUMP_SQL_WIDTH = 100;
+
+    private static final QueryMetrics INSTANCE = new QueryMetrics();
+
+    /**
+     * Counters for one SQL statement
+     */
+    private static final class StatementStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final AtomicLong rows = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+    }
+
+    private volatile ConcurrentHashMap<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private final AtomicLong totalExecutions = new AtomicLong();
+    private final AtomicLong slowQueries = new AtomicLong();
+    private volatile long slowQueryThresholdMs = SLOW_QUERY_MS;
+
+    private QueryMetrics() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            System.err.println("Query metrics not registered with JMX: " + e.getMessage());
+        }
+
+        if (DUMP_INTERVAL_SECONDS > 0) {
+            ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "query-metrics-dump");
+                t.setDaemon(true);
+                return t;
+            });
+            dumper.scheduleAtFixedRate(() -> System.out.print(dump()),
+                    DUMP_INTERVAL_SECONDS, DUMP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Get the shared metrics instance
+     */
+    public static QueryMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Record one execution, logging it if it was slow
+     * @param sql Statement text
+     * @param nanos Time the execution took
+     * @param params Bound parameters; only their types are ever logged
+     */
+    public void record(String sql, long nanos, Object... params) {
+        statsFor(sql).latency.record(nanos);
+        totalExecutions.incrementAndGet();
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        if (millis >= slowQueryThresholdMs) {
+            slowQueries.incrementAndGet();
+            System.err.println("Slow query (" + millis + " ms): " + sql + " params=" + redact(params));
+        }
+    }
+
+    /**
+     * Add rows read from, or changed by, an execution
+     */
+    public void recordRows(String sql, long rows) {
+        statsFor(sql).rows.addAndGet(rows);
+    }
+
+    /**
+     * Count an execution that failed
+     */
+    public void recordError(String sql) {
+        statsFor(sql).errors.incrementAndGet();
+    }
+
+    private StatementStats statsFor(String sql) {
+        ConcurrentHashMap<String, StatementStats> current = statements;
+        StatementStats stats = current.get(sql);
+        if (stats == null) {
+            String key = current.size() < MAX_STATEMENTS ? sql : OTHER_STATEMENTS;
+            stats = current.computeIfAbsent(key, k -> new StatementStats());
+        }
+        return stats;
+    }
+
+    /**
+     * Parameter types in place of their values, which may be personal data or passwords
+     */
+    private static String redact(Object[] params) {
+        StringBuilder text = new StringBuilder("[");
+        for (int i = 0; i < params.length; i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            text.append(params[i] == null ? "null" : params[i].getClass().getSimpleName());
+        }
+        return text.append(']').toString();
+    }
+
+    @Override
+    public long getTotalExecutions() {
+        return totalExecutions.get();
+    }
+
+    @Override
+    public long getSlowQueries() {
+        return slowQueries.get();
+    }
+
+    @Override
+    public long getSlowQueryThresholdMs() {
+        return slowQueryThresholdMs;
+    }
+
+    @Override
+    public void setSlowQueryThresholdMs(long thresholdMs) {
+        slowQueryThresholdMs = thresholdMs;
+    }
+
+    @Override
+    public long getTransactionRetries() {
+        return DBConnection.getTransactionRetries();
+    }
+
+    @Override
+    public long getStatementCacheHits() {
+        return DBConnection.getStatementCacheHits();
+    }
+
+    @Override
+    public long getStatementCacheMisses() {
+        return DBConnection.getStatementCacheMisses();
+    }
+
+    @Override
+    public long getReplicaReads() {
+        return DBConnection.getReplicaReads();
+    }
+
+    @Override
+    public long getReplicaFallbacks() {
+        return DBConnection.getReplicaFallbacks();
+    }
+
+    @Override
+    public StatementSummary[] getStatements() {
+        List<StatementSummary> summaries = new ArrayList<>();
+        statements.forEach((sql, stats) -> {
+            LatencyHistogram latency = stats.latency;
+            summaries.add(new StatementSummary(sql, latency.getCount(), stats.errors.get(), stats.rows.get(),
+                    latency.getMeanMillis() * latency.getCount(), latency.getPercentileMillis(50),
+                    latency.getPercentileMillis(95), latency.getPercentileMillis(99), latency.getMaxMillis()));
+        });
+        summaries.sort(Comparator.comparingDouble(StatementSummary::getTotalMillis).reversed());
+        return summaries.toArray(new StatementSummary[0]);
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("=== Query metrics: %d executions, %d slow (>= %d ms), %d transaction retries ===%n",
+                getTotalExecutions(), getSlowQueries(), slowQueryThresholdMs, getTransactionRetries()));
+        text.append(String.format("%9s %10s %8s %8s %8s %8s %10s %6s  %s%n",
+                "count", "total ms", "p50", "p95", "p99", "max", "rows", "errors", "sql"));
+        for (StatementSummary s : getStatements()) {
+            String sql = s.getSql().replaceAll("\\s+", " ");
+            if (sql.length() > DUMP_SQL_WIDTH) {
+                sql = sql.substring(0, DUMP_SQL_WIDTH - 3) + "...";
+            }
+            text.append(String.format("%9d %10.1f %8.2f %8.2f %8.2f %8.2f %10d %6d  %s%n",
+                    s.getCount(), s.getTotalMillis(), s.getP50Millis(), s.getP95Millis(), s.getP99Millis(),
+                    s.getMaxMillis(), s.getRows(), s.getErrors(), sql));
+        }
+        return text.toString();
+    }
+
+    @Override
+    public void reset() {
+        statements = new ConcurrentHashMap<>();
+        totalExecutions.set(0);
+        slowQueries.set(0);
+    }
+}
@@ -0,0 +1,82 @@
+package utils;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * JMX view of the per-statement SQL metrics, registered as airline:type=QueryMetrics
+ */
+public interface QueryMetricsMXBean {
+
+    long getTotalExecutions();
+
+    long getSlowQueries();
+
+    long getSlowQueryThresholdMs();
+
+    void setSlowQueryThresholdMs(long thresholdMs);
+
+    long getTransactionRetries();
+
+    long getStatementCacheHits();
+
+    long getStatementCacheMisses();
+
+    long getReplicaReads();
+
+    long getReplicaFallbacks();
+
+    /**
+     * Every statement seen so far, slowest total time first
+     */
+    StatementSummary[] getStatements();
+
+    /**
+     * The statements as a text table, as printed by the periodic dump
+     */
+    String dump();
+
+    /**
+     * Forget all statement metrics, e.g. after warming up
+     */
+    void reset();
+
+    /**
+     * Snapshot of one SQL statement's metrics
+     */
+    final class StatementSummary {
+        private final String sql;
+        private final long count;
+        private final long errors;
+        private final long rows;
+        private final double totalMillis;
+        private final double p50Millis;
+        private final double p95Millis;
+        private final double p99Millis;
+        private final double maxMillis;
+
+        @ConstructorProperties({"sql", "count", "errors", "rows", "totalMillis",
+                "p50Millis", "p95Millis", "p99Millis", "maxMillis"})
+        public StatementSummary(String sql, long count, long errors, long rows, double totalMillis,
+                                double p50Millis, double p95Millis, double p99Millis, double maxMillis) {
+            this.sql = sql;
+            this.count = count;
+            this.errors = errors;
+            this.rows = rows;
+            this.totalMillis = totalMillis;
+            this.p50Millis = p50Millis;
+            this.p95Millis = p95Millis;
+            this.p99Millis = p99Millis;
+            this.maxMillis = maxMillis;
+        }
+
+        public String getSql() { return sql; }
+        public long getCount() { return count; }
+        public long getErrors() { return errors; }
+        public long getRows() { return rows; }
+        public double getTotalMillis() { return totalMillis; }
+        public double getP50Millis() { return p50Millis; }
+        public double getP95Millis() { return p95Millis; }
+        public double getP99Millis() { return p99Millis; }
+        public double getMaxMillis() { return maxMillis; }
+    }
+}
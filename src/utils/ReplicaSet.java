@@ -0,0 +1,188 @@
+package utils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read replicas used by DBConnection for read-only queries
+ * Each replica has its own connection pool. A monitor thread measures every
+ * replica's replication lag; reads are spread over the replicas that are
+ * within the lag limit and go to the primary when none is
+ */
+class ReplicaSet {
+
+    /**
+     * One replica and what the monitor last found
+     */
+    private static final class Replica {
+        final String url;
+        final ConnectionPool pool;
+        // Not used until the first lag check succeeds
+        volatile boolean usable = false;
+
+        Replica(String url, ConnectionPool pool) {
+            this.url = url;
+            this.pool = pool;
+        }
+    }
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagMillis;
+    // Query returning the lag in seconds, or null to ask MySQL replication itself
+    private final String lagQuery;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong primaryFallbacks = new AtomicLong();
+    private final ScheduledExecutorService monitor;
+
+    ReplicaSet(List<ConnectionPool> pools, List<String> urls, long maxLagMillis, String lagQuery,
+               long checkIntervalMillis) {
+        for (int i = 0; i < pools.size(); i++) {
+            replicas.add(new Replica(urls.get(i), pools.get(i)));
+        }
+        this.maxLagMillis = maxLagMillis;
+        this.lagQuery = lagQuery;
+
+        // Check once up front so reads can use the replicas straight away
+        checkLag();
+        monitor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-replica-monitor");
+            t.setDaemon(true);
+            return t;
+        });
+        monitor.scheduleWithFixedDelay(this::checkLag, checkIntervalMillis, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Pick the pool for the next read: the usable replicas in turn
+     * Call readFromReplica() once a connection was borrowed from it, or failed() if none could be
+     * @return a replica's pool, or null if the read should go to the primary
+     */
+    ConnectionPool choose() {
+        int count = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), count);
+        for (int i = 0; i < count; i++) {
+            Replica replica = replicas.get((start + i) % count);
+            if (replica.usable) {
+                return replica.pool;
+            }
+        }
+        primaryFallbacks.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Count a read served by a replica
+     */
+    void readFromReplica() {
+        replicaReads.incrementAndGet();
+    }
+
+    /**
+     * Stop using a replica whose connection failed until the monitor finds it healthy again
+     * The read goes to the primary instead, so it counts as a fallback
+     */
+    void failed(ConnectionPool pool, SQLException e) {
+        primaryFallbacks.incrementAndGet();
+        for (Replica replica : replicas) {
+            if (replica.pool == pool && replica.usable) {
+                replica.usable = false;
+                System.err.println("Read replica " + replica.url + " failed, reading from the primary: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads sent to a replica
+     */
+    long getReplicaReads() {
+        return replicaReads.get();
+    }
+
+    /**
+     * Reads sent to the primary because no replica was within the lag limit or reachable
+     */
+    long getPrimaryFallbacks() {
+        return primaryFallbacks.get();
+    }
+
+    void shutdown() {
+        monitor.shutdownNow();
+        for (Replica replica : replicas) {
+            replica.pool.shutdown();
+        }
+    }
+
+    /**
+     * Measure every replica and mark it usable if its lag is within the limit
+     * State changes are logged, so a replica falling behind and catching up is visible
+     */
+    private void checkLag() {
+        for (Replica replica : replicas) {
+            long lag;
+            String problem = null;
+            try (Connection conn = replica.pool.borrow()) {
+                lag = measureLagMillis(conn);
+                if (lag < 0) {
+                    problem = "replication is not running";
+                } else if (lag > maxLagMillis) {
+                    problem = "lagging " + lag + " ms behind the primary (limit " + maxLagMillis + " ms)";
+                }
+            } catch (SQLException e) {
+                lag = -1;
+                problem = "unreachable: " + e.getMessage();
+            }
+
+            boolean usable = problem == null;
+            if (usable != replica.usable) {
+                if (usable) {
+                    System.out.println("Read replica " + replica.url + " in use (lag " + lag + " ms)");
+                } else {
+                    System.err.println("Read replica " + replica.url + " not used, " + problem);
+                }
+                replica.usable = usable;
+            }
+        }
+    }
+
+    /**
+     * Replication lag of a replica
+     * @return lag in milliseconds, or -1 if the replica isn't replicating
+     */
+    private long measureLagMillis(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            if (lagQuery != null) {
+                try (ResultSet rs = stmt.executeQuery(lagQuery)) {
+                    return rs.next() ? secondsToMillis(rs, 1) : -1;
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery("SHOW REPLICA STATUS")) {
+                return rs.next() ? secondsToMillis(rs, "Seconds_Behind_Source") : -1;
+            } catch (SQLException e) {
+                // MySQL before 8.0.22 only has the older names
+                try (ResultSet rs = stmt.executeQuery("SHOW SLAVE STATUS")) {
+                    return rs.next() ? secondsToMillis(rs, "Seconds_Behind_Master") : -1;
+                }
+            }
+        }
+    }
+
+    private static long secondsToMillis(ResultSet rs, int column) throws SQLException {
+        double seconds = rs.getDouble(column);
+        return rs.wasNull() ? -1 : Math.round(seconds * 1000);
+    }
+
+    private static long secondsToMillis(ResultSet rs, String column) throws SQLException {
+        double seconds = rs.getDouble(column);
+        return rs.wasNull() ? -1 : Math.round(seconds * 1000);
+    }
+}
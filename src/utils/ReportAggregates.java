@@ -0,0 +1,274 @@
+package utils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Report aggregates for Airline Reservation System
+ * Per-flight and per-customer totals live in the flight_sales and customer_sales
+ * tables, which are updated in the same transaction as every booking and
+ * cancellation, so the admin reports read a row per flight
+ * or customer instead of running GROUP BY queries over the whole booking
+ * history, and every application instance sees the same totals. Occupancy
+ * comes from the flights table, whose available seats the booking transaction
+ * also keeps current
+ */
+public class ReportAggregates {
+
+    private static final String RECORD_FLIGHT_SALES_QUERY =
+            "INSERT INTO flight_sales (flight_id, confirmed_bookings, revenue) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE confirmed_bookings = confirmed_bookings + VALUES(confirmed_bookings), " +
+            "revenue = revenue + VALUES(revenue)";
+    private static final String RECORD_CUSTOMER_SALES_QUERY =
+            "INSERT INTO customer_sales (user_id, total_bookings, total_spent) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE total_bookings = total_bookings + VALUES(total_bookings), " +
+            "total_spent = total_spent + VALUES(total_spent)";
+    private static final String CANCEL_FLIGHT_SALES_QUERY =
+            "UPDATE flight_sales SET confirmed_bookings = confirmed_bookings - 1, " +
+            "revenue = revenue - (SELECT total_amount FROM bookings WHERE booking_id = ?) " +
+            "WHERE flight_id = (SELECT flight_id FROM bookings WHERE booking_id = ?)";
+    private static final String CANCEL_CUSTOMER_SALES_QUERY =
+            "UPDATE customer_sales SET total_bookings = total_bookings - 1, " +
+            "total_spent = total_spent - (SELECT total_amount FROM bookings WHERE booking_id = ?) " +
+            "WHERE user_id = (SELECT user_id FROM bookings WHERE booking_id = ?)";
+    // Confirmed bookings deleted with their flight no longer count for anyone;
+    // cancelled ones were taken out when they were cancelled
+    private static final String REMOVE_FLIGHT_CUSTOMER_SALES_QUERY =
+            "UPDATE customer_sales SET " +
+            "total_bookings = total_bookings - (SELECT COUNT(*) FROM bookings b " +
+            "WHERE b.user_id = customer_sales.user_id AND b.flight_id = ? AND b.status = 'CONFIRMED'), " +
+            "total_spent = total_spent - (SELECT COALESCE(SUM(b.total_amount), 0) FROM bookings b " +
+            "WHERE b.user_id = customer_sales.user_id AND b.flight_id = ? AND b.status = 'CONFIRMED') " +
+            "WHERE user_id IN (SELECT user_id FROM bookings WHERE flight_id = ? AND status = 'CONFIRMED')";
+
+    private static final String FLIGHT_TOTALS_QUERY =
+            "SELECT f.flight_number, f.total_seats, f.available_seats, " +
+            "COALESCE(s.confirmed_bookings, 0) AS confirmed, COALESCE(s.revenue, 0) AS revenue " +
+            "FROM flights f LEFT JOIN flight_sales s ON s.flight_id = f.flight_id";
+    private static final String ROUTE_TOTALS_QUERY =
+            "SELECT f.source, f.destination, SUM(s.confirmed_bookings) AS confirmed " +
+            "FROM flights f JOIN flight_sales s ON s.flight_id = f.flight_id " +
+            "GROUP BY f.source, f.destination HAVING SUM(s.confirmed_bookings) > 0 " +
+            "ORDER BY confirmed DESC LIMIT ?";
+    private static final String CUSTOMER_TOTALS_QUERY =
+            "SELECT u.email, COALESCE(s.total_bookings, 0) AS total_bookings, " +
+            "COALESCE(s.total_spent, 0) AS total_spent " +
+            "FROM users u LEFT JOIN customer_sales s ON s.user_id = u.user_id " +
+            "ORDER BY total_spent DESC LIMIT ?";
+
+    /**
+     * Totals for one flight
+     */
+    public static final class FlightTotals {
+        private final String flightNumber;
+        private final int totalSeats;
+        private final int occupiedSeats;
+        private final int confirmedBookings;
+        private final double revenue;
+
+        FlightTotals(String flightNumber, int totalSeats, int occupiedSeats, int confirmedBookings, double revenue) {
+            this.flightNumber = flightNumber;
+            this.totalSeats = totalSeats;
+            this.occupiedSeats = occupiedSeats;
+            this.confirmedBookings = confirmedBookings;
+            this.revenue = revenue;
+        }
+
+        public String getFlightNumber() { return flightNumber; }
+        public int getConfirmedBookings() { return confirmedBookings; }
+        public double getRevenue() { return revenue; }
+
+        /**
+         * Booked share of the seats, in percent rounded to two decimals
+         */
+        public double getOccupancyPercent() {
+            return Math.round(occupiedSeats * 10000.0 / totalSeats) / 100.0;
+        }
+    }
+
+    /**
+     * Confirmed bookings on one route
+     */
+    public static final class RouteTotals {
+        private final String source;
+        private final String destination;
+        private final int confirmedBookings;
+
+        RouteTotals(String source, String destination, int confirmedBookings) {
+            this.source = source;
+            this.destination = destination;
+            this.confirmedBookings = confirmedBookings;
+        }
+
+        public String getSource() { return source; }
+        public String getDestination() { return destination; }
+        public int getConfirmedBookings() { return confirmedBookings; }
+    }
+
+    /**
+     * Confirmed bookings and spending of one customer, net of cancellations
+     */
+    public static final class CustomerTotals {
+        private final String email;
+        private final int totalBookings;
+        private final double totalSpent;
+
+        CustomerTotals(String email, int totalBookings, double totalSpent) {
+            this.email = email;
+            this.totalBookings = totalBookings;
+            this.totalSpent = totalSpent;
+        }
+
+        public String getEmail() { return email; }
+        public int getTotalBookings() { return totalBookings; }
+        public double getTotalSpent() { return totalSpent; }
+    }
+
+    /**
+     * Confirmed bookings to add to the totals, summed by flight and customer
+     * so a batch of bookings costs one statement per table
+     */
+    public static final class Sales {
+        private final Map<Integer, double[]> byFlight = new LinkedHashMap<>();
+        private final Map<Integer, double[]> byCustomer = new LinkedHashMap<>();
+
+        /**
+         * Count confirmed bookings of one customer on one flight
+         */
+        public void booked(int userId, int flightId, int count, double amount) {
+            double[] flight = byFlight.computeIfAbsent(flightId, key -> new double[2]);
+            flight[0] += count;
+            flight[1] += amount;
+            double[] customer = byCustomer.computeIfAbsent(userId, key -> new double[2]);
+            customer[0] += count;
+            customer[1] += amount;
+        }
+
+        public boolean isEmpty() {
+            return byFlight.isEmpty();
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private ReportAggregates() {
+    }
+
+    /**
+     * Add confirmed bookings to the totals, in the transaction that writes them
+     */
+    public static void recordBookings(Connection conn, Sales sales) throws SQLException {
+        if (sales.isEmpty()) {
+            return;
+        }
+        DBConnection.executeBatch(conn, RECORD_FLIGHT_SALES_QUERY, rows(sales.byFlight));
+        DBConnection.executeBatch(conn, RECORD_CUSTOMER_SALES_QUERY, rows(sales.byCustomer));
+    }
+
+    /**
+     * Take a cancelled booking out of its flight's and customer's totals, in the
+     * transaction that cancels it
+     */
+    public static void recordCancellation(Connection conn, int bookingId) throws SQLException {
+        DBConnection.executeUpdate(conn, CANCEL_FLIGHT_SALES_QUERY, bookingId, bookingId);
+        DBConnection.executeUpdate(conn, CANCEL_CUSTOMER_SALES_QUERY, bookingId, bookingId);
+    }
+
+    /**
+     * Take a flight's bookings out of the customer totals, in the transaction that
+     * deletes the flight; its own totals go with it through the foreign key
+     */
+    public static void recordFlightDeleted(Connection conn, int flightId) throws SQLException {
+        DBConnection.executeUpdate(conn, REMOVE_FLIGHT_CUSTOMER_SALES_QUERY, flightId, flightId, flightId);
+    }
+
+    /**
+     * Flights with confirmed bookings, highest revenue first
+     */
+    public static List<FlightTotals> getRevenueByFlight() throws SQLException {
+        List<FlightTotals> result = new ArrayList<>();
+        for (FlightTotals totals : loadFlightTotals()) {
+            if (totals.confirmedBookings > 0) {
+                result.add(totals);
+            }
+        }
+        result.sort(Comparator.comparingDouble(FlightTotals::getRevenue).reversed());
+        return result;
+    }
+
+    /**
+     * All flights, most occupied first
+     */
+    public static List<FlightTotals> getOccupancyByFlight() throws SQLException {
+        List<FlightTotals> result = new ArrayList<>();
+        for (FlightTotals totals : loadFlightTotals()) {
+            if (totals.totalSeats > 0) {
+                result.add(totals);
+            }
+        }
+        result.sort(Comparator.comparingDouble(FlightTotals::getOccupancyPercent).reversed());
+        return result;
+    }
+
+    /**
+     * Routes with the most confirmed bookings
+     */
+    public static List<RouteTotals> getTopRoutes(int limit) throws SQLException {
+        List<RouteTotals> result = new ArrayList<>();
+        try (ResultSet rs = DBConnection.executeReadQuery(ROUTE_TOTALS_QUERY, limit)) {
+            if (rs == null) {
+                throw new SQLException("Database connection unavailable");
+            }
+            while (rs.next()) {
+                result.add(new RouteTotals(rs.getString("source"), rs.getString("destination"),
+                        rs.getInt("confirmed")));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Customers who spent the most
+     */
+    public static List<CustomerTotals> getTopCustomers(int limit) throws SQLException {
+        List<CustomerTotals> result = new ArrayList<>();
+        try (ResultSet rs = DBConnection.executeReadQuery(CUSTOMER_TOTALS_QUERY, limit)) {
+            if (rs == null) {
+                throw new SQLException("Database connection unavailable");
+            }
+            while (rs.next()) {
+                result.add(new CustomerTotals(rs.getString("email"), rs.getInt("total_bookings"),
+                        rs.getDouble("total_spent")));
+            }
+        }
+        return result;
+    }
+
+    private static List<FlightTotals> loadFlightTotals() throws SQLException {
+        List<FlightTotals> result = new ArrayList<>();
+        try (ResultSet rs = DBConnection.executeReadQuery(FLIGHT_TOTALS_QUERY)) {
+            if (rs == null) {
+                throw new SQLException("Database connection unavailable");
+            }
+            while (rs.next()) {
+                int totalSeats = rs.getInt("total_seats");
+                result.add(new FlightTotals(rs.getString("flight_number"), totalSeats,
+                        totalSeats - rs.getInt("available_seats"), rs.getInt("confirmed"), rs.getDouble("revenue")));
+            }
+        }
+        return result;
+    }
+
+    private static List<Object[]> rows(Map<Integer, double[]> totals) {
+        List<Object[]> rows = new ArrayList<>(totals.size());
+        totals.forEach((id, sums) -> rows.add(new Object[] {id, (int) sums[0], sums[1]}));
+        return rows;
+    }
+}
@@ -0,0 +1,302 @@
+package utils;
+
+import model.Flight;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * In-memory route index for flight search
+ * Active flights are loaded in one query and indexed by (source, destination),
+ * each route ordered by departure time so date and departure-window searches
+ * are range scans. Searches are served from memory until the snapshot is older
+ * than the staleness bound or is explicitly invalidated
+ */
+public class RouteIndex {
+
+    // Maximum age of the cached snapshot (airline.search.maxStalenessMs)
+    private static final long MAX_STALENESS_MS = DatabaseConfig.getLong("airline.search.maxStalenessMs", 30000);
+
+    private static final String LOAD_FLIGHTS_QUERY =
+            "SELECT * FROM flights WHERE status = 'ACTIVE' ORDER BY departure_time";
+
+    // Orders flights by departure time, then id so flights leaving together both fit in a route map
+    private static final Comparator<Flight> BY_DEPARTURE =
+            Comparator.comparing(Flight::getDepartureTime).thenComparingInt(Flight::getFlightId);
+
+    private static final RouteIndex INSTANCE = new RouteIndex();
+
+    private volatile Snapshot snapshot = null;
+
+    /**
+     * Immutable view of all active flights, replaced as a whole on reload
+     */
+    private static final class Snapshot {
+        final Map<String, NavigableMap<Flight, Flight>> routes;
+        final List<Flight> allFlights;
+        final Map<String, Flight> byFlightNumber;
+        final Map<Integer, Flight> byFlightId;
+        // Adjacency for connection search: departures from each city ordered by departure time
+        final Map<String, List<Flight>> departuresByCity;
+        final long loadedAtMillis;
+
+        Snapshot(Map<String, NavigableMap<Flight, Flight>> routes, List<Flight> allFlights,
+                 Map<String, Flight> byFlightNumber, Map<Integer, Flight> byFlightId,
+                 Map<String, List<Flight>> departuresByCity) {
+            this.routes = routes;
+            this.allFlights = allFlights;
+            this.byFlightNumber = byFlightNumber;
+            this.byFlightId = byFlightId;
+            this.departuresByCity = departuresByCity;
+            this.loadedAtMillis = System.currentTimeMillis();
+        }
+    }
+
+    private RouteIndex() {
+    }
+
+    /**
+     * Get the shared route index
+     */
+    public static RouteIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Active flights on a route with at least one seat left, ordered by departure time
+     */
+    public List<Flight> search(String source, String destination) {
+        NavigableMap<Flight, Flight> route = currentSnapshot().routes.get(routeKey(source, destination));
+        if (route == null) {
+            return Collections.emptyList();
+        }
+        return withAvailableSeats(route.values());
+    }
+
+    /**
+     * Active flights on a route departing in a window, with at least one seat left
+     * @param from Start of the window (inclusive), or null for no lower bound
+     * @param to End of the window (exclusive), or null for no upper bound
+     * @return flights ordered by departure time
+     */
+    public List<Flight> search(String source, String destination, LocalDateTime from, LocalDateTime to) {
+        NavigableMap<Flight, Flight> route = currentSnapshot().routes.get(routeKey(source, destination));
+        if (route == null) {
+            return Collections.emptyList();
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            return Collections.emptyList();
+        }
+
+        // Probe keys sort before (or after) every flight leaving at the same time
+        NavigableMap<Flight, Flight> window = route;
+        if (from != null) {
+            window = window.tailMap(probe(from, Integer.MIN_VALUE), true);
+        }
+        if (to != null) {
+            window = window.headMap(probe(to, Integer.MIN_VALUE), false);
+        }
+        return withAvailableSeats(window.values());
+    }
+
+    /**
+     * Active flights on a route departing on a given date, with at least one seat left
+     */
+    public List<Flight> search(String source, String destination, LocalDate date) {
+        return search(source, destination, date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+    }
+
+    /**
+     * All active flights, ordered by departure time
+     */
+    public List<Flight> getActiveFlights() {
+        return currentSnapshot().allFlights;
+    }
+
+    /**
+     * Look up an active flight by its flight number
+     * @return the flight, or null if it is not an active flight
+     */
+    public Flight findByFlightNumber(String flightNumber) {
+        return currentSnapshot().byFlightNumber.get(flightNumber);
+    }
+
+    /**
+     * Look up an active flight by id
+     * @return the flight, or null if it is not an active flight
+     */
+    public Flight findById(int flightId) {
+        return currentSnapshot().byFlightId.get(flightId);
+    }
+
+    /**
+     * Active flights departing from a city, ordered by departure time
+     * The list is the index's precomputed adjacency and must not be modified
+     */
+    public List<Flight> getDepartures(String city) {
+        List<Flight> departures = currentSnapshot().departuresByCity.get(cityKey(city));
+        return departures == null ? Collections.emptyList() : departures;
+    }
+
+    /**
+     * Drop the cached snapshot so the next search reloads it, e.g. after an admin edits flights
+     */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    /**
+     * Apply a flight change seen in the database. The snapshot is dropped only if
+     * the change affects search, since every booking changes its flight's seat count
+     */
+    public void flightChanged(Flight changed) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        Flight indexed = current.byFlightId.get(changed.getFlightId());
+        boolean active = "ACTIVE".equals(changed.getStatus());
+        if (indexed == null ? active : (!active || !sameSchedule(indexed, changed))) {
+            invalidate();
+        }
+    }
+
+    private static boolean sameSchedule(Flight a, Flight b) {
+        return Objects.equals(a.getFlightNumber(), b.getFlightNumber())
+                && Objects.equals(a.getAirline(), b.getAirline())
+                && Objects.equals(a.getSource(), b.getSource())
+                && Objects.equals(a.getDestination(), b.getDestination())
+                && Objects.equals(a.getDepartureTime(), b.getDepartureTime())
+                && Objects.equals(a.getArrivalTime(), b.getArrivalTime())
+                && a.getPrice() == b.getPrice()
+                && a.getTotalSeats() == b.getTotalSeats();
+    }
+
+    private static Flight probe(LocalDateTime departureTime, int flightId) {
+        Flight probe = new Flight();
+        probe.setFlightId(flightId);
+        probe.setDepartureTime(departureTime);
+        return probe;
+    }
+
+    private List<Flight> withAvailableSeats(Iterable<Flight> flights) {
+        SeatInventory inventory = SeatInventory.getInstance();
+        List<Flight> result = new ArrayList<>();
+        for (Flight flight : flights) {
+            if (inventory.hasAvailableSeats(flight.getFlightId())) {
+                result.add(flight);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Current snapshot, reloading it if it is missing or older than the staleness bound
+     */
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null || System.currentTimeMillis() - current.loadedAtMillis > MAX_STALENESS_MS) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null || System.currentTimeMillis() - current.loadedAtMillis > MAX_STALENESS_MS) {
+                    Snapshot loaded = load();
+                    if (loaded != null) {
+                        snapshot = loaded;
+                        current = loaded;
+                    } else if (current == null) {
+                        // Database unavailable and nothing cached yet
+                        current = new Snapshot(Collections.emptyMap(), Collections.emptyList(),
+                                Collections.emptyMap(), Collections.emptyMap(), Collections.emptyMap());
+                    }
+                }
+            }
+        }
+        return current;
+    }
+
+    private Snapshot load() {
+        Map<String, NavigableMap<Flight, Flight>> routes = new HashMap<>();
+        List<Flight> allFlights = new ArrayList<>();
+        Map<String, Flight> byFlightNumber = new HashMap<>();
+        Map<Integer, Flight> byFlightId = new HashMap<>();
+        Map<String, List<Flight>> departuresByCity = new HashMap<>();
+
+        // From the primary: a reload follows a flight change, which a replica may not have yet
+        try (ResultSet rs = DBConnection.executeQuery(LOAD_FLIGHTS_QUERY)) {
+            if (rs == null) {
+                return null;
+            }
+            while (rs.next()) {
+                Flight flight = readFlight(rs);
+                allFlights.add(flight);
+                byFlightNumber.put(flight.getFlightNumber(), flight);
+                byFlightId.put(flight.getFlightId(), flight);
+                routes.computeIfAbsent(routeKey(flight.getSource(), flight.getDestination()),
+                        key -> new TreeMap<>(BY_DEPARTURE)).put(flight, flight);
+                // Rows arrive ordered by departure time, so each city's list is already sorted
+                departuresByCity.computeIfAbsent(cityKey(flight.getSource()), key -> new ArrayList<>()).add(flight);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading route index: " + e.getMessage());
+            return null;
+        }
+
+        for (Map.Entry<String, NavigableMap<Flight, Flight>> entry : routes.entrySet()) {
+            entry.setValue(Collections.unmodifiableNavigableMap(entry.getValue()));
+        }
+        for (Map.Entry<String, List<Flight>> entry : departuresByCity.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        return new Snapshot(routes, Collections.unmodifiableList(allFlights), byFlightNumber, byFlightId,
+                departuresByCity);
+    }
+
+    /**
+     * Build a Flight from the current row of a flights query
+     */
+    public static Flight readFlight(ResultSet rs) throws SQLException {
+        Flight flight = new Flight(
+                rs.getInt("flight_id"),
+                rs.getString("flight_number"),
+                rs.getString("airline"),
+                rs.getString("source"),
+                rs.getString("destination"),
+                toLocalDateTime(rs.getTimestamp("departure_time")),
+                toLocalDateTime(rs.getTimestamp("arrival_time")),
+                rs.getDouble("price"),
+                rs.getInt("total_seats"),
+                rs.getInt("available_seats"));
+        flight.setStatus(rs.getString("status"));
+        return flight;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    /**
+     * Routes match case-insensitively, like the default MySQL collation
+     */
+    private static String routeKey(String source, String destination) {
+        return cityKey(source) + "\u0000" + cityKey(destination);
+    }
+
+    /**
+     * City names match case-insensitively, like the default MySQL collation
+     */
+    static String cityKey(String city) {
+        return city.trim().toLowerCase(Locale.ROOT);
+    }
+}
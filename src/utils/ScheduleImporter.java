@@ -0,0 +1,334 @@
+package utils;
+
+import model.Flight;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Bulk flight schedule import for Airline Reservation System
+ * Reads a timetable file line by line, validates each chunk of rows in
+ * parallel with the admin form's rules (FlightValidator) and writes the valid
+ * rows as one JDBC batch per chunk, while the next chunk is being validated.
+ * Rows are upserted on flight_number: new flights are added as active with
+ * every seat available; existing ones get the file's schedule, price and
+ * capacity, keeping their bookings and status. Rows that fail validation or
+ * whose chunk fails to write are reported by line number
+ *
+ * CSV files have the columns
+ *   flight_number,airline,source,destination,departure_time,arrival_time,price,total_seats
+ * with an optional header row. Fixed-width files use the layout in FIXED_WIDTH_COLUMNS.
+ * In both, times look like 2025-08-15 06:00 and blank lines or lines starting with # are skipped
+ */
+public class ScheduleImporter {
+
+    // Rows validated and written together (airline.import.batchSize)
+    private static final int BATCH_SIZE = DatabaseConfig.getInt("airline.import.batchSize", 5000);
+
+    // Available seats follow a capacity change and are assigned before total_seats changes
+    private static final String UPSERT_FLIGHT_QUERY =
+            "INSERT INTO flights (flight_number, airline, source, destination, departure_time, arrival_time, " +
+            "price, total_seats, available_seats, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 'ACTIVE') " +
+            "ON DUPLICATE KEY UPDATE " +
+            "available_seats = GREATEST(0, available_seats + VALUES(total_seats) - total_seats), " +
+            "airline = VALUES(airline), source = VALUES(source), destination = VALUES(destination), " +
+            "departure_time = VALUES(departure_time), arrival_time = VALUES(arrival_time), " +
+            "price = VALUES(price), total_seats = VALUES(total_seats)";
+
+    // Fixed-width layout, SSIM style: start and end (exclusive) column of each field
+    //   flight number 1-8, airline 9-38, source 39-58, destination 59-78,
+    //   departure 79-94, arrival 95-110, price 111-120, total seats 121-126
+    private static final int[][] FIXED_WIDTH_COLUMNS = {
+            {0, 8}, {8, 38}, {38, 58}, {58, 78}, {78, 94}, {94, 110}, {110, 120}, {120, 126}
+    };
+    private static final int FIELDS = FIXED_WIDTH_COLUMNS.length;
+
+    /**
+     * Timetable file layouts
+     */
+    public enum Format {
+        CSV,
+        FIXED_WIDTH;
+
+        /**
+         * Pick the layout from the file name: .csv is CSV, anything else fixed-width
+         */
+        public static Format of(Path file) {
+            return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv") ? CSV : FIXED_WIDTH;
+        }
+    }
+
+    /**
+     * A row that was not imported
+     */
+    public static final class RowError {
+        private final long line;
+        private final String flightNumber;
+        private final String message;
+
+        RowError(long line, String flightNumber, String message) {
+            this.line = line;
+            this.flightNumber = flightNumber;
+            this.message = message;
+        }
+
+        public long getLine() { return line; }
+        public String getFlightNumber() { return flightNumber; }
+        public String getMessage() { return message; }
+    }
+
+    /**
+     * Outcome of an import
+     */
+    public static final class ImportResult {
+        private long rowsRead = 0;
+        private long rowsImported = 0;
+        private final List<RowError> errors = new ArrayList<>();
+
+        public synchronized long getRowsRead() { return rowsRead; }
+        public synchronized long getRowsImported() { return rowsImported; }
+
+        /**
+         * Rejected rows in file order
+         */
+        public synchronized List<RowError> getErrors() {
+            List<RowError> sorted = new ArrayList<>(errors);
+            sorted.sort((a, b) -> Long.compare(a.line, b.line));
+            return Collections.unmodifiableList(sorted);
+        }
+
+        /**
+         * Write the rejected rows to a CSV file
+         * @return Number of rows written
+         */
+        public long writeErrorReport(Path file) throws IOException {
+            List<Object[]> rows = new ArrayList<>();
+            for (RowError error : getErrors()) {
+                rows.add(new Object[] {error.line, error.flightNumber, error.message});
+            }
+            return DataExporter.exportRows(file, false, new String[] {"line", "flight_number", "error"}, rows);
+        }
+
+        private synchronized void read(long rows) { rowsRead += rows; }
+        private synchronized void imported(long rows) { rowsImported += rows; }
+        private synchronized void reject(RowError error) { errors.add(error); }
+    }
+
+    /**
+     * One line of the file, parsed and validated
+     */
+    private static final class Row {
+        final long line;
+        final String flightNumber;
+        final Flight flight;
+        final String error;
+
+        Row(long line, String flightNumber, Flight flight, String error) {
+            this.line = line;
+            this.flightNumber = flightNumber;
+            this.flight = flight;
+            this.error = error;
+        }
+    }
+
+    private final Format format;
+    private final ImportResult result = new ImportResult();
+
+    private ScheduleImporter(Format format) {
+        this.format = format;
+    }
+
+    /**
+     * Import a timetable file, picking the layout from its name
+     */
+    public static ImportResult importFile(Path file) throws IOException {
+        return importFile(file, Format.of(file));
+    }
+
+    /**
+     * Import a timetable file
+     * Rows in chunks that were written stay imported even if a later chunk fails
+     */
+    public static ImportResult importFile(Path file, Format format) throws IOException {
+        return new ScheduleImporter(format).run(file);
+    }
+
+    private ImportResult run(Path file) throws IOException {
+        ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "schedule-import-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Future<?> pendingWrite = null;
+            List<String> lines = new ArrayList<>(BATCH_SIZE);
+            long firstLine = 1;
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                lines.add(line);
+                if (lines.size() == BATCH_SIZE) {
+                    pendingWrite = importChunk(writer, pendingWrite, lines, firstLine);
+                    lines = new ArrayList<>(BATCH_SIZE);
+                    firstLine = lineNumber + 1;
+                }
+            }
+            if (!lines.isEmpty()) {
+                pendingWrite = importChunk(writer, pendingWrite, lines, firstLine);
+            }
+            await(pendingWrite);
+        } finally {
+            writer.shutdown();
+        }
+        return result;
+    }
+
+    /**
+     * Validate a chunk in parallel, then hand its valid rows to the writer once
+     * the previous chunk is written, so at most one chunk waits in memory
+     */
+    private Future<?> importChunk(ExecutorService writer, Future<?> previousWrite, List<String> lines, long firstLine)
+            throws IOException {
+        List<Row> rows = IntStream.range(0, lines.size()).parallel()
+                .mapToObj(i -> parseRow(firstLine + i, lines.get(i)))
+                .filter(row -> row != null)
+                .collect(Collectors.toList());
+
+        List<Row> valid = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            if (row.error != null) {
+                result.reject(new RowError(row.line, row.flightNumber, row.error));
+            } else {
+                valid.add(row);
+            }
+        }
+        result.read(rows.size());
+
+        await(previousWrite);
+        return valid.isEmpty() ? null : writer.submit(() -> writeChunk(valid));
+    }
+
+    /**
+     * Upsert a chunk's rows in one batched transaction
+     */
+    private void writeChunk(List<Row> rows) {
+        List<Object[]> params = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            Flight flight = row.flight;
+            params.add(new Object[] {flight.getFlightNumber(), flight.getAirline(), flight.getSource(),
+                    flight.getDestination(), Timestamp.valueOf(flight.getDepartureTime()),
+                    Timestamp.valueOf(flight.getArrivalTime()), flight.getPrice(), flight.getTotalSeats(),
+                    flight.getTotalSeats()});
+        }
+        try {
+            DBConnection.executeInTransaction(conn -> DBConnection.executeBatch(conn, UPSERT_FLIGHT_QUERY, params));
+            result.imported(rows.size());
+        } catch (SQLException e) {
+            System.err.println("Error importing schedule rows " + rows.get(0).line + "-"
+                    + rows.get(rows.size() - 1).line + ": " + e.getMessage());
+            for (Row row : rows) {
+                result.reject(new RowError(row.line, row.flightNumber, "Not saved: " + e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Parse and validate one line
+     * @return the row, or null for a blank, comment or header line
+     */
+    private Row parseRow(long lineNumber, String line) {
+        if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+            line = line.substring(1); // byte order mark written by spreadsheet exports
+        }
+        if (line.isBlank() || line.startsWith("#")) {
+            return null;
+        }
+        String[] fields = format == Format.CSV ? splitCsv(line) : splitFixedWidth(line);
+        if (format == Format.CSV && lineNumber == 1 && fields[0].trim().equalsIgnoreCase("flight_number")) {
+            return null;
+        }
+        String flightNumber = fields[0].trim();
+        if (fields.length != FIELDS) {
+            return new Row(lineNumber, flightNumber, null,
+                    "Expected " + FIELDS + " fields but found " + fields.length + ".");
+        }
+        try {
+            Flight flight = FlightValidator.parse(fields[0], fields[1], fields[2], fields[3],
+                    fields[4], fields[5], fields[6], fields[7]);
+            return new Row(lineNumber, flightNumber, flight, null);
+        } catch (IllegalArgumentException e) {
+            return new Row(lineNumber, flightNumber, null, e.getMessage());
+        }
+    }
+
+    private static String[] splitFixedWidth(String line) {
+        String[] fields = new String[FIELDS];
+        for (int i = 0; i < FIELDS; i++) {
+            int start = Math.min(FIXED_WIDTH_COLUMNS[i][0], line.length());
+            int end = Math.min(FIXED_WIDTH_COLUMNS[i][1], line.length());
+            fields[i] = line.substring(start, end);
+        }
+        return fields;
+    }
+
+    /**
+     * Split one CSV line, honouring double-quoted fields with "" as an escaped quote
+     */
+    private static String[] splitCsv(String line) {
+        List<String> fields = new ArrayList<>(FIELDS);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    private static void await(Future<?> write) throws IOException {
+        if (write == null) {
+            return;
+        }
+        try {
+            write.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Schedule import interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("Schedule import failed: " + e.getCause(), e.getCause());
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package utils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Temporary seat holds for Airline Reservation System
+ * A seat is held in the SeatInventory while the customer fills in the booking form
+ * and is released automatically once the hold's time-to-live runs out. Expiry is
+ * driven by a single thread blocked on a DelayQueue, so there is no polling scan
+ * and no thread per hold
+ */
+public class SeatHoldManager {
+
+    // Hold time-to-live (airline.hold.ttlSeconds)
+    private static final long HOLD_TTL_SECONDS = DatabaseConfig.getLong("airline.hold.ttlSeconds", 300);
+
+    private static final SeatHoldManager INSTANCE = new SeatHoldManager();
+
+    private final DelayQueue<SeatHold> expiryQueue = new DelayQueue<>();
+    private final ConcurrentHashMap<Long, SeatHold> activeHolds = new ConcurrentHashMap<>();
+    private final AtomicLong nextHoldId = new AtomicLong();
+    private final long ttlNanos;
+
+    /**
+     * A seat held on one flight until it expires, is confirmed or is released
+     */
+    public static final class SeatHold implements Delayed {
+        private final long holdId;
+        private final int flightId;
+        private final long expiresAtNanos;
+
+        private SeatHold(long holdId, int flightId, long expiresAtNanos) {
+            this.holdId = holdId;
+            this.flightId = flightId;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        public long getHoldId() { return holdId; }
+        public int getFlightId() { return flightId; }
+
+        /**
+         * Seconds left before the hold expires
+         */
+        public long getRemainingSeconds() {
+            return Math.max(0, TimeUnit.NANOSECONDS.toSeconds(expiresAtNanos - System.nanoTime()));
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other instanceof SeatHold) {
+                return Long.compare(expiresAtNanos, ((SeatHold) other).expiresAtNanos);
+            }
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+
+    private SeatHoldManager() {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(HOLD_TTL_SECONDS);
+        Thread reaper = new Thread(this::expireHolds, "seat-hold-reaper");
+        reaper.setDaemon(true);
+        reaper.start();
+    }
+
+    /**
+     * Get the shared hold manager
+     */
+    public static SeatHoldManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Hold a seat on a flight for the configured time-to-live
+     * @return the hold, or null if the flight has no seat left
+     */
+    public SeatHold hold(int flightId) {
+        if (!SeatInventory.getInstance().tryHold(flightId)) {
+            return null;
+        }
+        SeatHold hold = new SeatHold(nextHoldId.incrementAndGet(), flightId, System.nanoTime() + ttlNanos);
+        activeHolds.put(hold.holdId, hold);
+        expiryQueue.put(hold);
+        return hold;
+    }
+
+    /**
+     * Turn a hold into a reservation for the booking being written
+     * @return true if the hold was still active, false if it had already expired or been released
+     */
+    public boolean confirm(SeatHold hold) {
+        if (hold != null && activeHolds.remove(hold.holdId, hold)) {
+            SeatInventory.getInstance().commitHold(hold.flightId);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Give a held seat back, e.g. when the customer picks another flight or closes the form
+     */
+    public void release(SeatHold hold) {
+        if (hold != null && activeHolds.remove(hold.holdId, hold)) {
+            SeatInventory.getInstance().releaseHold(hold.flightId);
+        }
+    }
+
+    /**
+     * Check whether a hold is still active
+     */
+    public boolean isActive(SeatHold hold) {
+        return hold != null && activeHolds.containsKey(hold.holdId);
+    }
+
+    /**
+     * Number of holds currently active
+     */
+    public int getActiveHoldCount() {
+        return activeHolds.size();
+    }
+
+    /**
+     * Reaper loop: wait for the next hold to expire and release it if it is still active
+     * Confirmed or released holds stay in the queue until their deadline and are skipped
+     */
+    private void expireHolds() {
+        while (true) {
+            try {
+                SeatHold hold = expiryQueue.take();
+                if (activeHolds.remove(hold.holdId, hold)) {
+                    SeatInventory.getInstance().releaseHold(hold.flightId);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("Error expiring seat hold: " + e.getMessage());
+            }
+        }
+    }
+}
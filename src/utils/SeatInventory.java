@@ -0,0 +1,370 @@
+package utils;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory seat inventory for Airline Reservation System
+ * Keeps per-flight available seat counts seeded from the flights table, so
+ * searches and the booking form can show seats left and bookings on a sold-out
+ * flight are turned away without a database round trip. The counts are only a
+ * cache: every booking still takes its seats with a conditional UPDATE of
+ * flights in its own transaction, which is what stops other application
+ * instances from selling the same seats. Counts are refreshed from the
+ * database periodically, and for a flight whenever the database refuses a
+ * booking. Listeners are told whenever a flight's available seats change
+ */
+public class SeatInventory {
+
+    // How often every flight's counts are reloaded from the database (airline.inventory.refreshMs)
+    private static final long REFRESH_INTERVAL_MS = DatabaseConfig.getLong("airline.inventory.refreshMs", 5000);
+
+    private static final String SEED_QUERY =
+            "SELECT flight_id, total_seats, available_seats, status FROM flights";
+    private static final String LOAD_FLIGHT_QUERY =
+            "SELECT flight_id, total_seats, available_seats, status FROM flights WHERE flight_id = ?";
+
+    private static final SeatInventory INSTANCE = new SeatInventory();
+
+    private final ConcurrentHashMap<Integer, FlightSeats> flights = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService refresher;
+    private volatile boolean seeded = false;
+    private final List<SeatListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Notified after a flight's available seats change, on the thread that changed them
+     */
+    public interface SeatListener {
+        void seatsChanged(int flightId);
+    }
+
+    /**
+     * Seat counts for one flight; updated in place, so a reload never loses a
+     * reservation made on the object a moment earlier
+     */
+    private static final class FlightSeats {
+        int totalSeats;
+        boolean active;
+        // Seats this process may still sell: the database's count less its own reservations in flight
+        int available;
+        // Seats reserved here whose booking isn't in the database yet, and seats held during checkout
+        int reserved;
+        int held;
+
+        FlightSeats(int totalSeats, int availableSeats, boolean active) {
+            this.totalSeats = totalSeats;
+            this.available = availableSeats;
+            this.active = active;
+        }
+
+        /**
+         * Take the database's counts, keeping this process's unsaved reservations and holds
+         */
+        synchronized void load(FlightSeats database) {
+            totalSeats = database.totalSeats;
+            active = database.active;
+            available = Math.max(0, Math.min(totalSeats, database.available - reserved - held));
+        }
+    }
+
+    private SeatInventory() {
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "seat-inventory-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+        // Picks up seats sold and cancelled by other application instances
+        refresher.scheduleWithFixedDelay(this::refreshSeeded, REFRESH_INTERVAL_MS, REFRESH_INTERVAL_MS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get the shared inventory instance
+     */
+    public static SeatInventory getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Register a listener for seat changes
+     */
+    public void addListener(SeatListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(SeatListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void fireSeatsChanged(int flightId) {
+        for (SeatListener listener : listeners) {
+            try {
+                listener.seatsChanged(flightId);
+            } catch (RuntimeException e) {
+                System.err.println("Seat listener failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Load seat counts for every flight in one query
+     */
+    public void seed() {
+        try (ResultSet rs = DBConnection.executeQuery(SEED_QUERY)) {
+            if (rs != null) {
+                List<Integer> changed = new ArrayList<>();
+                while (rs.next()) {
+                    int flightId = rs.getInt("flight_id");
+                    if (update(flightId, readFlightSeats(rs))) {
+                        changed.add(flightId);
+                    }
+                }
+                seeded = true;
+                for (int flightId : changed) {
+                    fireSeatsChanged(flightId);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error seeding seat inventory: " + e.getMessage());
+        }
+    }
+
+    private void refreshSeeded() {
+        if (seeded) {
+            seed();
+        }
+    }
+
+    /**
+     * Available seats for a flight, as currently known in memory
+     * @return available seats, or 0 if the flight does not exist
+     */
+    public int getAvailableSeats(int flightId) {
+        FlightSeats seats = getFlightSeats(flightId);
+        if (seats == null) {
+            return 0;
+        }
+        synchronized (seats) {
+            return seats.active ? seats.available : 0;
+        }
+    }
+
+    /**
+     * Check whether a flight has at least one seat left
+     */
+    public boolean hasAvailableSeats(int flightId) {
+        return getAvailableSeats(flightId) > 0;
+    }
+
+    /**
+     * Reserve one seat for a booking about to be written
+     * @return false if the flight is known to be sold out
+     * @see #tryReserve(int, int)
+     */
+    public boolean tryReserve(int flightId) {
+        return tryReserve(flightId, 1);
+    }
+
+    /**
+     * Reserve several seats for a booking about to be written; either all are reserved or none
+     * This only turns away bookings early, the booking transaction still has to
+     * take the seats in the database. Afterwards call booked() if it did, or
+     * release() if it didn't
+     * @return false if the flight is known not to have that many seats left
+     */
+    public boolean tryReserve(int flightId, int count) {
+        FlightSeats seats = getFlightSeats(flightId);
+        if (seats == null || count <= 0) {
+            return false;
+        }
+        synchronized (seats) {
+            if (!seats.active || seats.available < count) {
+                return false;
+            }
+            seats.available -= count;
+            seats.reserved += count;
+        }
+        fireSeatsChanged(flightId);
+        return true;
+    }
+
+    /**
+     * Record that reserved seats are now booked in the database
+     */
+    public void booked(int flightId, int count) {
+        FlightSeats seats = flights.get(flightId);
+        if (seats != null) {
+            synchronized (seats) {
+                seats.reserved = Math.max(0, seats.reserved - count);
+            }
+        }
+    }
+
+    /**
+     * Hold one seat in memory only; the hold is later confirmed and booked, or released
+     * @return true if a seat was held
+     */
+    public boolean tryHold(int flightId) {
+        FlightSeats seats = getFlightSeats(flightId);
+        if (seats == null) {
+            return false;
+        }
+        synchronized (seats) {
+            if (!seats.active || seats.available < 1) {
+                return false;
+            }
+            seats.available--;
+            seats.held++;
+        }
+        fireSeatsChanged(flightId);
+        return true;
+    }
+
+    /**
+     * Turn a held seat into a reservation for the booking being written
+     */
+    public void commitHold(int flightId) {
+        FlightSeats seats = flights.get(flightId);
+        if (seats != null) {
+            synchronized (seats) {
+                seats.held = Math.max(0, seats.held - 1);
+                seats.reserved++;
+            }
+        }
+    }
+
+    /**
+     * Return a held seat to the available seats
+     */
+    public void releaseHold(int flightId) {
+        FlightSeats seats = flights.get(flightId);
+        if (seats != null) {
+            synchronized (seats) {
+                seats.held = Math.max(0, seats.held - 1);
+                seats.available = Math.min(seats.totalSeats, seats.available + 1);
+            }
+            fireSeatsChanged(flightId);
+        }
+    }
+
+    /**
+     * Give back a seat reserved for a booking that was not written
+     */
+    public void release(int flightId) {
+        release(flightId, 1);
+    }
+
+    /**
+     * Give back seats reserved for a booking that was not written
+     */
+    public void release(int flightId, int count) {
+        FlightSeats seats = flights.get(flightId);
+        if (seats == null || count <= 0) {
+            return;
+        }
+        synchronized (seats) {
+            seats.reserved = Math.max(0, seats.reserved - count);
+            seats.available = Math.min(seats.totalSeats, seats.available + count);
+        }
+        fireSeatsChanged(flightId);
+    }
+
+    /**
+     * Count seats given back in the database by a cancellation
+     */
+    public void cancelled(int flightId, int count) {
+        FlightSeats seats = flights.get(flightId);
+        if (seats == null || count <= 0) {
+            return;
+        }
+        synchronized (seats) {
+            seats.available = Math.min(seats.totalSeats, seats.available + count);
+        }
+        fireSeatsChanged(flightId);
+    }
+
+    /**
+     * Reload a flight from the database, e.g. after an admin edits it or the
+     * database had fewer seats left than the inventory thought
+     */
+    public void refresh(int flightId) {
+        FlightSeats loaded = loadFlightSeats(flightId);
+        if (loaded == null) {
+            evict(flightId);
+        } else if (update(flightId, loaded)) {
+            fireSeatsChanged(flightId);
+        }
+    }
+
+    /**
+     * Forget a flight, e.g. after it has been deleted
+     */
+    public void evict(int flightId) {
+        if (flights.remove(flightId) != null) {
+            fireSeatsChanged(flightId);
+        }
+    }
+
+    /**
+     * Apply counts read from the database to a flight, adding it if it's new
+     * @return true if the flight's available seats changed
+     */
+    private boolean update(int flightId, FlightSeats database) {
+        FlightSeats seats = flights.putIfAbsent(flightId, database);
+        if (seats == null) {
+            return true;
+        }
+        synchronized (seats) {
+            int before = seats.active ? seats.available : 0;
+            seats.load(database);
+            return before != (seats.active ? seats.available : 0);
+        }
+    }
+
+    /**
+     * Get a flight's counts, loading it on first use
+     */
+    private FlightSeats getFlightSeats(int flightId) {
+        FlightSeats seats = flights.get(flightId);
+        if (seats == null) {
+            if (!seeded) {
+                seed();
+                seats = flights.get(flightId);
+            }
+            if (seats == null) {
+                // Flight created after the inventory was seeded
+                FlightSeats loaded = loadFlightSeats(flightId);
+                if (loaded != null) {
+                    seats = flights.putIfAbsent(flightId, loaded);
+                    if (seats == null) {
+                        seats = loaded;
+                    }
+                }
+            }
+        }
+        return seats;
+    }
+
+    private FlightSeats loadFlightSeats(int flightId) {
+        try (ResultSet rs = DBConnection.executeQuery(LOAD_FLIGHT_QUERY, flightId)) {
+            if (rs != null && rs.next()) {
+                return readFlightSeats(rs);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading seats for flight " + flightId + ": " + e.getMessage());
+        }
+        return null;
+    }
+
+    private static FlightSeats readFlightSeats(ResultSet rs) throws SQLException {
+        return new FlightSeats(rs.getInt("total_seats"), rs.getInt("available_seats"),
+                "ACTIVE".equals(rs.getString("status")));
+    }
+}
@@ -0,0 +1,486 @@
+package utils;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Seat map for one flight, one bit per seat in each cabin class
+ * Claims and releases are lock-free CAS operations on 64-seat words, so seat
+ * assignment neither blocks nor allocates, even for 400+ seat aircraft
+ * The map only knows the seats this process has seen taken; the database's
+ * uk_active_seat key is what stops two instances booking the same seat, and a
+ * booking refused by it is moved to another seat with reseat()
+ *
+ * Every cabin is laid out as single-aisle rows of the same width: the first and
+ * last seat of a row are window seats, the seats either side of the middle are
+ * aisle seats and the rest are middle seats. Twin-aisle layouts aren't modelled
+ */
+public class SeatMap {
+
+    // Share of a flight's seats in the premium cabins; the rest are Economy
+    private static final double FIRST_CLASS_SHARE = 0.05;
+    private static final double BUSINESS_SHARE = 0.15;
+
+    // Seats per row in every cabin, used to work out window/aisle/middle positions (airline.seatmap.seatsPerRow)
+    private static final int SEATS_PER_ROW = Math.max(1, DatabaseConfig.getInt("airline.seatmap.seatsPerRow", 6));
+
+    private static final String LOAD_FLIGHT_QUERY =
+            "SELECT total_seats FROM flights WHERE flight_id = ?";
+    private static final String LOAD_TAKEN_SEATS_QUERY =
+            "SELECT seat_number FROM bookings WHERE flight_id = ? AND status = 'CONFIRMED'";
+    private static final String SEAT_BOOKED_QUERY =
+            "SELECT 1 FROM bookings WHERE flight_id = ? AND seat_number = ? AND status = 'CONFIRMED'";
+
+    // Unique key on the seats of confirmed bookings
+    private static final String ACTIVE_SEAT_KEY = "uk_active_seat";
+
+    // Seat maps by flight, loaded on first use
+    private static final ConcurrentHashMap<Integer, SeatMap> SEAT_MAPS = new ConcurrentHashMap<>();
+
+    /**
+     * Cabin classes offered in BookingForm
+     */
+    public enum Cabin {
+        ECONOMY("Economy", "E"),
+        BUSINESS("Business", "B"),
+        FIRST("First Class", "F");
+
+        private final String label;
+        private final String prefix;
+
+        Cabin(String label, String prefix) {
+            this.label = label;
+            this.prefix = prefix;
+        }
+
+        public String getLabel() { return label; }
+        public String getPrefix() { return prefix; }
+
+        /**
+         * Look up a cabin by its display label, defaulting to Economy
+         */
+        public static Cabin fromLabel(String label) {
+            for (Cabin cabin : values()) {
+                if (cabin.label.equals(label)) {
+                    return cabin;
+                }
+            }
+            return ECONOMY;
+        }
+    }
+
+    /**
+     * Seat position preference within a row
+     */
+    public enum Preference {
+        ANY, WINDOW, AISLE, MIDDLE
+    }
+
+    private final int flightId;
+    private final CabinSeats[] cabins = new CabinSeats[Cabin.values().length];
+
+    /**
+     * Create an empty seat map sized from the flight's total seats
+     */
+    public SeatMap(int flightId, int totalSeats) {
+        this.flightId = flightId;
+        int first = totalSeats >= 20 ? (int) Math.round(totalSeats * FIRST_CLASS_SHARE) : 0;
+        int business = totalSeats >= 10 ? (int) Math.round(totalSeats * BUSINESS_SHARE) : 0;
+        cabins[Cabin.FIRST.ordinal()] = new CabinSeats(first);
+        cabins[Cabin.BUSINESS.ordinal()] = new CabinSeats(business);
+        cabins[Cabin.ECONOMY.ordinal()] = new CabinSeats(totalSeats - first - business);
+    }
+
+    /**
+     * Get the seat map for a flight, loading seat occupancy from confirmed bookings on first use
+     * @return seat map, or null if the flight does not exist
+     */
+    public static SeatMap forFlight(int flightId) {
+        SeatMap seatMap = SEAT_MAPS.get(flightId);
+        if (seatMap == null) {
+            SeatMap loaded = load(flightId);
+            if (loaded != null) {
+                seatMap = SEAT_MAPS.putIfAbsent(flightId, loaded);
+                if (seatMap == null) {
+                    seatMap = loaded;
+                }
+            }
+        }
+        return seatMap;
+    }
+
+    /**
+     * Drop a flight's seat map so it is rebuilt on next use, e.g. after total seats change
+     */
+    public static void evict(int flightId) {
+        SEAT_MAPS.remove(flightId);
+    }
+
+    /**
+     * Drop every seat map, e.g. after a schedule import changed many flights
+     */
+    public static void evictAll() {
+        SEAT_MAPS.clear();
+    }
+
+    private static SeatMap load(int flightId) {
+        SeatMap seatMap = null;
+        try (ResultSet rs = DBConnection.executeQuery(LOAD_FLIGHT_QUERY, flightId)) {
+            if (rs != null && rs.next()) {
+                seatMap = new SeatMap(flightId, rs.getInt("total_seats"));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading seat map for flight " + flightId + ": " + e.getMessage());
+            return null;
+        }
+        if (seatMap == null) {
+            return null;
+        }
+
+        try (ResultSet rs = DBConnection.executeQuery(LOAD_TAKEN_SEATS_QUERY, flightId)) {
+            if (rs != null) {
+                while (rs.next()) {
+                    seatMap.claim(rs.getString("seat_number"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading booked seats for flight " + flightId + ": " + e.getMessage());
+            return null;
+        }
+        return seatMap;
+    }
+
+    public int getFlightId() {
+        return flightId;
+    }
+
+    /**
+     * Number of seats in a cabin
+     */
+    public int getCapacity(Cabin cabin) {
+        return cabins[cabin.ordinal()].capacity;
+    }
+
+    /**
+     * Check whether a specific seat (1-based) is free
+     */
+    public boolean isFree(Cabin cabin, int seat) {
+        return cabins[cabin.ordinal()].isFree(seat - 1);
+    }
+
+    /**
+     * Claim a specific seat (1-based)
+     * @return true if the seat was free and is now taken
+     */
+    public boolean claim(Cabin cabin, int seat) {
+        return cabins[cabin.ordinal()].claim(seat - 1);
+    }
+
+    /**
+     * Claim a seat by its label, e.g. "E15"
+     * @return true if the label is valid and the seat was free
+     */
+    public boolean claim(String seatNumber) {
+        Cabin cabin = cabinOf(seatNumber);
+        int seat = seatOf(seatNumber);
+        return cabin != null && seat > 0 && claim(cabin, seat);
+    }
+
+    /**
+     * Release a specific seat (1-based)
+     */
+    public void release(Cabin cabin, int seat) {
+        cabins[cabin.ordinal()].release(seat - 1);
+    }
+
+    /**
+     * Release a seat by its label, e.g. "E15"; null is ignored
+     */
+    public void release(String seatNumber) {
+        Cabin cabin = cabinOf(seatNumber);
+        int seat = seatOf(seatNumber);
+        if (cabin != null && seat > 0) {
+            release(cabin, seat);
+        }
+    }
+
+    /**
+     * Claim the lowest-numbered free seat in a cabin
+     * @return seat number (1-based), or -1 if the cabin is full
+     */
+    public int claimNext(Cabin cabin) {
+        return claimPreferred(cabin, Preference.ANY);
+    }
+
+    /**
+     * Claim the lowest-numbered free seat matching a preference, falling back
+     * to any free seat in the cabin
+     * @return seat number (1-based), or -1 if the cabin is full
+     */
+    public int claimPreferred(Cabin cabin, Preference preference) {
+        CabinSeats seats = cabins[cabin.ordinal()];
+        int index = preference == Preference.ANY ? -1 : seats.claimFirstFree(seats.preferenceMask(preference));
+        if (index < 0) {
+            index = seats.claimFirstFree(seats.validMask);
+        }
+        return index < 0 ? -1 : index + 1;
+    }
+
+    /**
+     * Claim seats for a group, preferring the lowest-numbered block of adjacent
+     * seats and falling back to the lowest free seats when the cabin has no
+     * block that large
+     * @return seat numbers (1-based), or null if the cabin has fewer free seats than requested
+     */
+    public int[] claimBlock(Cabin cabin, int count) {
+        int[] seats = cabins[cabin.ordinal()].claimBlock(count);
+        if (seats != null) {
+            for (int i = 0; i < seats.length; i++) {
+                seats[i]++;
+            }
+        }
+        return seats;
+    }
+
+    /**
+     * Check whether the database refused a booking because one of its seats is already booked
+     */
+    public static boolean isSeatTaken(SQLException e) {
+        String state = e.getSQLState();
+        String message = e.getMessage();
+        return state != null && state.startsWith("23")
+                && message != null && message.toLowerCase().contains(ACTIVE_SEAT_KEY);
+    }
+
+    /**
+     * Move a booking off the seats the database says are already booked, e.g. by
+     * another application instance, onto the lowest free seats in the same cabins
+     * The seats it loses stay claimed here, as they are taken
+     * @param seatNumbers Seats of the refused booking, replaced in place; a seat with
+     *                    no free seat left in its cabin is set to null
+     * @return true if every booked seat was replaced
+     * @throws SQLException if the bookings can't be read
+     */
+    public boolean reseat(String[] seatNumbers) throws SQLException {
+        boolean replacedAll = true;
+        for (int i = 0; i < seatNumbers.length; i++) {
+            if (seatNumbers[i] == null || !isBooked(seatNumbers[i])) {
+                continue;
+            }
+            Cabin cabin = cabinOf(seatNumbers[i]);
+            int seat = cabin == null ? -1 : claimNext(cabin);
+            seatNumbers[i] = seat < 0 ? null : formatSeat(cabin, seat);
+            replacedAll &= seat >= 0;
+        }
+        return replacedAll;
+    }
+
+    private boolean isBooked(String seatNumber) throws SQLException {
+        try (ResultSet rs = DBConnection.executeQuery(SEAT_BOOKED_QUERY, flightId, seatNumber)) {
+            if (rs == null) {
+                throw new SQLException("Database connection unavailable");
+            }
+            if (rs.next()) {
+                claim(seatNumber);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Format a seat label such as "E15"
+     */
+    public static String formatSeat(Cabin cabin, int seat) {
+        return cabin.getPrefix() + String.format("%02d", seat);
+    }
+
+    private static Cabin cabinOf(String seatNumber) {
+        if (seatNumber == null || seatNumber.length() < 2) {
+            return null;
+        }
+        String prefix = seatNumber.substring(0, 1);
+        for (Cabin cabin : Cabin.values()) {
+            if (cabin.getPrefix().equals(prefix)) {
+                return cabin;
+            }
+        }
+        return null;
+    }
+
+    private static int seatOf(String seatNumber) {
+        if (seatNumber == null || seatNumber.length() < 2) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(seatNumber.substring(1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Occupancy bits for one cabin; bit i set means seat i+1 is taken
+     */
+    private static final class CabinSeats {
+        final int capacity;
+        final AtomicLongArray taken;
+        // Masks of the bits that correspond to real seats, and to each seat position
+        final long[] validMask;
+        final long[] windowMask;
+        final long[] aisleMask;
+        final long[] middleMask;
+
+        CabinSeats(int capacity) {
+            this.capacity = Math.max(0, capacity);
+            int words = (this.capacity + 63) / 64;
+            this.taken = new AtomicLongArray(words);
+            this.validMask = new long[words];
+            this.windowMask = new long[words];
+            this.aisleMask = new long[words];
+            this.middleMask = new long[words];
+
+            for (int i = 0; i < this.capacity; i++) {
+                long bit = 1L << (i & 63);
+                int word = i >>> 6;
+                validMask[word] |= bit;
+                int position = i % SEATS_PER_ROW;
+                if (position == 0 || position == SEATS_PER_ROW - 1) {
+                    windowMask[word] |= bit;
+                } else if (position == (SEATS_PER_ROW - 1) / 2 || position == SEATS_PER_ROW / 2) {
+                    aisleMask[word] |= bit;
+                } else {
+                    middleMask[word] |= bit;
+                }
+            }
+        }
+
+        long[] preferenceMask(Preference preference) {
+            switch (preference) {
+                case WINDOW: return windowMask;
+                case AISLE: return aisleMask;
+                case MIDDLE: return middleMask;
+                default: return validMask;
+            }
+        }
+
+        boolean isFree(int index) {
+            if (index < 0 || index >= capacity) {
+                return false;
+            }
+            return (taken.get(index >>> 6) & (1L << (index & 63))) == 0;
+        }
+
+        boolean claim(int index) {
+            if (index < 0 || index >= capacity) {
+                return false;
+            }
+            int word = index >>> 6;
+            long bit = 1L << (index & 63);
+            long current;
+            do {
+                current = taken.get(word);
+                if ((current & bit) != 0) {
+                    return false;
+                }
+            } while (!taken.compareAndSet(word, current, current | bit));
+            return true;
+        }
+
+        void release(int index) {
+            if (index < 0 || index >= capacity) {
+                return;
+            }
+            int word = index >>> 6;
+            long bit = 1L << (index & 63);
+            long current;
+            do {
+                current = taken.get(word);
+                if ((current & bit) == 0) {
+                    return;
+                }
+            } while (!taken.compareAndSet(word, current, current & ~bit));
+        }
+
+        /**
+         * Claim count seats, a contiguous run if there is one
+         * @return seat indexes (0-based), or null if fewer than count seats are free
+         */
+        int[] claimBlock(int count) {
+            if (count <= 0) {
+                return null;
+            }
+            int start;
+            while ((start = findFreeRun(count)) >= 0) {
+                int claimed = 0;
+                while (claimed < count && claim(start + claimed)) {
+                    claimed++;
+                }
+                if (claimed == count) {
+                    int[] seats = new int[count];
+                    for (int i = 0; i < count; i++) {
+                        seats[i] = start + i;
+                    }
+                    return seats;
+                }
+                // Another booking took a seat in the run; give back the ones taken and look again
+                for (int i = 0; i < claimed; i++) {
+                    release(start + i);
+                }
+            }
+
+            int[] seats = new int[count];
+            for (int i = 0; i < count; i++) {
+                seats[i] = claimFirstFree(validMask);
+                if (seats[i] < 0) {
+                    for (int j = 0; j < i; j++) {
+                        release(seats[j]);
+                    }
+                    return null;
+                }
+            }
+            return seats;
+        }
+
+        /**
+         * First index of count adjacent free seats
+         * @return seat index (0-based), or -1 if there is no such run
+         */
+        private int findFreeRun(int count) {
+            int run = 0;
+            for (int i = 0; i < capacity; i++) {
+                if (isFree(i)) {
+                    if (++run == count) {
+                        return i - count + 1;
+                    }
+                } else {
+                    run = 0;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Claim the first free seat whose bit is set in the mask
+         * @return seat index (0-based), or -1 if none is free
+         */
+        int claimFirstFree(long[] mask) {
+            for (int word = 0; word < mask.length; word++) {
+                while (true) {
+                    long current = taken.get(word);
+                    long free = ~current & mask[word];
+                    if (free == 0) {
+                        break;
+                    }
+                    long bit = Long.lowestOneBit(free);
+                    if (taken.compareAndSet(word, current, current | bit)) {
+                        return (word << 6) + Long.numberOfTrailingZeros(bit);
+                    }
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package utils;
+
+import model.User;
+
+/**
+ * Signed-in user of the desktop client for Airline Reservation System
+ * Set once at login with the user's id already resolved, so the screens
+ * never look the user up by email again
+ */
+public class Session {
+
+    private static volatile User currentUser;
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private Session() {
+    }
+
+    /**
+     * Start a session for a user who has just logged in
+     */
+    public static void start(User user) {
+        currentUser = user;
+        UserDirectory.put(user.getEmail(), user.getUserId());
+    }
+
+    /**
+     * The signed-in user, or null if nobody is logged in
+     */
+    public static User getCurrentUser() {
+        return currentUser;
+    }
+
+    /**
+     * End the session on logout
+     */
+    public static void end() {
+        currentUser = null;
+    }
+}
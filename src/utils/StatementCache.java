@@ -0,0 +1,95 @@
+package utils;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of prepared statements for a single pooled connection, keyed by SQL text
+ * A statement is removed from the cache while in use and put back when the caller is done,
+ * so the same statement is never handed out twice at once
+ */
+class StatementCache {
+
+    // Hit/miss counters shared by every connection in the pool
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+
+    private final int capacity;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+
+    StatementCache(int capacity) {
+        this.capacity = capacity;
+        this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() > StatementCache.this.capacity) {
+                    closeStatement(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Take a cached statement for the given SQL
+     * @return cached statement, or null if it has to be prepared
+     */
+    synchronized PreparedStatement take(String sql) {
+        PreparedStatement pstmt = statements.remove(sql);
+        if (pstmt != null) {
+            HITS.incrementAndGet();
+        } else {
+            MISSES.incrementAndGet();
+        }
+        return pstmt;
+    }
+
+    /**
+     * Put a statement back after use, closing it if it can't be reused
+     */
+    synchronized void give(String sql, PreparedStatement pstmt) {
+        try {
+            if (capacity <= 0 || pstmt.isClosed()) {
+                closeStatement(pstmt);
+                return;
+            }
+            pstmt.clearParameters();
+            PreparedStatement previous = statements.put(sql, pstmt);
+            if (previous != null && previous != pstmt) {
+                closeStatement(previous);
+            }
+        } catch (SQLException e) {
+            closeStatement(pstmt);
+        }
+    }
+
+    /**
+     * Close every cached statement (called when the physical connection closes)
+     */
+    synchronized void clear() {
+        for (PreparedStatement pstmt : statements.values()) {
+            closeStatement(pstmt);
+        }
+        statements.clear();
+    }
+
+    static long getHits() {
+        return HITS.get();
+    }
+
+    static long getMisses() {
+        return MISSES.get();
+    }
+
+    private static void closeStatement(PreparedStatement pstmt) {
+        try {
+            pstmt.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing cached PreparedStatement: " + e.getMessage());
+        }
+    }
+}
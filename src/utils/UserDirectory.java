@@ -0,0 +1,76 @@
+package utils;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Email to user id lookups for Airline Reservation System
+ * Ids are resolved once and kept in a bounded LRU cache, so queries can filter
+ * bookings by user_id instead of joining users on email. Accounts are never
+ * re-keyed, so cached ids stay valid until the account is deleted
+ */
+public class UserDirectory {
+
+    // Customers whose ids are cached (airline.users.cacheSize)
+    private static final int CACHE_SIZE = DatabaseConfig.getInt("airline.users.cacheSize", 10000);
+
+    private static final String USER_ID_QUERY = "SELECT user_id FROM users WHERE email = ?";
+
+    private static final Map<String, Integer> CACHE = new LinkedHashMap<String, Integer>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private UserDirectory() {
+    }
+
+    /**
+     * Id of the user with an email, from the cache or looked up once
+     * @return the user id, or -1 if there is no such user
+     */
+    public static int getUserId(String email) throws SQLException {
+        synchronized (CACHE) {
+            Integer userId = CACHE.get(email);
+            if (userId != null) {
+                return userId;
+            }
+        }
+
+        try (ResultSet rs = DBConnection.executeQuery(USER_ID_QUERY, email)) {
+            if (rs == null) {
+                throw new SQLException("Database connection unavailable");
+            }
+            if (!rs.next()) {
+                return -1; // Not cached, so a later registration is picked up
+            }
+            int userId = rs.getInt("user_id");
+            put(email, userId);
+            return userId;
+        }
+    }
+
+    /**
+     * Cache an id the caller already read, e.g. at login
+     */
+    public static void put(String email, int userId) {
+        synchronized (CACHE) {
+            CACHE.put(email, userId);
+        }
+    }
+
+    /**
+     * Forget a user's id, e.g. after the account is deleted
+     */
+    public static void evict(String email) {
+        synchronized (CACHE) {
+            CACHE.remove(email);
+        }
+    }
+}